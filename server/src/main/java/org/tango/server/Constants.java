@@ -55,6 +55,21 @@ public final class Constants {
      * Retrieve the default value of STATE_CHECK_ATTR_ALARM from a system property. {@link stateCheckAttrAlarm}
      */
     public static final String STATE_CHECK_ALARMS_DEFAULT = System.getProperty("org.tango.server.checkalarms", "false");
+    /**
+     * Maximum age in milliseconds of the value of a not polled attribute before reading the state reads it again to
+     * check its alarm, 3 seconds by default. 0 reads it on each state, a negative value never reads it: the state then
+     * only uses the alarms of the last values read.
+     */
+    public static final long STATE_CHECK_ALARMS_MAX_AGE = Long.getLong("org.tango.server.checkalarms.maxage", 3000L);
+    /**
+     * Number of attributes of a device read at the same time to check their alarms. Each device has its own threads.
+     */
+    public static final int STATE_CHECK_ALARMS_THREADS = Integer.getInteger("org.tango.server.checkalarms.threads", 1);
+    /**
+     * If true, the change, archive and periodic criteria of an attribute are checked before sending its events. Off by
+     * default: an event is sent on each push.
+     */
+    public static final boolean EVENT_CHECK_CRITERIA = Boolean.getBoolean("org.tango.server.events.checkcriteria");
 
     // attribute properties names in tango db
     public static final String MEMORIZED_VALUE = "__value";
@@ -83,6 +98,7 @@ public final class Constants {
     public static final String ROOT_ATTRIBUTE = "__root_att";
     public static final String IS_POLLED = "isPolled";
     public static final String POLLING_PERIOD = "pollingPeriod";
+    public static final String EVENT_MAX_RATE = "event_max_rate";
 
     // default values
     public static final String NOT_SPECIFIED = "Not specified";
@@ -58,4 +58,16 @@ public interface IPollable {
 
     void setPollingStats(double executionDuration, double lastUpdateTime, double deltaTime);
 
+    double getPollingLateness();
+
+    long getPollingOverruns();
+
+    long getSkippedPollingCycles();
+
+    void setSchedulingStats(double lateness, long overruns, long skippedCycles);
+
+    int getBackOffPeriod();
+
+    void setBackOffPeriod(int backOffPeriod);
+
 }
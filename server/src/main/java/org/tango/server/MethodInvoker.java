@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calls a method of a device with at most one parameter, like {@link Method#invoke(Object, Object...)} but through
+ * an implementation of a functional interface generated once with {@link LambdaMetafactory}. The call is then a
+ * plain interface call, without argument array nor access checks. Falls back to reflection when the method cannot
+ * be bound, for instance a static method.
+ */
+public abstract class MethodInvoker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodInvoker.class);
+
+    public interface Getter {
+        Object get(Object target) throws Exception;
+    }
+
+    public interface Runner {
+        void run(Object target) throws Exception;
+    }
+
+    public interface Applier {
+        Object apply(Object target, Object arg) throws Exception;
+    }
+
+    public interface Setter {
+        void accept(Object target, Object arg) throws Exception;
+    }
+
+    private MethodInvoker() {
+    }
+
+    /**
+     * Build an invoker
+     *
+     * @param method the method to call
+     * @return the invoker
+     */
+    public static MethodInvoker of(final Method method) {
+        if (method.getParameterCount() <= 1 && !Modifier.isStatic(method.getModifiers())) {
+            try {
+                return new LambdaInvoker(method);
+            } catch (final Throwable e) {
+                LOGGER.debug("cannot bind {}, using reflection: {}", method, e.toString());
+            }
+        }
+        return new ReflectInvoker(method);
+    }
+
+    /**
+     * Call a method without parameter
+     *
+     * @param target the object of the method
+     * @return the result, null for a void method
+     * @throws IllegalAccessException  if the method is not accessible
+     * @throws InvocationTargetException wraps the exception thrown by the method
+     */
+    public abstract Object invoke(Object target) throws IllegalAccessException, InvocationTargetException;
+
+    /**
+     * Call a method with one parameter
+     *
+     * @param target the object of the method
+     * @param arg    the parameter
+     * @return the result, null for a void method
+     * @throws IllegalAccessException  if the method is not accessible
+     * @throws InvocationTargetException wraps the exception thrown by the method
+     */
+    public abstract Object invoke(Object target, Object arg) throws IllegalAccessException,
+            InvocationTargetException;
+
+    private static final class LambdaInvoker extends MethodInvoker {
+        private final Method method;
+        private final Getter getter;
+        private final Runner runner;
+        private final Applier applier;
+        private final Setter setter;
+
+        private LambdaInvoker(final Method method) throws Throwable {
+            this.method = method;
+            final Class<?> declaringClass = method.getDeclaringClass();
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+            final MethodHandle handle = lookup.unreflect(method);
+            final Class<?> returnType = method.getReturnType();
+            final boolean isVoid = returnType.equals(void.class);
+            if (method.getParameterCount() == 0) {
+                if (isVoid) {
+                    runner = (Runner) bind(lookup, handle, Runner.class, "run",
+                            MethodType.methodType(void.class, Object.class),
+                            MethodType.methodType(void.class, declaringClass));
+                    getter = null;
+                } else {
+                    getter = (Getter) bind(lookup, handle, Getter.class, "get",
+                            MethodType.methodType(Object.class, Object.class),
+                            MethodType.methodType(ClassUtils.primitiveToWrapper(returnType), declaringClass));
+                    runner = null;
+                }
+                applier = null;
+                setter = null;
+            } else {
+                final Class<?> paramType = ClassUtils.primitiveToWrapper(method.getParameterTypes()[0]);
+                if (isVoid) {
+                    setter = (Setter) bind(lookup, handle, Setter.class, "accept",
+                            MethodType.methodType(void.class, Object.class, Object.class),
+                            MethodType.methodType(void.class, declaringClass, paramType));
+                    applier = null;
+                } else {
+                    applier = (Applier) bind(lookup, handle, Applier.class, "apply",
+                            MethodType.methodType(Object.class, Object.class, Object.class),
+                            MethodType.methodType(ClassUtils.primitiveToWrapper(returnType), declaringClass,
+                                    paramType));
+                    setter = null;
+                }
+                getter = null;
+                runner = null;
+            }
+        }
+
+        private static Object bind(final MethodHandles.Lookup lookup, final MethodHandle handle,
+                final Class<?> interfaceClass, final String name, final MethodType erasedType,
+                final MethodType instantiatedType) throws Throwable {
+            final CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(interfaceClass),
+                    erasedType, handle, instantiatedType);
+            return site.getTarget().invoke();
+        }
+
+        @Override
+        public Object invoke(final Object target) throws IllegalAccessException, InvocationTargetException {
+            try {
+                if (getter != null) {
+                    return getter.get(target);
+                } else if (runner != null) {
+                    runner.run(target);
+                    return null;
+                }
+            } catch (final Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+            throw new IllegalArgumentException("wrong number of arguments for " + method);
+        }
+
+        @Override
+        public Object invoke(final Object target, final Object arg) throws IllegalAccessException,
+                InvocationTargetException {
+            try {
+                if (applier != null) {
+                    return applier.apply(target, arg);
+                } else if (setter != null) {
+                    setter.accept(target, arg);
+                    return null;
+                }
+            } catch (final Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+            throw new IllegalArgumentException("wrong number of arguments for " + method);
+        }
+    }
+
+    private static final class ReflectInvoker extends MethodInvoker {
+        private final Method method;
+
+        private ReflectInvoker(final Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(final Object target) throws IllegalAccessException, InvocationTargetException {
+            return method.invoke(target);
+        }
+
+        @Override
+        public Object invoke(final Object target, final Object arg) throws IllegalAccessException,
+                InvocationTargetException {
+            return method.invoke(target, arg);
+        }
+    }
+}
@@ -960,6 +960,39 @@ public final class AdminDevice implements TangoMXBean {
         return tangoStats.getMinRequestsPerSecond();
     }
 
+    @Override
+    @Attribute
+    public long getEventSentNr() {
+        return tangoStats.getEventSentNr();
+    }
+
+    @Override
+    @Attribute
+    public long getEventSentBytes() {
+        return tangoStats.getEventSentBytes();
+    }
+
+    @Override
+    @Attribute
+    public long getEventDroppedNr() {
+        return tangoStats.getEventDroppedNr();
+    }
+
+    @Override
+    @Attribute
+    public long getEventFailedNr() {
+        return tangoStats.getEventFailedNr();
+    }
+
+    /**
+     * @return the counters and latencies of each subscribed event
+     */
+    @Override
+    @Command(name = "QueryEventMetrics", outTypeDesc = "Str[i] = event name: sent, dropped and failed events, bytes sent, marshalling and sending durations in microseconds")
+    public String[] getEventMetrics() {
+        return tangoStats.getEventMetrics();
+    }
+
     // public void setQuartzThreadsPoolSize(final int quartzThreadsPoolSize) {
     // this.quartzThreadsPoolSize = quartzThreadsPoolSize;
     // DeviceScheduler.setThreadPoolSize(quartzThreadsPoolSize);
@@ -165,6 +165,18 @@ public class PollStatusCommand implements Callable<String[]> {
             buf.append(" mS\nDelta between last records (in mS) = ");
             buf.append(pollable.getDeltaTime());
         }
+        if (pollable.getPollingPeriod() != 0) {
+            buf.append("\nPolling late by (mS) = ");
+            buf.append(pollable.getPollingLateness());
+            buf.append("\nPolling overruns = ");
+            buf.append(pollable.getPollingOverruns());
+            buf.append("\nSkipped polling cycles = ");
+            buf.append(pollable.getSkippedPollingCycles());
+            if (pollable.getBackOffPeriod() != 0) {
+                buf.append("\nPolling backed off after failures, period (mS) = ");
+                buf.append(pollable.getBackOffPeriod());
+            }
+        }
         return buf;
     }
 }
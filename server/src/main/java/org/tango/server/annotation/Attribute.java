@@ -148,6 +148,14 @@ public @interface Attribute {
      */
     boolean pushChangeEvent() default false;
 
+    /**
+     * The device hands over the values it returns or receives: the framework keeps them without copying them. The
+     * device must not modify a value once it has been returned.
+     * 
+     * @return true if values are not copied
+     */
+    boolean transferValueOwnership() default false;
+
     /**
      * The framework will check event conditions before firing it
      * 
@@ -62,4 +62,11 @@ public @interface Device {
      * @return The device type
      */
     String deviceType() default "Uninitialised";
+
+    /**
+     * Hands over the values of all attributes declared in this class, see {@link Attribute#transferValueOwnership()}
+     * 
+     * @return true if attribute values are not copied
+     */
+    boolean transferValueOwnership() default false;
 }
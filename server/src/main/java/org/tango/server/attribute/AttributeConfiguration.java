@@ -52,12 +52,15 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
     private boolean isMemorizedAtInit = true;
     private int pollingPeriod = 0;
     private boolean isPolled = false;
+    private double eventMaxRate = 0;
     private AttributePropertiesImpl attributeProperties = new AttributePropertiesImpl();
     private boolean pushDataReady;
     private boolean pushChangeEvent;
     private boolean checkChangeEvent;
     private boolean pushArchiveEvent;
     private boolean checkArchivingEvent;
+    private boolean transferValueOwnership;
+    private boolean flatImage;
 
     public AttributeConfiguration() {
 
@@ -77,11 +80,14 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
         isMemorizedAtInit = config.isMemorizedAtInit;
         pollingPeriod = config.pollingPeriod;
         isPolled = config.isPolled;
+        eventMaxRate = config.eventMaxRate;
         pushDataReady = config.pushDataReady;
         pushChangeEvent = config.pushChangeEvent;
         checkChangeEvent = config.checkChangeEvent;
         pushArchiveEvent = config.pushArchiveEvent;
         checkArchivingEvent = config.checkArchivingEvent;
+        transferValueOwnership = config.transferValueOwnership;
+        flatImage = config.flatImage;
         attributeProperties = config.attributeProperties;
     }
 
@@ -281,6 +287,23 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
         this.isPolled = isPolled;
     }
 
+    /**
+     * @return the maximum number of value events per second sent for each subscription, 0 if not limited
+     */
+    public double getEventMaxRate() {
+        return eventMaxRate;
+    }
+
+    /**
+     * Limit the rate of the value events. Within a period of 1/rate seconds, only the first event is sent, the
+     * following ones are conflated and the latest value is sent at the end of the period.
+     *
+     * @param eventMaxRate the maximum number of value events per second, 0 to disable the limit
+     */
+    public void setEventMaxRate(final double eventMaxRate) {
+        this.eventMaxRate = eventMaxRate;
+    }
+
     public boolean isPushDataReady() {
         return pushDataReady;
     }
@@ -297,6 +320,40 @@ public final class AttributeConfiguration implements PolledObjectConfig, IConfig
         this.pushChangeEvent = pushChangeEvent;
     }
 
+    /**
+     * @return true if the values given by the device are kept without being copied
+     */
+    public boolean isTransferValueOwnership() {
+        return transferValueOwnership;
+    }
+
+    /**
+     * When true, the device must not modify an attribute value after having returned it: it is kept by reference in
+     * the read value and the history.
+     *
+     * @param transferValueOwnership
+     */
+    public void setTransferValueOwnership(final boolean transferValueOwnership) {
+        this.transferValueOwnership = transferValueOwnership;
+    }
+
+    /**
+     * @return true if the image is exchanged with the device as a {@link FlatImage}
+     */
+    public boolean isFlatImage() {
+        return flatImage;
+    }
+
+    /**
+     * For an image attribute, the written values are given to the device as 1D arrays with their dimensions (cf
+     * {@link FlatImage}) instead of 2D arrays.
+     *
+     * @param flatImage
+     */
+    public void setFlatImage(final boolean flatImage) {
+        this.flatImage = flatImage;
+    }
+
     public boolean isCheckChangeEvent() {
         return checkChangeEvent;
     }
@@ -24,8 +24,11 @@
  */
 package org.tango.server.attribute;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Locale;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -41,6 +44,17 @@ import fr.esrf.Tango.DevFailed;
 
 public final class AttributeHistory {
 
+    /**
+     * System property for the directory of the persistent history. If set, the history of scalar attributes with
+     * primitive values is kept in memory mapped files, one per attribute, and reloaded when the server restarts.
+     */
+    public static final String HISTORY_DIR = "org.tango.server.history.dir";
+    /**
+     * System property for the depth of the persistent history, independent of the poll ring depth
+     */
+    public static final String HISTORY_DEPTH = "org.tango.server.history.depth";
+    private static final int DEFAULT_HISTORY_DEPTH = 100000;
+
     private final Logger logger = LoggerFactory.getLogger(AttributeHistory.class);
     private final String attributeName;
     private final Deque<HistoryItem> valueHistory = new ArrayDeque<HistoryItem>(Constants.QUEUE_CAPACITY);
@@ -48,17 +62,72 @@ public final class AttributeHistory {
     private final int tangoType;
     private int maxSize = Constants.DEFAULT_POLL_DEPTH;
     private final AttrDataFormat format;
+    /**
+     * history of scalar attributes with primitive values, null if the values are kept as items
+     */
+    private ScalarHistoryRing ring;
+    /**
+     * file of the persistent history, until it is opened
+     */
+    private File historyFile;
 
     public AttributeHistory(final String attributeName, final boolean isReadWrite, final int tangoType,
             final AttrDataFormat format) {
+        this(null, attributeName, isReadWrite, tangoType, format);
+    }
+
+    public AttributeHistory(final String deviceName, final String attributeName, final boolean isReadWrite,
+            final int tangoType, final AttrDataFormat format) {
         this.attributeName = attributeName;
         this.isReadWrite = isReadWrite;
         this.tangoType = tangoType;
         this.format = format;
+        if (AttrDataFormat.SCALAR.equals(format)) {
+            ring = new ScalarHistoryRing(isReadWrite, maxSize - 1);
+            final String dir = System.getProperty(HISTORY_DIR);
+            if (dir != null && deviceName != null) {
+                historyFile = new File(dir, deviceName.toLowerCase(Locale.ENGLISH) + File.separator
+                        + attributeName.toLowerCase(Locale.ENGLISH) + ".hist");
+            }
+        }
+    }
+
+    /**
+     * Open the persistent history, if configured
+     *
+     * @param create create the file if it does not exist yet
+     */
+    private void openPersistentHistory(final boolean create) {
+        if (historyFile == null || ring == null || !create && !historyFile.exists()) {
+            return;
+        }
+        try {
+            final ScalarHistoryRing persistent = new ScalarHistoryRing(isReadWrite, MappedHistoryRecords.open(
+                    historyFile, attributeName, isReadWrite, Integer.getInteger(HISTORY_DEPTH, DEFAULT_HISTORY_DEPTH)));
+            logger.debug("{} persistent history restored with {} values", attributeName, persistent.size());
+            ring.drainTo(persistent);
+            ring = persistent;
+        } catch (final IOException e) {
+            logger.error("cannot open persistent history {}: {}", historyFile, e.getMessage());
+        }
+        historyFile = null;
     }
 
     public synchronized void addToHistory(final AttributeValue readValue, final AttributeValue writeValue,
             final DevError[] error) {
+        if (ring != null) {
+            if (ring.add(readValue, writeValue, error)) {
+                // the file is created only for a history of primitive values
+                openPersistentHistory(ring.hasKind());
+                return;
+            }
+            logger.debug("{} history is not primitive, keeping it as items", attributeName);
+            // a persistent history is kept as is for the next restart
+            ring.drainTo(valueHistory, maxSize - 1);
+            ring.close();
+            ring = null;
+            historyFile = null;
+        }
         while (valueHistory.size() >= maxSize - 1) {
             valueHistory.poll();
         }
@@ -69,19 +138,60 @@ public final class AttributeHistory {
     }
 
     public synchronized int size() {
+        openPersistentHistory(false);
+        if (ring != null) {
+            return ring.size();
+        }
         return valueHistory.size();
     }
 
+    /**
+     * Clear the history when the polling is reconfigured. A persistent history is kept for the next restart.
+     */
     public synchronized void clear() {
+        if (ring != null && !ring.isPersistent()) {
+            ring.clear();
+        }
         valueHistory.clear();
     }
 
+    /**
+     * Reset the history before it is filled again, truncating a persistent history
+     */
+    public synchronized void reset() {
+        openPersistentHistory(false);
+        if (ring != null) {
+            ring.clear();
+        }
+        valueHistory.clear();
+    }
+
+    /**
+     * Release a persistent history, when the attribute is removed. The file is kept for the next restart, and new
+     * values are only kept in memory.
+     */
+    public synchronized void close() {
+        if (ring != null && ring.isPersistent()) {
+            ring.close();
+            ring = new ScalarHistoryRing(isReadWrite, maxSize - 1);
+        }
+        historyFile = null;
+    }
+
     public synchronized DevAttrHistory_4 getAttrHistory4(final int maxSize) throws DevFailed {
+        openPersistentHistory(false);
+        if (ring != null && ring.size() > 0) {
+            return ring.toHistory(attributeName, maxSize, tangoType, format).getAttrHistory4();
+        }
         return new AttributeHistoryConvertor(attributeName, valueHistory, maxSize, tangoType, format, isReadWrite)
         .getAttrHistory4();
     }
 
     public synchronized DevAttrHistory_5 getAttrHistory5(final int maxSize) throws DevFailed {
+        openPersistentHistory(false);
+        if (ring != null && ring.size() > 0) {
+            return ring.toHistory(attributeName, maxSize, tangoType, format).getAttrHistory5();
+        }
         return new AttributeHistoryConvertor(attributeName, valueHistory, maxSize, tangoType, format, isReadWrite)
         .getAttrHistory5();
     }
@@ -89,7 +199,7 @@ public final class AttributeHistory {
     @Override
     public String toString() {
         final ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.MULTI_LINE_STYLE);
-        builder.append("history size", valueHistory.size());
+        builder.append("history size", size());
         return builder.toString();
     }
 
@@ -97,7 +207,12 @@ public final class AttributeHistory {
         return maxSize;
     }
 
-    public void setMaxSize(final int maxSize) {
+    public synchronized void setMaxSize(final int maxSize) {
         this.maxSize = maxSize;
+        if (ring != null && !ring.isPersistent() && ring.getCapacity() != Math.max(1, maxSize - 1)) {
+            final ScalarHistoryRing resized = new ScalarHistoryRing(isReadWrite, maxSize - 1);
+            ring.drainTo(resized);
+            ring = resized;
+        }
     }
 }
@@ -83,6 +83,28 @@ public class AttributeHistoryConvertor {
         }
     }
 
+    AttributeHistoryConvertor(final String attributeName, final int tangoType, final AttrDataFormat format,
+            final boolean isReadWrite, final TimeVal[] times, final Any values, final AttrQuality[] qualitiesArray,
+            final EltInArray[] qualSizeArray, final AttributeDim[] readDimArray, final EltInArray[] readDimSizeArray,
+            final AttributeDim[] writeDimArray, final EltInArray[] writeDimSizeArray, final DevError[][] errorsHist,
+            final EltInArray[] errorsArrayHist) {
+        this.attributeName = attributeName;
+        this.tangoType = tangoType;
+        this.format = format;
+        valueHistory = null;
+        this.isReadWrite = isReadWrite;
+        this.times = times;
+        this.values = values;
+        this.qualitiesArray = qualitiesArray;
+        this.qualSizeArray = qualSizeArray;
+        this.readDimArray = readDimArray;
+        this.readDimSizeArray = readDimSizeArray;
+        this.writeDimArray = writeDimArray;
+        this.writeDimSizeArray = writeDimSizeArray;
+        this.errorsHist = errorsHist;
+        this.errorsArrayHist = errorsArrayHist;
+    }
+
     public AttributeHistoryConvertor(final DeviceDataHistory[] attributeHistory, final boolean isReadWrite)
             throws DevFailed {
         this.isReadWrite = isReadWrite;
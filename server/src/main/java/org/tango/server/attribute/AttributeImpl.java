@@ -38,12 +38,15 @@ import org.tango.attribute.AttributeTangoType;
 import org.tango.server.*;
 import org.tango.server.cache.PollingUtils;
 import org.tango.server.events.EventManager;
+import org.tango.server.events.EventType;
 import org.tango.server.idl.TangoIDLAttributeUtil;
 import org.tango.server.properties.AttributePropertiesManager;
 import org.tango.utils.ArrayUtils;
 import org.tango.utils.DevFailedUtils;
 
 import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -79,6 +82,19 @@ public class AttributeImpl extends DeviceBehaviorObject
     private volatile double executionDuration;
     private volatile double lastUpdateTime;
     private volatile double deltaTime;
+    private volatile double pollingLateness;
+    private volatile long pollingOverruns;
+    private volatile long skippedPollingCycles;
+    private volatile int backOffPeriod;
+    private volatile IAlarmListener alarmListener;
+    /**
+     * time of the last successful update of the read value, 0 if none
+     */
+    private volatile long valueUpdateTime;
+    /**
+     * event types with at least one subscriber, one bit per {@link EventType#ordinal()}
+     */
+    private volatile int eventSubscriptionMask;
     private ReentrantLock lock = new ReentrantLock();
 
     public AttributeImpl(final IAttributeBehavior behavior, final String deviceName) throws DevFailed {
@@ -89,8 +105,8 @@ public class AttributeImpl extends DeviceBehaviorObject
         isFwdAttribute = behavior instanceof ForwardedAttribute;
         config = behavior.getConfiguration();
         this.behavior = behavior;
-        history = new AttributeHistory(config.getName(), config.getWritable().equals(AttrWriteType.READ_WRITE),
-                config.getTangoType(), config.getFormat());
+        history = new AttributeHistory(deviceName, config.getName(), config.getWritable().equals(
+                AttrWriteType.READ_WRITE), config.getTangoType(), config.getFormat());
         isAlarmToHigh = false;
     }
 
@@ -109,6 +125,7 @@ public class AttributeImpl extends DeviceBehaviorObject
             lock();
             applyMemorizedValue();
             configureAttributePropsFromDb();
+            configureEventMaxRateFromDb();
         } finally {
             unlock();
         }
@@ -196,17 +213,13 @@ public class AttributeImpl extends DeviceBehaviorObject
         // profilerPeriod.start("invoke");
         if (!config.getWritable().equals(AttrWriteType.READ) && behavior instanceof ISetValueUpdater) {
             // write value is managed by the user
-            try {
-                final AttributeValue setValue = ((ISetValueUpdater) behavior).getSetValue();
-                if (setValue != null) {
-                    writeValue = (AttributeValue) ((ISetValueUpdater) behavior).getSetValue().clone();
-                    // get as array if necessary (for image)
-                    writeValue.setValueWithoutDim(ArrayUtils.from2DArrayToArray(writeValue.getValue()));
-                } else {
-                    writeValue = null;
-                }
-            } catch (final CloneNotSupportedException e) {
-                throw DevFailedUtils.newDevFailed(e);
+            final AttributeValue setValue = ((ISetValueUpdater) behavior).getSetValue();
+            if (setValue != null) {
+                writeValue = copyValue(setValue);
+                // get as array if necessary (for image)
+                writeValue.setValueWithoutDim(toFlatArray(writeValue.getValue()));
+            } else {
+                writeValue = null;
             }
         }
         if (config.getWritable().equals(AttrWriteType.WRITE)) {
@@ -241,12 +254,8 @@ public class AttributeImpl extends DeviceBehaviorObject
                     name + " read value has not been updated");
         }
 
-        try {
-            // copy value
-            readValue = (AttributeValue) inValue.clone();
-        } catch (final CloneNotSupportedException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        }
+        // copy value
+        readValue = copyValue(inValue);
 
         // update quality if necessary
         if (readValue.getValue() != null && !readValue.getQuality().equals(AttrQuality.ATTR_INVALID)) {
@@ -261,7 +270,7 @@ public class AttributeImpl extends DeviceBehaviorObject
                 checkUpdateErrors(readValue);
                 // profilerPeriod.start("from2DArrayToArray");
                 // get as array if necessary (for image)
-                readValue.setValueWithoutDim(ArrayUtils.from2DArrayToArray(readValue.getValue()));
+                readValue.setValueWithoutDim(toFlatArray(readValue.getValue()));
                 // force conversion to check types
                 // profilerPeriod.start("toAttributeValue5");
                 TangoIDLAttributeUtil.toAttributeValue5(this, readValue, null);
@@ -271,6 +280,7 @@ public class AttributeImpl extends DeviceBehaviorObject
             }
             // profilerPeriod.start("updateDefaultWritePart");
             updateDefaultWritePart();
+            valueUpdateTime = System.nanoTime();
             // profilerPeriod.stop().print();
 
         } catch (final DevFailed e) {
@@ -283,6 +293,39 @@ public class AttributeImpl extends DeviceBehaviorObject
         xlogger.exit(getName());
     }
 
+    /**
+     * Copy a value given by or to the device. Data are deep copied unless the device has transferred their ownership
+     * (see {@link AttributeConfiguration#isTransferValueOwnership()}).
+     *
+     * @param value
+     * @return the copy
+     * @throws DevFailed
+     */
+    private AttributeValue copyValue(final AttributeValue value) throws DevFailed {
+        if (config.isTransferValueOwnership()) {
+            return value.shallowCopy();
+        }
+        try {
+            return (AttributeValue) value.clone();
+        } catch (final CloneNotSupportedException e) {
+            throw DevFailedUtils.newDevFailed(e);
+        }
+    }
+
+    /**
+     * Convert an image to a 1D array. A value that is already flat has been copied by {@link #copyValue} if needed,
+     * it is kept as is.
+     *
+     * @param value
+     * @return the flat value
+     */
+    private static Object toFlatArray(final Object value) {
+        if (value.getClass().isArray() && value.getClass().getComponentType().isArray()) {
+            return ArrayUtils.from2DArrayToArray(value);
+        }
+        return value;
+    }
+
     private void checkUpdateErrors(final AttributeValue returnedValue) throws DevFailed {
         if (config.getFormat().equals(AttrDataFormat.SCALAR) && returnedValue.getXDim() != 1
                 && returnedValue.getYDim() != 0) {
@@ -303,16 +346,25 @@ public class AttributeImpl extends DeviceBehaviorObject
     private void updateDefaultWritePart() throws DevFailed {
         if (writeValue == null && !config.getWritable().equals(AttrWriteType.READ)) {
             logger.debug("setting default value to write part");
-            try {
-                writeValue = (AttributeValue) readValue.clone();
-            } catch (final CloneNotSupportedException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            }
+            // the value is replaced just after, no need to copy it
+            writeValue = readValue.shallowCopy();
             writeValue.setValue(AttributeTangoType.getDefaultValue(readValue.getValue().getClass()));
         }
     }
 
     private void updateQuality(final AttributeValue returnedValue) {
+        final boolean wasOutOfLimits = isOutOfLimits;
+        final boolean wasDeltaAlarm = isDeltaAlarm;
+        final boolean wasAlarmToHigh = isAlarmToHigh;
+        checkQuality(returnedValue);
+        final IAlarmListener listener = alarmListener;
+        if (listener != null && (wasOutOfLimits != isOutOfLimits || wasDeltaAlarm != isDeltaAlarm
+                || isOutOfLimits && wasAlarmToHigh != isAlarmToHigh)) {
+            listener.alarmChanged(this);
+        }
+    }
+
+    private void checkQuality(final AttributeValue returnedValue) {
         isOutOfLimits = false;
         isDeltaAlarm = false;
         final AttributePropertiesImpl props = config.getAttributeProperties();
@@ -442,6 +494,23 @@ public class AttributeImpl extends DeviceBehaviorObject
         return isAlarmToHigh;
     }
 
+    /**
+     * @param alarmListener notified when the alarm of this attribute changes
+     */
+    public void setAlarmListener(final IAlarmListener alarmListener) {
+        this.alarmListener = alarmListener;
+    }
+
+    /**
+     * @param maxAge a duration in milliseconds
+     * @return true if the read value has not been updated for more than maxAge, or never. Always true if maxAge is 0.
+     */
+    public boolean isValueOlderThan(final long maxAge) {
+        final long updateTime = valueUpdateTime;
+        return maxAge == 0 || updateTime == 0
+                || System.nanoTime() - updateTime > TimeUnit.MILLISECONDS.toNanos(maxAge);
+    }
+
     /**
      * Write value
      *
@@ -456,11 +525,7 @@ public class AttributeImpl extends DeviceBehaviorObject
             checkSetErrors(value);
             // profilerPeriod.start("clone");
             // copy value for safety and transform it to 2D array if necessary
-            try {
-                writeValue = (AttributeValue) value.clone();
-            } catch (final CloneNotSupportedException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            }
+            writeValue = copyValue(value);
             // profilerPeriod.start("after clone");
             checkMinMaxValue();
             writtenTimestamp = writeValue.getTime();
@@ -470,8 +535,14 @@ public class AttributeImpl extends DeviceBehaviorObject
                 dimY = 1;
             }
             // profilerPeriod.start("convert image");
-            value.setValue(ArrayUtils.fromArrayTo2DArray(writeValue.getValue(), writeValue.getXDim(), dimY),
-                    writtenTimestamp);
+            if (config.isFlatImage() && config.getFormat().equals(AttrDataFormat.IMAGE)) {
+                // the device gets the received array; it is also the write value if the value ownership is
+                // transferred, a copy otherwise
+                value.setValue(new FlatImage<Object>(value.getValue(), writeValue.getXDim(), dimY), writtenTimestamp);
+            } else {
+                value.setValue(ArrayUtils.fromArrayTo2DArray(writeValue.getValue(), writeValue.getXDim(), dimY),
+                        writtenTimestamp);
+            }
             behavior.setValue(value);
             if (isMemorized() && getFormat().equals(AttrDataFormat.SCALAR) && !fromMemorizedValue) {
                 // TODO: refactoring to manage performance issues for spectrum and
@@ -651,7 +722,7 @@ public class AttributeImpl extends DeviceBehaviorObject
      * @throws DevFailed
      */
     public void fillHistory(final AttributeValue[] readValues, final AttributeValue[] writeValues, final DevFailed[] errors) throws DevFailed {
-        history.clear();
+        history.reset();
         if (readValues == null) {
             if (errors != null && errors.length != writeValues.length) {
                 throw DevFailedUtils.newDevFailed("write and errors values must have the same size");
@@ -694,6 +765,13 @@ public class AttributeImpl extends DeviceBehaviorObject
         }
     }
 
+    /**
+     * Release the attribute history, when the attribute is removed
+     */
+    public void closeHistory() {
+        history.close();
+    }
+
     public void addErrorToHistory(final DevFailed e) throws DevFailed {
         history.addToHistory(readValue, writeValue, e.errors);
     }
@@ -746,6 +824,45 @@ public class AttributeImpl extends DeviceBehaviorObject
         return config.getTangoType();
     }
 
+    /**
+     * @return the maximum number of value events per second, 0 if not limited
+     */
+    public double getEventMaxRate() {
+        return config.getEventMaxRate();
+    }
+
+    /**
+     * Set by the event system when a subscription is added or removed
+     *
+     * @param eventSubscriptionMask event types with at least one subscriber, one bit per {@link EventType#ordinal()}
+     */
+    public void setEventSubscriptionMask(final int eventSubscriptionMask) {
+        this.eventSubscriptionMask = eventSubscriptionMask;
+    }
+
+    /**
+     * @return true if at least one event of this attribute is subscribed
+     */
+    public boolean hasEventSubscriber() {
+        return eventSubscriptionMask != 0;
+    }
+
+    /**
+     * @param eventTypes event types
+     * @return true if at least one event of these types is subscribed
+     */
+    public boolean hasEventSubscriber(final Collection<EventType> eventTypes) {
+        final int mask = eventSubscriptionMask;
+        if (mask != 0) {
+            for (final EventType eventType : eventTypes) {
+                if ((mask & 1 << eventType.ordinal()) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public void configurePolling(final int pollingPeriod) throws DevFailed {
         // PollingUtils.configurePolling(pollingPeriod, config, attributePropertiesManager);
@@ -767,6 +884,18 @@ public class AttributeImpl extends DeviceBehaviorObject
         }
     }
 
+    private void configureEventMaxRateFromDb() throws DevFailed {
+        final String maxRate = attributePropertiesManager.getAttributePropertyFromDB(getName(),
+                Constants.EVENT_MAX_RATE);
+        if (!maxRate.isEmpty() && !maxRate.equalsIgnoreCase(Constants.NOT_SPECIFIED)) {
+            try {
+                config.setEventMaxRate(Double.parseDouble(maxRate));
+            } catch (final NumberFormatException e) {
+                logger.warn("{} property of {} is not a number: {}", Constants.EVENT_MAX_RATE, getName(), maxRate);
+            }
+        }
+    }
+
     public void removeProperties() throws DevFailed {
         config.clear(deviceName);
     }
@@ -876,6 +1005,38 @@ public class AttributeImpl extends DeviceBehaviorObject
         this.deltaTime = deltaTime;
     }
 
+    @Override
+    public double getPollingLateness() {
+        return pollingLateness;
+    }
+
+    @Override
+    public long getPollingOverruns() {
+        return pollingOverruns;
+    }
+
+    @Override
+    public long getSkippedPollingCycles() {
+        return skippedPollingCycles;
+    }
+
+    @Override
+    public void setSchedulingStats(final double lateness, final long overruns, final long skippedCycles) {
+        pollingLateness = lateness;
+        pollingOverruns = overruns;
+        skippedPollingCycles = skippedCycles;
+    }
+
+    @Override
+    public int getBackOffPeriod() {
+        return backOffPeriod;
+    }
+
+    @Override
+    public void setBackOffPeriod(final int backOffPeriod) {
+        this.backOffPeriod = backOffPeriod;
+    }
+
     public boolean isFwdAttribute() {
         return isFwdAttribute;
     }
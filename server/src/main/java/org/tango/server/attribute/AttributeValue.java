@@ -99,6 +99,7 @@ public final class AttributeValue implements Cloneable, Serializable, IValue<Obj
      * <li>scalar: x=1, y=0</li>
      * <li>1D array: x=array.length, y=0</li>
      * <li>2D array: x=array[0].length, y=array.length</li>
+     * <li>{@link FlatImage}: x=image.getDimX(), y=image.getDimY(). The value is its 1D array</li>
      * </ul>
      * Time is set to System.currentTimeMillis().
      *
@@ -108,7 +109,12 @@ public final class AttributeValue implements Cloneable, Serializable, IValue<Obj
     @Override
     public void setValue(final Object value) throws DevFailed {
         time = System.currentTimeMillis();
-        if (value != null) {
+        if (value instanceof FlatImage) {
+            final FlatImage<?> image = (FlatImage<?>) value;
+            setXDim(image.getDimX());
+            setYDim(image.getDimY());
+            this.value = image.getData();
+        } else if (value != null) {
             if (!value.getClass().isArray()) { // SCALAR
                 // check if this value can be an attribute value
                 if (!AttributeTangoType.ATTRIBUTE_CLASSES.contains(value.getClass())) {
@@ -225,6 +231,15 @@ public final class AttributeValue implements Cloneable, Serializable, IValue<Obj
         return newValue;
     }
 
+    /**
+     * Copy this value without duplicating the data: the copy references the same value object.
+     *
+     * @return a new AttributeValue sharing the value of this one
+     */
+    AttributeValue shallowCopy() {
+        return new AttributeValue(value, getQuality(), xDim, yDim, time);
+    }
+
     @Override
     public String toString() {
         final ReflectionToStringBuilder reflectionToStringBuilder = new ReflectionToStringBuilder(this,
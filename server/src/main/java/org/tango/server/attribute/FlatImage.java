@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.DevFailed;
+import org.tango.attribute.AttributeTangoType;
+import org.tango.server.ExceptionMessages;
+import org.tango.utils.DevFailedUtils;
+
+import java.lang.reflect.Array;
+
+/**
+ * An image stored as a 1D array of dimX * dimY elements, line after line. It is kept flat from the device to the
+ * network, so no line arrays are created.
+ *
+ * <pre>
+ * &#064;Attribute
+ * public FlatImage&lt;double[]&gt; getImage() {
+ *     return new FlatImage&lt;double[]&gt;(data, width, height);
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the 1D array, for instance double[]
+ */
+public final class FlatImage<T> {
+
+    private final T data;
+    private final int dimX;
+    private final int dimY;
+
+    /**
+     * @param data the image, line after line
+     * @param dimX the length of a line
+     * @param dimY the number of lines
+     * @throws DevFailed if data is not a 1D array of an attribute type, or if its length is not dimX * dimY
+     */
+    public FlatImage(final T data, final int dimX, final int dimY) throws DevFailed {
+        if (data == null || !data.getClass().isArray()
+                || !AttributeTangoType.ATTRIBUTE_CLASSES.contains(data.getClass().getComponentType())) {
+            throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP,
+                    "an image must be a 1D array of an attribute type");
+        }
+        if (dimX < 0 || dimY < 0 || (long) dimX * dimY != Array.getLength(data)) {
+            throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, "image of " + Array.getLength(data)
+                    + " elements does not match dimensions " + dimX + "x" + dimY);
+        }
+        this.data = data;
+        this.dimX = dimX;
+        this.dimY = dimY;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public int getDimX() {
+        return dimX;
+    }
+
+    public int getDimY() {
+        return dimY;
+    }
+
+}
@@ -35,6 +35,9 @@ import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
 import org.tango.utils.TangoUtil;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import fr.esrf.Tango.AttributeValue_5;
 import fr.esrf.Tango.DevAttrHistory_5;
 import fr.esrf.Tango.DevFailed;
@@ -62,6 +65,10 @@ public class ForwardedAttribute implements IAttributeBehavior {
     private String localLabel;
     private String remoteLabel;
     private String deviceName;
+    /**
+     * root attribute subscription id and number of local subscriptions, per event type
+     */
+    private final Map<EventType, int[]> subscriptions = new EnumMap<EventType, int[]>(EventType.class);
 
     /**
      * Create a forwarded attribute.
@@ -176,7 +183,19 @@ public class ForwardedAttribute implements IAttributeBehavior {
         return fullRootAttributeName;
     }
 
-    public void subscribe(final EventType eventType) throws DevFailed {
+    /**
+     * Subscribe to an event of the root attribute. The root attribute is subscribed once per event type, whatever the
+     * number of local subscriptions.
+     * 
+     * @param eventType the event type
+     * @throws DevFailed if the subscription failed
+     */
+    public synchronized void subscribe(final EventType eventType) throws DevFailed {
+        final int[] subscription = subscriptions.get(eventType);
+        if (subscription != null) {
+            subscription[1]++;
+            return;
+        }
         logger.info("fowarded attribute \"{}\" event subscribe {}", attributeName, eventType);
         @SuppressWarnings("serial")
         final CallBack callback = new CallBack() {
@@ -213,7 +232,24 @@ public class ForwardedAttribute implements IAttributeBehavior {
                 }
             }
         };
-        proxy.getAttributeProxy().subscribe_event(eventType.getValue(), callback, new String[] {});
+        final int id = proxy.getAttributeProxy().subscribe_event(eventType.getValue(), callback, new String[] {});
+        subscriptions.put(eventType, new int[] { id, 1 });
+    }
+
+    /**
+     * Release a local subscription. The root attribute event is unsubscribed with the last one.
+     * 
+     * @param eventType the event type
+     * @throws DevFailed if the unsubscription failed
+     */
+    public synchronized void unsubscribe(final EventType eventType) throws DevFailed {
+        final int[] subscription = subscriptions.get(eventType);
+        if (subscription == null || --subscription[1] > 0) {
+            return;
+        }
+        subscriptions.remove(eventType);
+        logger.info("fowarded attribute \"{}\" event unsubscribe {}", attributeName, eventType);
+        proxy.getAttributeProxy().getDeviceProxy().unsubscribe_event(subscription[0]);
     }
 
 }
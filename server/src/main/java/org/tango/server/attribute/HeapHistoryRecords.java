@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import java.util.Arrays;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+
+/**
+ * {@link HistoryRecords} in preallocated primitive arrays
+ */
+final class HeapHistoryRecords implements HistoryRecords {
+
+    private final int capacity;
+    private final long[] times;
+    private final AttrQuality[] qualities;
+    private final long[] readBits;
+    private final boolean[] hasRead;
+    private final int[] readDims;
+    private final long[] writeBits;
+    private final boolean[] hasWrite;
+    private final int[] writeDims;
+    private final DevError[][] errors;
+
+    HeapHistoryRecords(final boolean isReadWrite, final int capacity) {
+        this.capacity = capacity;
+        times = new long[capacity];
+        qualities = new AttrQuality[capacity];
+        readBits = new long[capacity];
+        hasRead = new boolean[capacity];
+        readDims = new int[2 * capacity];
+        errors = new DevError[capacity][];
+        if (isReadWrite) {
+            writeBits = new long[capacity];
+            hasWrite = new boolean[capacity];
+            writeDims = new int[2 * capacity];
+        } else {
+            writeBits = null;
+            hasWrite = null;
+            writeDims = null;
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+    @Override
+    public void write(final int slot, final long time, final AttrQuality quality, final boolean hasRead,
+            final long readBits, final int readXDim, final int readYDim, final boolean hasWrite, final long writeBits,
+            final int writeXDim, final int writeYDim, final DevError[] error) {
+        times[slot] = time;
+        qualities[slot] = quality;
+        this.hasRead[slot] = hasRead;
+        this.readBits[slot] = readBits;
+        readDims[2 * slot] = readXDim;
+        readDims[2 * slot + 1] = readYDim;
+        if (this.hasWrite != null) {
+            this.hasWrite[slot] = hasWrite;
+            this.writeBits[slot] = writeBits;
+            writeDims[2 * slot] = writeXDim;
+            writeDims[2 * slot + 1] = writeYDim;
+        }
+        errors[slot] = error;
+    }
+
+    @Override
+    public void setPosition(final int kind, final int head, final int size) {
+        // only kept by the ring
+    }
+
+    @Override
+    public int getKind() {
+        return -1;
+    }
+
+    @Override
+    public int getHead() {
+        return 0;
+    }
+
+    @Override
+    public int getSize() {
+        return 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(errors, null);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public long getTime(final int slot) {
+        return times[slot];
+    }
+
+    @Override
+    public AttrQuality getQuality(final int slot) {
+        return qualities[slot];
+    }
+
+    @Override
+    public boolean hasRead(final int slot) {
+        return hasRead[slot];
+    }
+
+    @Override
+    public long getReadBits(final int slot) {
+        return readBits[slot];
+    }
+
+    @Override
+    public int getReadXDim(final int slot) {
+        return readDims[2 * slot];
+    }
+
+    @Override
+    public int getReadYDim(final int slot) {
+        return readDims[2 * slot + 1];
+    }
+
+    @Override
+    public boolean hasWrite(final int slot) {
+        return hasWrite != null && hasWrite[slot];
+    }
+
+    @Override
+    public long getWriteBits(final int slot) {
+        return writeBits == null ? 0 : writeBits[slot];
+    }
+
+    @Override
+    public int getWriteXDim(final int slot) {
+        return writeDims == null ? 0 : writeDims[2 * slot];
+    }
+
+    @Override
+    public int getWriteYDim(final int slot) {
+        return writeDims == null ? 0 : writeDims[2 * slot + 1];
+    }
+
+    @Override
+    public boolean isFailed(final int slot) {
+        return errors[slot] != null;
+    }
+
+    @Override
+    public DevError[] getError(final int slot) {
+        return errors[slot];
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+
+/**
+ * Fixed size records of a {@link ScalarHistoryRing}, one per slot, with the position of the ring.
+ */
+interface HistoryRecords {
+
+    int getCapacity();
+
+    /**
+     * @return true if the records survive a restart of the server
+     */
+    boolean isPersistent();
+
+    void write(int slot, long time, AttrQuality quality, boolean hasRead, long readBits, int readXDim, int readYDim,
+            boolean hasWrite, long writeBits, int writeXDim, int writeYDim, DevError[] error);
+
+    /**
+     * Save the position of the ring
+     *
+     * @param kind ordinal of the value type, -1 if not known yet
+     * @param head index of the oldest entry
+     * @param size number of entries
+     */
+    void setPosition(int kind, int head, int size);
+
+    int getKind();
+
+    int getHead();
+
+    int getSize();
+
+    void clear();
+
+    /**
+     * Release the resources of the records, they must not be used afterwards
+     */
+    void close();
+
+    long getTime(int slot);
+
+    AttrQuality getQuality(int slot);
+
+    boolean hasRead(int slot);
+
+    long getReadBits(int slot);
+
+    int getReadXDim(int slot);
+
+    int getReadYDim(int slot);
+
+    boolean hasWrite(int slot);
+
+    long getWriteBits(int slot);
+
+    int getWriteXDim(int slot);
+
+    int getWriteYDim(int slot);
+
+    boolean isFailed(int slot);
+
+    /**
+     * @return the errors of a failed read, null otherwise
+     */
+    DevError[] getError(int slot);
+}
@@ -0,0 +1,310 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.ErrSeverity;
+
+/**
+ * {@link HistoryRecords} in a memory mapped file, reloaded when the server restarts. The file has a header with the
+ * position of the ring, followed by one fixed size record per slot. The errors of failed reads are kept in memory
+ * only: after a restart, a failed read is restored with a generic error.
+ */
+final class MappedHistoryRecords implements HistoryRecords {
+
+    private static final int MAGIC = 0x4A544853;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 48;
+    /**
+     * the file is mapped in a single buffer
+     */
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    // header offsets
+    private static final int MAGIC_POS = 0;
+    private static final int VERSION_POS = 4;
+    private static final int CAPACITY_POS = 8;
+    private static final int READ_WRITE_POS = 12;
+    private static final int KIND_POS = 16;
+    private static final int HEAD_POS = 20;
+    private static final int SIZE_POS = 24;
+
+    // record offsets
+    private static final int TIME = 0;
+    private static final int READ_BITS = 8;
+    private static final int WRITE_BITS = 16;
+    private static final int READ_X = 24;
+    private static final int READ_Y = 28;
+    private static final int WRITE_X = 32;
+    private static final int WRITE_Y = 36;
+    private static final int QUALITY = 40;
+    private static final int FLAGS = 41;
+
+    private static final byte HAS_READ = 1;
+    private static final byte HAS_WRITE = 2;
+    private static final byte FAILED = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(MappedHistoryRecords.class);
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final String attributeName;
+    private final Map<Integer, DevError[]> errors = new HashMap<Integer, DevError[]>();
+
+    private MappedHistoryRecords(final MappedByteBuffer buffer, final int capacity, final String attributeName) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.attributeName = attributeName;
+    }
+
+    /**
+     * Open the records of a file, restoring its content if it has been written with the same layout
+     *
+     * @param file          the history file
+     * @param attributeName the attribute name
+     * @param isReadWrite   true if the write values are kept
+     * @param capacity      the number of records
+     * @return the records
+     * @throws IOException
+     */
+    static MappedHistoryRecords open(final File file, final String attributeName, final boolean isReadWrite,
+            final int capacity) throws IOException {
+        final int size = Math.min(Math.max(1, capacity), MAX_CAPACITY);
+        final long length = HEADER_SIZE + (long) size * RECORD_SIZE;
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final boolean isValid = raf.length() == length && raf.readInt() == MAGIC && raf.readInt() == VERSION
+                    && raf.readInt() == size && raf.readInt() == (isReadWrite ? 1 : 0);
+            if (!isValid) {
+                raf.setLength(0);
+                raf.setLength(length);
+            }
+            final MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (!isValid) {
+                buffer.putInt(MAGIC_POS, MAGIC);
+                buffer.putInt(VERSION_POS, VERSION);
+                buffer.putInt(CAPACITY_POS, size);
+                buffer.putInt(READ_WRITE_POS, isReadWrite ? 1 : 0);
+                buffer.putInt(KIND_POS, -1);
+                buffer.putInt(HEAD_POS, 0);
+                buffer.putInt(SIZE_POS, 0);
+            }
+            return new MappedHistoryRecords(buffer, size, attributeName);
+        } finally {
+            // the mapping stays valid
+            raf.close();
+        }
+    }
+
+    private int offset(final int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public void write(final int slot, final long time, final AttrQuality quality, final boolean hasRead,
+            final long readBits, final int readXDim, final int readYDim, final boolean hasWrite, final long writeBits,
+            final int writeXDim, final int writeYDim, final DevError[] error) {
+        final int offset = offset(slot);
+        buffer.putLong(offset + TIME, time);
+        buffer.putLong(offset + READ_BITS, readBits);
+        buffer.putLong(offset + WRITE_BITS, writeBits);
+        buffer.putInt(offset + READ_X, readXDim);
+        buffer.putInt(offset + READ_Y, readYDim);
+        buffer.putInt(offset + WRITE_X, writeXDim);
+        buffer.putInt(offset + WRITE_Y, writeYDim);
+        buffer.put(offset + QUALITY, (byte) quality.value());
+        byte flags = 0;
+        if (hasRead) {
+            flags |= HAS_READ;
+        }
+        if (hasWrite) {
+            flags |= HAS_WRITE;
+        }
+        if (error != null) {
+            flags |= FAILED;
+            errors.put(slot, error);
+        } else {
+            errors.remove(slot);
+        }
+        buffer.put(offset + FLAGS, flags);
+    }
+
+    @Override
+    public void setPosition(final int kind, final int head, final int size) {
+        buffer.putInt(KIND_POS, kind);
+        buffer.putInt(HEAD_POS, head);
+        buffer.putInt(SIZE_POS, size);
+    }
+
+    @Override
+    public int getKind() {
+        return buffer.getInt(KIND_POS);
+    }
+
+    @Override
+    public int getHead() {
+        final int head = buffer.getInt(HEAD_POS);
+        return head >= 0 && head < capacity ? head : 0;
+    }
+
+    @Override
+    public int getSize() {
+        final int size = buffer.getInt(SIZE_POS);
+        return size >= 0 && size <= capacity ? size : 0;
+    }
+
+    @Override
+    public void clear() {
+        errors.clear();
+    }
+
+    /**
+     * Flush and unmap the file. If the mapping cannot be released explicitly, it is released when the records are
+     * garbage collected.
+     */
+    @Override
+    public void close() {
+        errors.clear();
+        buffer.force();
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (final ReflectiveOperationException e) {
+            logger.debug("cannot unmap history of {}: {}", attributeName, e.toString());
+        } catch (final RuntimeException e) {
+            logger.debug("cannot unmap history of {}: {}", attributeName, e.toString());
+        }
+    }
+
+    private byte getFlags(final int slot) {
+        return buffer.get(offset(slot) + FLAGS);
+    }
+
+    @Override
+    public long getTime(final int slot) {
+        return buffer.getLong(offset(slot) + TIME);
+    }
+
+    @Override
+    public AttrQuality getQuality(final int slot) {
+        final int quality = buffer.get(offset(slot) + QUALITY);
+        try {
+            return AttrQuality.from_int(quality);
+        } catch (final org.omg.CORBA.BAD_PARAM e) {
+            return AttrQuality.ATTR_INVALID;
+        }
+    }
+
+    @Override
+    public boolean hasRead(final int slot) {
+        return (getFlags(slot) & HAS_READ) != 0;
+    }
+
+    @Override
+    public long getReadBits(final int slot) {
+        return buffer.getLong(offset(slot) + READ_BITS);
+    }
+
+    @Override
+    public int getReadXDim(final int slot) {
+        return buffer.getInt(offset(slot) + READ_X);
+    }
+
+    @Override
+    public int getReadYDim(final int slot) {
+        return buffer.getInt(offset(slot) + READ_Y);
+    }
+
+    @Override
+    public boolean hasWrite(final int slot) {
+        return (getFlags(slot) & HAS_WRITE) != 0;
+    }
+
+    @Override
+    public long getWriteBits(final int slot) {
+        return buffer.getLong(offset(slot) + WRITE_BITS);
+    }
+
+    @Override
+    public int getWriteXDim(final int slot) {
+        return buffer.getInt(offset(slot) + WRITE_X);
+    }
+
+    @Override
+    public int getWriteYDim(final int slot) {
+        return buffer.getInt(offset(slot) + WRITE_Y);
+    }
+
+    @Override
+    public boolean isFailed(final int slot) {
+        return (getFlags(slot) & FAILED) != 0;
+    }
+
+    @Override
+    public DevError[] getError(final int slot) {
+        if (!isFailed(slot)) {
+            return null;
+        }
+        DevError[] error = errors.get(slot);
+        if (error == null) {
+            // read failed before the restart of the server
+            error = new DevError[] { new DevError("HISTORY_ERROR", ErrSeverity.ERR, "read of " + attributeName
+                    + " failed, error not kept in persistent history", MappedHistoryRecords.class.getName()) };
+        }
+        return error;
+    }
+}
@@ -34,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.DeviceState;
 import org.tango.server.ExceptionMessages;
+import org.tango.server.MethodInvoker;
 import org.tango.server.StateMachineBehavior;
 import org.tango.utils.DevFailedUtils;
 
@@ -53,6 +54,8 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
     private final AttributeConfiguration config;
     private final Method getter;
     private final Method setter;
+    private final MethodInvoker getterInvoker;
+    private final MethodInvoker setterInvoker;
     private final Object businessObject;
 
     /**
@@ -72,6 +75,9 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
         this.businessObject = businessObject;
         this.getter = getter;
         this.setter = setter;
+        // bound once, to avoid reflection on each read and write
+        getterInvoker = getter == null ? null : MethodInvoker.of(getter);
+        setterInvoker = setter == null ? null : MethodInvoker.of(setter);
         this.config = config;
     }
 
@@ -82,7 +88,7 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
         if (getter != null) {
             try {
                 logger.debug("read attribute {} from method '{}'", config.getName(), getter);
-                value = getter.invoke(businessObject);
+                value = getterInvoker.invoke(businessObject);
             } catch (final IllegalAccessException e) {
                 throw DevFailedUtils.newDevFailed(e);
             } catch (IllegalArgumentException | InvocationTargetException e) {
@@ -133,21 +139,24 @@ public final class ReflectAttributeBehavior implements IAttributeBehavior {
             final Class<?> paramSetter = getParamSetter();
             try {
                 if (paramSetter.equals(DeviceState.class)) {
-                    setter.invoke(businessObject, DeviceState.getDeviceState((DevState) value.getValue()));
+                    setterInvoker.invoke(businessObject, DeviceState.getDeviceState((DevState) value.getValue()));
                 } else if (Enum.class.isAssignableFrom(paramSetter)) {
                     final short enumValue = (Short) value.getValue();
-                    setter.invoke(businessObject, paramSetter.getEnumConstants()[enumValue]);
+                    setterInvoker.invoke(businessObject, paramSetter.getEnumConstants()[enumValue]);
+                } else if (paramSetter.equals(FlatImage.class)) {
+                    setterInvoker.invoke(businessObject,
+                            new FlatImage<Object>(value.getValue(), value.getXDim(), value.getYDim()));
                 } else if (paramSetter.equals(DeviceState[].class)) {
                     final DevState[] states = (DevState[]) value.getValue();
                     final DeviceState[] devStates = new DeviceState[states.length];
                     for (int i = 0; i < devStates.length; i++) {
                         devStates[i] = DeviceState.getDeviceState(states[i]);
                     }
-                    setter.invoke(businessObject, (Object) devStates);
+                    setterInvoker.invoke(businessObject, devStates);
                 } else {
                     final Class<?> input = getInputClass(value);
                     checkParamTypes(value, paramSetter, input);
-                    setter.invoke(businessObject, value.getValue());
+                    setterInvoker.invoke(businessObject, value.getValue());
                 }
             } catch (final IllegalAccessException e) {
                 throw DevFailedUtils.newDevFailed(e);
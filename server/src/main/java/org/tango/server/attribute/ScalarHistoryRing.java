@@ -0,0 +1,403 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+
+import org.omg.CORBA.Any;
+import org.tango.server.idl.CleverAnyAttribute;
+import org.tango.server.idl.TangoIDLUtil;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttributeDim;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.EltInArray;
+import fr.esrf.Tango.TimeVal;
+
+/**
+ * Poll ring of a scalar numeric or boolean attribute. The values are stored as raw bits in fixed size
+ * {@link HistoryRecords}, in memory or in a file, so that a successful read adds no object to the history. A history
+ * read copies the requested slice directly into the IDL arrays.
+ */
+final class ScalarHistoryRing {
+
+    private enum Kind {
+        DOUBLE(Double.class), FLOAT(Float.class), LONG(Long.class), INT(Integer.class), SHORT(Short.class), BYTE(
+                Byte.class), BOOLEAN(Boolean.class);
+
+        private final Class<?> type;
+
+        Kind(final Class<?> type) {
+            this.type = type;
+        }
+
+        static Kind get(final Object value) {
+            for (final Kind kind : values()) {
+                if (kind.type.equals(value.getClass())) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+
+        long toBits(final Object value) {
+            switch (this) {
+                case DOUBLE:
+                    return Double.doubleToRawLongBits((Double) value);
+                case FLOAT:
+                    return Float.floatToRawIntBits((Float) value);
+                case BOOLEAN:
+                    return (Boolean) value ? 1L : 0L;
+                default:
+                    return ((Number) value).longValue();
+            }
+        }
+
+        Object fromBits(final long bits) {
+            switch (this) {
+                case DOUBLE:
+                    return Double.longBitsToDouble(bits);
+                case FLOAT:
+                    return Float.intBitsToFloat((int) bits);
+                case LONG:
+                    return bits;
+                case INT:
+                    return (int) bits;
+                case SHORT:
+                    return (short) bits;
+                case BYTE:
+                    return (byte) bits;
+                default:
+                    return bits != 0;
+            }
+        }
+
+        Object newArray(final int length) {
+            switch (this) {
+                case DOUBLE:
+                    return new double[length];
+                case FLOAT:
+                    return new float[length];
+                case LONG:
+                    return new long[length];
+                case INT:
+                    return new int[length];
+                case SHORT:
+                    return new short[length];
+                case BYTE:
+                    return new byte[length];
+                default:
+                    return new boolean[length];
+            }
+        }
+
+        void set(final Object array, final int index, final long bits) {
+            switch (this) {
+                case DOUBLE:
+                    ((double[]) array)[index] = Double.longBitsToDouble(bits);
+                    break;
+                case FLOAT:
+                    ((float[]) array)[index] = Float.intBitsToFloat((int) bits);
+                    break;
+                case LONG:
+                    ((long[]) array)[index] = bits;
+                    break;
+                case INT:
+                    ((int[]) array)[index] = (int) bits;
+                    break;
+                case SHORT:
+                    ((short[]) array)[index] = (short) bits;
+                    break;
+                case BYTE:
+                    ((byte[]) array)[index] = (byte) bits;
+                    break;
+                default:
+                    ((boolean[]) array)[index] = bits != 0;
+                    break;
+            }
+        }
+    }
+
+    private final boolean isReadWrite;
+    private final HistoryRecords records;
+    private final int capacity;
+    private Kind kind;
+    /**
+     * index of the oldest entry
+     */
+    private int head;
+    private int size;
+
+    ScalarHistoryRing(final boolean isReadWrite, final int capacity) {
+        this(isReadWrite, new HeapHistoryRecords(isReadWrite, Math.max(1, capacity)));
+    }
+
+    /**
+     * Ring on existing records, restoring their entries
+     */
+    ScalarHistoryRing(final boolean isReadWrite, final HistoryRecords records) {
+        this.isReadWrite = isReadWrite;
+        this.records = records;
+        capacity = records.getCapacity();
+        final int kindOrdinal = records.getKind();
+        if (kindOrdinal >= 0 && kindOrdinal < Kind.values().length) {
+            kind = Kind.values()[kindOrdinal];
+        }
+        head = records.getHead();
+        size = records.getSize();
+    }
+
+    /**
+     * Add an entry, if the values fit in this ring
+     *
+     * @return false if the entry cannot be stored in this ring
+     */
+    boolean add(final AttributeValue readValue, final AttributeValue writeValue, final DevError[] error) {
+        if (readValue == null || isReadWrite && writeValue == null) {
+            return false;
+        }
+        final boolean isFailed = error != null && error.length != 0;
+        final Object read = isFailed ? null : readValue.getValue();
+        final Object write = isFailed || !isReadWrite ? null : writeValue.getValue();
+        if (!isOfKind(read) || !isOfKind(write)) {
+            return false;
+        }
+        final int slot;
+        if (size < capacity) {
+            slot = (head + size) % capacity;
+            size++;
+        } else {
+            slot = head;
+            head = (head + 1) % capacity;
+        }
+        records.write(slot, readValue.getTime(), readValue.getQuality(), read != null, read == null ? 0
+                : kind.toBits(read), readValue.getXDim(), readValue.getYDim(), write != null, write == null ? 0
+                : kind.toBits(write), isReadWrite ? writeValue.getXDim() : 0, isReadWrite ? writeValue.getYDim() : 0,
+                isFailed ? Arrays.copyOf(error, error.length) : null);
+        records.setPosition(kind == null ? -1 : kind.ordinal(), head, size);
+        return true;
+    }
+
+    private boolean isOfKind(final Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (kind == null) {
+            kind = Kind.get(value);
+            return kind != null;
+        }
+        return kind.type.equals(value.getClass());
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true once a value has been accepted, fixing the primitive type of the ring
+     */
+    boolean hasKind() {
+        return kind != null;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean isPersistent() {
+        return records.isPersistent();
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+        records.clear();
+        records.setPosition(kind == null ? -1 : kind.ordinal(), head, size);
+    }
+
+    /**
+     * Release the records, the ring must not be used afterwards
+     */
+    void close() {
+        records.close();
+    }
+
+    /**
+     * Move all entries, from the oldest, to another ring
+     */
+    void drainTo(final ScalarHistoryRing ring) {
+        for (int i = 0; i < size; i++) {
+            final int slot = (head + i) % capacity;
+            final DevError[] error = records.getError(slot);
+            ring.add(getReadValue(slot), getWriteValue(slot), error == null ? new DevError[0] : error);
+        }
+        clear();
+    }
+
+    /**
+     * Copy the newest entries, from the oldest, to a queue of history items. The entries are then removed, except
+     * from persistent records that keep them for the next restart.
+     *
+     * @param maxSize the maximum number of entries to copy
+     */
+    void drainTo(final Deque<HistoryItem> valueHistory, final int maxSize) {
+        final int length = Math.min(size, Math.max(0, maxSize));
+        for (int i = size - length; i < size; i++) {
+            final int slot = (head + i) % capacity;
+            final DevError[] error = records.getError(slot);
+            valueHistory.offer(new HistoryItem(getReadValue(slot), getWriteValue(slot), error == null
+                    ? new DevError[0] : error));
+        }
+        if (!records.isPersistent()) {
+            clear();
+        }
+    }
+
+    private AttributeValue getReadValue(final int slot) {
+        return new AttributeValue(records.hasRead(slot) ? kind.fromBits(records.getReadBits(slot)) : null,
+                records.getQuality(slot), records.getReadXDim(slot), records.getReadYDim(slot),
+                records.getTime(slot));
+    }
+
+    private AttributeValue getWriteValue(final int slot) {
+        if (!isReadWrite) {
+            return null;
+        }
+        return new AttributeValue(records.hasWrite(slot) ? kind.fromBits(records.getWriteBits(slot)) : null,
+                AttrQuality.ATTR_VALID, records.getWriteXDim(slot), records.getWriteYDim(slot), records.getTime(slot));
+    }
+
+    /**
+     * Build the history of the newest entries, with the same layout as {@link AttributeHistoryConvertor}
+     */
+    AttributeHistoryConvertor toHistory(final String attributeName, final int maxSize, final int tangoType,
+            final AttrDataFormat format) throws DevFailed {
+        final int length = Math.min(size, maxSize);
+        final int first = size - length;
+        final TimeVal[] timesArray = new TimeVal[length];
+        final LinkedList<AttrQuality> qualityList = new LinkedList<AttrQuality>();
+        final LinkedList<EltInArray> qualSize = new LinkedList<EltInArray>();
+        final LinkedList<AttributeDim> readDim = new LinkedList<AttributeDim>();
+        final LinkedList<EltInArray> readDimSize = new LinkedList<EltInArray>();
+        final LinkedList<AttributeDim> writeDim = new LinkedList<AttributeDim>();
+        final LinkedList<EltInArray> writeDimSize = new LinkedList<EltInArray>();
+        final LinkedList<DevError[]> errorList = new LinkedList<DevError[]>();
+        final LinkedList<EltInArray> errorsArray = new LinkedList<EltInArray>();
+        for (int i = 0; i < length; i++) {
+            final int slot = (head + first + i) % capacity;
+            timesArray[i] = TangoIDLUtil.getTime(records.getTime(slot));
+            final DevError[] error = records.getError(slot);
+            if (error != null) {
+                errorList.add(error);
+                errorsArray.add(new EltInArray(i, 1));
+            }
+            // same run length encoding as AttributeHistoryConvertor
+            final AttrQuality quality = records.getQuality(slot);
+            if (qualityList.isEmpty() || quality != qualityList.getLast()) {
+                qualSize.add(new EltInArray(i, 1));
+                qualityList.add(quality);
+            } else {
+                qualSize.getLast().nb_elt++;
+                qualSize.getLast().start++;
+            }
+            addDim(readDim, readDimSize, records.getReadXDim(slot), records.getReadYDim(slot), i);
+            if (isReadWrite) {
+                addDim(writeDim, writeDimSize, records.getWriteXDim(slot), records.getWriteYDim(slot), i);
+            }
+        }
+        final Any any = CleverAnyAttribute.set(tangoType, getValues(maxSize));
+
+        final AttributeDim[] readDimArray = readDim.toArray(new AttributeDim[0]);
+        final EltInArray[] readDimSizeArray = readDimSize.toArray(new EltInArray[0]);
+        AttributeDim[] writeDimArray;
+        EltInArray[] writeDimSizeArray;
+        if (isReadWrite) {
+            writeDimArray = writeDim.toArray(new AttributeDim[0]);
+            writeDimSizeArray = writeDimSize.toArray(new EltInArray[0]);
+        } else {
+            writeDimArray = new AttributeDim[readDimArray.length];
+            Arrays.fill(writeDimArray, new AttributeDim(0, 0));
+            writeDimSizeArray = Arrays.copyOf(readDimSizeArray, readDimSizeArray.length);
+        }
+        return new AttributeHistoryConvertor(attributeName, tangoType, format, isReadWrite, timesArray, any,
+                qualityList.toArray(new AttrQuality[0]), qualSize.toArray(new EltInArray[0]), readDimArray,
+                readDimSizeArray, writeDimArray, writeDimSizeArray, errorList.toArray(new DevError[0][0]),
+                errorsArray.toArray(new EltInArray[0]));
+    }
+
+    /**
+     * Values of the newest entries without error, from the newest, the read value before the write value
+     *
+     * @return a primitive array, or null if there is no value
+     */
+    Object getValues(final int maxSize) {
+        final int length = Math.min(size, maxSize);
+        final int first = size - length;
+        int nbValues = 0;
+        for (int i = 0; i < length; i++) {
+            final int slot = (head + first + i) % capacity;
+            if (!records.isFailed(slot)) {
+                if (records.hasRead(slot)) {
+                    nbValues++;
+                }
+                if (isReadWrite && records.hasWrite(slot)) {
+                    nbValues++;
+                }
+            }
+        }
+        if (nbValues == 0) {
+            return null;
+        }
+        final Object values = kind.newArray(nbValues);
+        int index = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            final int slot = (head + first + i) % capacity;
+            if (!records.isFailed(slot)) {
+                if (records.hasRead(slot)) {
+                    kind.set(values, index++, records.getReadBits(slot));
+                }
+                if (isReadWrite && records.hasWrite(slot)) {
+                    kind.set(values, index++, records.getWriteBits(slot));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static void addDim(final LinkedList<AttributeDim> dims, final LinkedList<EltInArray> dimSizes,
+            final int dimX, final int dimY, final int i) {
+        if (dims.isEmpty() || dimX != dims.getLast().dim_x || dimY != dims.getLast().dim_y) {
+            dimSizes.add(new EltInArray(i, 1));
+            dims.add(new AttributeDim(dimX, dimY));
+        } else {
+            dimSizes.getLast().nb_elt++;
+            dimSizes.getLast().start++;
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.tango.server.annotation.Attribute;
 import org.tango.server.attribute.AttributeConfiguration;
 import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.attribute.AttributePropertiesImpl;
+import org.tango.server.attribute.FlatImage;
 import org.tango.server.attribute.ReflectAttributeBehavior;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
@@ -103,8 +104,8 @@ final class AttributeMethodBuilder {
                 .newDevFailed(BuilderUtils.INIT_ERROR, setterName + " must have only one parameter");
             }
             type = method.getParameterTypes()[0];
-            final Class<?> attrType = AttributeTangoType.getTypeFromClass(type).getType();
-            if (boolean.class.isAssignableFrom(attrType)) {
+            if (!FlatImage.class.equals(type)
+                    && boolean.class.isAssignableFrom(AttributeTangoType.getTypeFromClass(type).getType())) {
                 getterName = BuilderUtils.IS + removedGet;
             } else {
                 getterName = BuilderUtils.GET + removedGet;
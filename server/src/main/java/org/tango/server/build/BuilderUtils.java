@@ -25,19 +25,24 @@
 package org.tango.server.build;
 
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 
 import org.tango.DeviceState;
 import org.tango.attribute.AttributeTangoType;
 import org.tango.server.DeviceBehaviorObject;
 import org.tango.server.annotation.Attribute;
 import org.tango.server.annotation.AttributeProperties;
+import org.tango.server.annotation.Device;
 import org.tango.server.annotation.Pipe;
 import org.tango.server.annotation.StateMachine;
 import org.tango.server.attribute.AttributeConfiguration;
 import org.tango.server.attribute.AttributePropertiesImpl;
+import org.tango.server.attribute.FlatImage;
 import org.tango.server.pipe.PipeConfiguration;
 import org.tango.utils.DevFailedUtils;
 
@@ -119,7 +124,12 @@ final class BuilderUtils {
         config.setDispLevel(DispLevel.from_int(annot.displayLevel()));
         config.setMaxX(annot.maxDimX());
         config.setMaxY(annot.maxDimY());
-        config.setType(type);
+        if (FlatImage.class.equals(type)) {
+            config.setType(getFlatImageType(getter, setter));
+            config.setFlatImage(true);
+        } else {
+            config.setType(type);
+        }
         config.setMemorized(annot.isMemorized());
         config.setMemorizedAtInit(annot.isMemorizedAtInit());
         config.setPolled(annot.isPolled());
@@ -129,6 +139,9 @@ final class BuilderUtils {
         config.setCheckChangeEvent(annot.checkChangeEvent());
         config.setPushArchiveEvent(annot.pushArchiveEvent());
         config.setCheckArchivingEvent(annot.checkArchivingEvent());
+        final Device deviceAnnot = (getter == null ? setter : getter).getDeclaringClass().getAnnotation(Device.class);
+        config.setTransferValueOwnership(annot.transferValueOwnership()
+                || deviceAnnot != null && deviceAnnot.transferValueOwnership());
         if (setter == null) {
             config.setWritable(AttrWriteType.READ);
         } else if (getter == null) {
@@ -139,6 +152,29 @@ final class BuilderUtils {
         return config;
     }
 
+    /**
+     * Get the 2D array type of a {@link FlatImage} attribute from its type parameter, e.g. double[][] for
+     * FlatImage&lt;double[]&gt;
+     *
+     * @param getter
+     * @param setter
+     * @return the image type
+     * @throws DevFailed
+     *             if the type parameter is not a 1D array
+     */
+    private static Class<?> getFlatImageType(final Method getter, final Method setter) throws DevFailed {
+        final Type flatType = getter == null ? setter.getGenericParameterTypes()[0] : getter.getGenericReturnType();
+        if (flatType instanceof ParameterizedType) {
+            final Type arrayType = ((ParameterizedType) flatType).getActualTypeArguments()[0];
+            if (arrayType instanceof Class && ((Class<?>) arrayType).isArray()
+                    && !((Class<?>) arrayType).getComponentType().isArray()) {
+                return Array.newInstance((Class<?>) arrayType, 0).getClass();
+            }
+        }
+        throw DevFailedUtils.newDevFailed(INIT_ERROR, flatType + " must be declared with a 1D array type, e.g. "
+                + FlatImage.class.getSimpleName() + "<double[]>");
+    }
+
     static PipeConfiguration getPipeConfiguration(final Class<?> type, final Method getter, final Method setter,
             final Pipe annot, final String pipeName) throws DevFailed {
         final PipeConfiguration config = new PipeConfiguration(pipeName);
@@ -174,7 +210,8 @@ final class BuilderUtils {
     static AttributePropertiesImpl setEnumLabelProperty(final Class<?> type, final AttributePropertiesImpl props)
             throws DevFailed {
         // if is is an enum set enum values in properties
-        if (AttributeTangoType.getTypeFromClass(type).equals(AttributeTangoType.DEVENUM)) {
+        if (!FlatImage.class.equals(type)
+                && AttributeTangoType.getTypeFromClass(type).equals(AttributeTangoType.DEVENUM)) {
             // final Class<Enum<?>> enumType = (Class<Enum<?>>) field.getType();
             final Object[] enumValues = type.getEnumConstants();
             final String[] enumLabels = new String[enumValues.length];
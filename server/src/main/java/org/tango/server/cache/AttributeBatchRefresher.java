@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.server.InvocationContext;
+import org.tango.server.InvocationContext.CallType;
+import org.tango.server.InvocationContext.ContextType;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.device.AroundInvokeImpl;
+import org.tango.server.device.DeviceLocker;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Polls all attributes of a device that have the same polling period in one scheduled task. The device lock is taken
+ * once per cycle and the around invoke is called once with {@link ContextType#PRE_READ_ATTRIBUTES} and
+ * {@link ContextType#POST_READ_ATTRIBUTES} and {@link CallType#POLLING}, with the names of all attributes of the
+ * batch. A device can use it to read its hardware in bulk before the attributes values are retrieved.
+ */
+public final class AttributeBatchRefresher implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(AttributeBatchRefresher.class);
+
+    private final List<AttributeCache> caches = new CopyOnWriteArrayList<AttributeCache>();
+    private final List<AttributeImpl> attributes = new CopyOnWriteArrayList<AttributeImpl>();
+    private final int pollingPeriod;
+    private final String deviceName;
+    private final DeviceLocker deviceLock;
+    private final AroundInvokeImpl aroundInvoke;
+    private PollingTask result;
+
+    public AttributeBatchRefresher(final int pollingPeriod, final String deviceName, final DeviceLocker deviceLock,
+            final AroundInvokeImpl aroundInvoke) {
+        this.pollingPeriod = pollingPeriod;
+        this.deviceName = deviceName;
+        this.deviceLock = deviceLock;
+        this.aroundInvoke = aroundInvoke;
+    }
+
+    /**
+     * Add an attribute to the batch. It is read from the next cycle.
+     *
+     * @param cache the attribute cache
+     */
+    public void add(final AttributeCache cache) {
+        caches.add(cache);
+        attributes.add(cache.getAttribute());
+    }
+
+    /**
+     * Remove an attribute from the batch
+     *
+     * @param cache the attribute cache
+     */
+    public void remove(final AttributeCache cache) {
+        if (caches.remove(cache)) {
+            attributes.remove(cache.getAttribute());
+        }
+    }
+
+    public boolean isEmpty() {
+        return caches.isEmpty();
+    }
+
+    public void startRefresh(final ScheduledExecutorService pollingPool) {
+        logger.debug("start refresh of {} attributes of {} every {} ms", caches.size(), deviceName, pollingPeriod);
+        result = PollingTask.schedule(pollingPool, this, pollingPeriod, attributes);
+    }
+
+    public void stopRefresh() {
+        if (result != null) {
+            logger.debug("stop refresh of {} attributes of {} every {} ms", caches.size(), deviceName, pollingPeriod);
+            result.cancel(true);
+        }
+    }
+
+    @Override
+    public void run() {
+        final List<AttributeCache> due = new ArrayList<AttributeCache>(caches.size());
+        for (final AttributeCache cache : caches) {
+            if (cache.isDueInBatch()) {
+                due.add(cache);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        final AttributeCache[] batch = due.toArray(new AttributeCache[0]);
+        final String[] names = new String[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            names[i] = batch[i].getAttribute().getName();
+        }
+        final Object lock = deviceLock.getAttributeLock();
+        synchronized (lock != null ? lock : new Object()) {
+            try {
+                aroundInvoke.aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTES, CallType.POLLING,
+                        null, names));
+            } catch (final DevFailed e) {
+                logger.error("error {}", DevFailedUtils.toString(e));
+                for (final AttributeCache cache : batch) {
+                    cache.failInBatch(e);
+                }
+                return;
+            }
+            try {
+                for (final AttributeCache cache : batch) {
+                    try {
+                        cache.refreshInBatch();
+                    } catch (final DevFailed e) {
+                        logger.error("error {}", DevFailedUtils.toString(e));
+                    }
+                }
+            } finally {
+                try {
+                    aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTES,
+                            CallType.POLLING, null, names));
+                } catch (final DevFailed e) {
+                    logger.error("error {}", DevFailedUtils.toString(e));
+                }
+            }
+        }
+    }
+}
@@ -24,14 +24,8 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
+import java.util.Collections;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,34 +33,30 @@ import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.device.AroundInvokeImpl;
 import org.tango.server.device.DeviceLocker;
 
+import fr.esrf.Tango.DevFailed;
+
 public final class AttributeCache {
     private final Logger logger = LoggerFactory.getLogger(AttributeCache.class);
 
-    private ScheduledFuture<?> result;
-    private final SelfPopulatingCache cache;
+    private PollingTask result;
+    private final PolledValue cache;
+    private final AttributeCacheEntryFactory factory;
     private final AttributeImpl attribute;
+    private final PollingBackOff backOff;
 
-    public AttributeCache(final CacheManager manager, final AttributeImpl attr, final String deviceName,
-            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public AttributeCache(final AttributeImpl attr, final String deviceName, final DeviceLocker deviceLock,
+            final AroundInvokeImpl aroundInvoke) {
         attribute = attr;
-        final String cacheName = "attrTangoPollingCache." + deviceName + "/" + attr.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new AttributeCacheEntryFactory(attr, deviceLock, deviceName,
-                aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
+        backOff = PollingBackOff.create(attr);
+        factory = new AttributeCacheEntryFactory(attr, deviceLock, deviceName, aroundInvoke);
+        cache = new PolledValue(attr.getName(), factory);
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         logger.debug("start refresh cache of {} ", attribute.getName());
-        final CacheRefresher refresher = new CacheRefresher(cache, attribute.getName().toLowerCase(Locale.ENGLISH));
-        result = pollingPool.scheduleAtFixedRate(refresher, 0L, attribute.getPollingPeriod(), TimeUnit.MILLISECONDS);
+        final CacheRefresher refresher = new CacheRefresher(cache, backOff);
+        result = PollingTask.schedule(pollingPool, refresher, attribute.getPollingPeriod(),
+                Collections.singletonList(attribute), backOff);
     }
 
     public void stopRefresh() {
@@ -76,7 +66,52 @@ public final class AttributeCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    /**
+     * Refresh the value from a batch, the device lock and the around invoke being handled by the batch
+     *
+     * @throws DevFailed
+     */
+    void refreshInBatch() throws DevFailed {
+        try {
+            cache.refresh(factory::readAttribute);
+            if (backOff != null) {
+                backOff.success();
+            }
+        } catch (final DevFailed e) {
+            if (backOff != null) {
+                backOff.failure();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return false if the attribute is backing off from failures and must be skipped in the current batch
+     */
+    boolean isDueInBatch() {
+        return backOff == null || !backOff.skipCycle();
+    }
+
+    /**
+     * Keep the error of a batch that failed before reading this attribute
+     *
+     * @param error the batch error
+     */
+    void failInBatch(final DevFailed error) {
+        try {
+            cache.refresh(() -> {
+                throw error;
+            });
+        } catch (final DevFailed e) {
+            // kept as last value
+        }
+    }
+
+    public AttributeImpl getAttribute() {
+        return attribute;
+    }
+
+    public PolledValue getCache() {
         return cache;
     }
 }
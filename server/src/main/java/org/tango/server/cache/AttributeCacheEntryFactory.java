@@ -25,7 +25,6 @@
 package org.tango.server.cache;
 
 import fr.esrf.Tango.DevFailed;
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.InvocationContext;
@@ -35,10 +34,9 @@ import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.device.AroundInvokeImpl;
 import org.tango.server.device.DeviceLocker;
 import org.tango.server.events.EventManager;
+import org.tango.server.events.EventType;
 
-import java.util.Locale;
-
-public final class AttributeCacheEntryFactory implements CacheEntryFactory {
+public final class AttributeCacheEntryFactory implements ICacheEntryFactory {
     private static final double NANO_TO_MILLI = 1000000.0;
 
     private final Logger logger = LoggerFactory.getLogger(AttributeCacheEntryFactory.class);
@@ -59,10 +57,9 @@ public final class AttributeCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
+    public Object createEntry() throws DevFailed {
 
-        logger.debug("Creating entry for key = {} , attribute {}/{} ",
-                new Object[]{key, deviceName, attribute.getName()});
+        logger.debug("Creating entry for attribute {}/{} ", deviceName, attribute.getName());
 
         // profilerPeriod.stop().print();
         // profilerPeriod = new Profiler("period");
@@ -75,41 +72,59 @@ public final class AttributeCacheEntryFactory implements CacheEntryFactory {
         // profiler.start(attribute.getName());
         Object result = null;
 
-        if (key.equals(attribute.getName().toLowerCase(Locale.ENGLISH))) {
-            final Object lock = deviceLock.getAttributeLock();
-            synchronized (lock != null ? lock : new Object()) {
-                aroundInvoke.aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTE, CallType.POLLING, null,
-                        attribute.getName()));
-                attribute.lock();
-                try {
-                    final long time1 = System.nanoTime();
-                    attribute.updateValue();
-                    final long now = System.nanoTime();
-                    final long nowMilli = System.currentTimeMillis();
-                    final long deltaTime = now - lastUpdateTime;
-                    lastUpdateTime = now;
-                    final long executionDuration = lastUpdateTime - time1;
-                    attribute.setPollingStats(executionDuration / NANO_TO_MILLI, nowMilli, deltaTime
-                            / NANO_TO_MILLI);
-                    attribute.addToHistory();
-                    result = attribute.getReadValue();
-                    EventManager.getInstance().pushAttributeValueEvent(deviceName, attribute.getName());
-                } catch (final DevFailed e) {
-                    attribute.addErrorToHistory(e);
-                    EventManager.getInstance().pushAttributeErrorEvent(deviceName, attribute.getName(), e);
-                    throw e;
-                } finally {
-                    attribute.unlock();
-                    aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, CallType.POLLING,
-                            null, attribute.getName()));
-                }
-            }// synchronized
-        }
+        final Object lock = deviceLock.getAttributeLock();
+        synchronized (lock != null ? lock : new Object()) {
+            aroundInvoke.aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTE, CallType.POLLING, null,
+                    attribute.getName()));
+            try {
+                result = readAttribute();
+            } finally {
+                aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, CallType.POLLING,
+                        null, attribute.getName()));
+            }
+        }// synchronized
 
         // profiler.stop().print();
 
         return result;
     }
+
+    /**
+     * Read the attribute, update its history and push its events. The device lock and the around invoke are left to
+     * the caller, so that a batch of attributes can share them.
+     *
+     * @return the read value
+     * @throws DevFailed
+     */
+    Object readAttribute() throws DevFailed {
+        attribute.lock();
+        try {
+            final long time1 = System.nanoTime();
+            attribute.updateValue();
+            final long now = System.nanoTime();
+            final long nowMilli = System.currentTimeMillis();
+            final long deltaTime = now - lastUpdateTime;
+            lastUpdateTime = now;
+            final long executionDuration = lastUpdateTime - time1;
+            attribute.setPollingStats(executionDuration / NANO_TO_MILLI, nowMilli, deltaTime
+                    / NANO_TO_MILLI);
+            attribute.addToHistory();
+            final Object result = attribute.getReadValue();
+            // most polled attributes are only polled for their history
+            if (attribute.hasEventSubscriber(EventType.getEventTypeListForAttrPolling())) {
+                EventManager.getInstance().pushAttributeValueEvent(deviceName, attribute.getName());
+            }
+            return result;
+        } catch (final DevFailed e) {
+            attribute.addErrorToHistory(e);
+            if (attribute.hasEventSubscriber()) {
+                EventManager.getInstance().pushAttributeErrorEvent(deviceName, attribute.getName(), e);
+            }
+            throw e;
+        } finally {
+            attribute.unlock();
+        }
+    }
     // @Override
     // public void updateEntryValue(final Object key, final Object value) throws
     // Exception {
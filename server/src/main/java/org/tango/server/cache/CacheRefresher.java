@@ -24,39 +24,39 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
-
-import net.sf.ehcache.CacheException;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tango.utils.DevFailedUtils;
+
+import fr.esrf.Tango.DevFailed;
 
 public final class CacheRefresher implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(CacheRefresher.class);
-    private final SelfPopulatingCache cache;
-    private final String name;
+    private final PolledValue cache;
+    private final PollingBackOff backOff;
 
-//    private final Profiler profiler;
+    public CacheRefresher(final PolledValue cache) {
+        this(cache, null);
+    }
 
-    public CacheRefresher(final SelfPopulatingCache cache, final String name) {
+    CacheRefresher(final PolledValue cache, final PollingBackOff backOff) {
         this.cache = cache;
-        this.name = name.toLowerCase(Locale.ENGLISH);
-//        profiler = new Profiler("tangoCache");
-//        profiler.start(cache.getName());
+        this.backOff = backOff;
     }
 
     @Override
     public void run() {
         logger.debug("refresh {}", cache.getName());
-
-//        profiler.stop().print();
-//        profiler.start(cache.getName());
         try {
-            cache.get(name);
             cache.refresh();
-        } catch (final CacheException e) {
-            logger.error("error {}", e.getCause());
+            if (backOff != null) {
+                backOff.success();
+            }
+        } catch (final DevFailed e) {
+            if (backOff != null) {
+                backOff.failure();
+            }
+            logger.error("error {}", DevFailedUtils.toString(e));
         }
 
     }
@@ -24,14 +24,8 @@
  */
 package org.tango.server.cache;
 
-import java.util.Locale;
+import java.util.Collections;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,31 +36,21 @@ import org.tango.server.device.DeviceLocker;
 public final class CommandCache {
     private final Logger logger = LoggerFactory.getLogger(CommandCache.class);
 
-    private ScheduledFuture<?> result;
-    private final SelfPopulatingCache cache;
+    private PollingTask result;
+    private final PolledValue cache;
     private final CommandImpl command;
 
-    public CommandCache(final CacheManager manager, final CommandImpl command, final String deviceName,
-            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public CommandCache(final CommandImpl command, final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
         this.command = command;
-        final String cacheName = "cmdTangoPollingCache." + deviceName + "/" + command.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new CommandCacheEntryFactory(command, deviceLock, aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
+        cache = new PolledValue(command.getName(), new CommandCacheEntryFactory(command, deviceLock, aroundInvoke));
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         logger.debug("start command refresh cache of {} at a rate of {} ms", command.getName(),
                 command.getPollingPeriod());
-        final CacheRefresher refresher = new CacheRefresher(cache, command.getName().toLowerCase(Locale.ENGLISH));
-        result = pollingPool.scheduleAtFixedRate(refresher, 0L, command.getPollingPeriod(), TimeUnit.MILLISECONDS);
+        final CacheRefresher refresher = new CacheRefresher(cache);
+        result = PollingTask.schedule(pollingPool, refresher, command.getPollingPeriod(),
+                Collections.singletonList(command));
     }
 
     public void stopRefresh() {
@@ -76,7 +60,7 @@ public final class CommandCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    public PolledValue getCache() {
         return cache;
     }
 }
@@ -24,8 +24,6 @@
  */
 package org.tango.server.cache;
 
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.server.InvocationContext;
@@ -37,7 +35,7 @@ import org.tango.server.device.DeviceLocker;
 
 import fr.esrf.Tango.DevFailed;
 
-public final class CommandCacheEntryFactory implements CacheEntryFactory {
+public final class CommandCacheEntryFactory implements ICacheEntryFactory {
     private final Logger logger = LoggerFactory.getLogger(CommandCacheEntryFactory.class);
     private static final double NANO_TO_MILLI = 1000000.0;
     private final CommandImpl command;
@@ -56,8 +54,8 @@ public final class CommandCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
-        logger.debug("Creating entry for key = {} , command {} ", key, command.getName());
+    public Object createEntry() throws DevFailed {
+        logger.debug("Creating entry for command {} ", command.getName());
         Object result = null;
         final Object lock = deviceLock.getCommandLock();
         synchronized (lock != null ? lock : new Object()) {
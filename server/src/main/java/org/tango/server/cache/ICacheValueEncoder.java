@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import fr.esrf.Tango.DevFailed;
+
+/**
+ * Converts the value of a polled object into its reply, see {@link PolledValue#getEncoded(Object, ICacheValueEncoder)}
+ */
+public interface ICacheValueEncoder {
+
+    /**
+     * Convert a value read from the cache
+     *
+     * @param value the value
+     * @return the reply, shared by all the readers of this value
+     * @throws DevFailed if the conversion failed
+     */
+    Object encode(Object value) throws DevFailed;
+}
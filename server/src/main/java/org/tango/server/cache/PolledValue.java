@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import fr.esrf.Tango.DevFailed;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Last value of a polled attribute or command. The value, or the error of the last read, is an immutable snapshot
+ * behind an atomic reference, so a read from the cache never locks while polling is running. Only when there is no
+ * value yet, or when it has not been refreshed for a while, the reader blocks and reads the polled object itself;
+ * concurrent readers then wait for this read instead of reading again.
+ */
+public final class PolledValue {
+
+    /**
+     * System property for the minimum time between two refreshes triggered externally, in milliseconds
+     */
+    public static final String TRIGGER_SPACING = "org.tango.server.polling.trigger.spacing";
+    private static final long TIME_TO_LIVE = TimeUnit.SECONDS.toNanos(60);
+
+    private final String name;
+    private final ICacheEntryFactory factory;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+    private final Object refreshLock = new Object();
+    private volatile Encoded encoded;
+    private final long triggerSpacing;
+    /**
+     * Number of triggers received since the running triggered refresh started, 0 if none is running
+     */
+    private final AtomicInteger pendingTriggers = new AtomicInteger();
+    /**
+     * Time reserved for the last triggered refresh
+     */
+    private final AtomicLong lastTriggerTime;
+
+    /**
+     * Ctr
+     *
+     * @param name    the name of the polled object
+     * @param factory reads the polled object
+     */
+    public PolledValue(final String name, final ICacheEntryFactory factory) {
+        this(name, factory, TimeUnit.MILLISECONDS.toNanos(Long.getLong(TRIGGER_SPACING, 0L)));
+    }
+
+    PolledValue(final String name, final ICacheEntryFactory factory, final long triggerSpacing) {
+        this.name = name;
+        this.factory = factory;
+        this.triggerSpacing = triggerSpacing;
+        lastTriggerTime = new AtomicLong(System.nanoTime() - triggerSpacing);
+    }
+
+    /**
+     * @return the last value
+     * @throws DevFailed the error of the last read
+     */
+    public Object get() throws DevFailed {
+        final Snapshot current = snapshot.get();
+        if (current != null && !current.isExpired(System.nanoTime())) {
+            return current.getValue();
+        }
+        synchronized (refreshLock) {
+            final Snapshot refreshed = snapshot.get();
+            if (refreshed != current && refreshed != null && !refreshed.isExpired(System.nanoTime())) {
+                // read by another thread meanwhile
+                return refreshed.getValue();
+            }
+            return read(factory).getValue();
+        }
+    }
+
+    /**
+     * Read the polled object and update the value
+     *
+     * @return the new value
+     * @throws DevFailed if the read failed. The error is kept as last value.
+     */
+    public Object refresh() throws DevFailed {
+        synchronized (refreshLock) {
+            return read(factory).getValue();
+        }
+    }
+
+    /**
+     * Refresh triggered externally. The triggers received while a refresh is running are coalesced into a single
+     * follow-up refresh, done by the thread that started the first one; the other threads return at once. The
+     * triggers received during the follow-up start a new refresh in their own thread, so a caller reads at most
+     * twice. When a minimum spacing is configured, the refreshes are delayed to respect it.
+     *
+     * @throws DevFailed if the last read done by this thread failed
+     */
+    public void trigger() throws DevFailed {
+        if (pendingTriggers.getAndIncrement() > 0) {
+            // the running refresh will read again
+            return;
+        }
+        Snapshot result;
+        int triggers;
+        try {
+            result = triggeredRead();
+        } finally {
+            triggers = pendingTriggers.getAndSet(0);
+        }
+        if (triggers > 1) {
+            result = triggeredRead();
+        }
+        result.getValue();
+    }
+
+    private Snapshot triggeredRead() {
+        waitSpacing();
+        synchronized (refreshLock) {
+            return read(factory);
+        }
+    }
+
+    /**
+     * Reserve the next time slot for a triggered refresh and wait for it. An interruption does not shorten the wait,
+     * the interrupted status is restored afterwards.
+     */
+    private void waitSpacing() {
+        if (triggerSpacing <= 0) {
+            return;
+        }
+        long last;
+        long slot;
+        do {
+            last = lastTriggerTime.get();
+            final long now = System.nanoTime();
+            slot = now - (last + triggerSpacing) > 0 ? now : last + triggerSpacing;
+        } while (!lastTriggerTime.compareAndSet(last, slot));
+        boolean isInterrupted = false;
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (final InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Update the value with another reader, without waiting for a running refresh. Used by batched polling, which
+     * already holds the device lock that a refresh may be waiting for.
+     *
+     * @param reader reads the polled object
+     * @return the new value
+     * @throws DevFailed if the read failed. The error is kept as last value.
+     */
+    Object refresh(final ICacheEntryFactory reader) throws DevFailed {
+        return read(reader).getValue();
+    }
+
+    /**
+     * Get the last value converted into a reply. The conversion is done once per refresh by the first reader, then
+     * shared by all the others, so the replies must not be modified.
+     *
+     * @param key     another object the reply depends on, compared by identity. The reply is converted again when it
+     *                changes.
+     * @param encoder converts the value
+     * @return the reply
+     * @throws DevFailed the error of the last read, or of the conversion
+     */
+    public Object getEncoded(final Object key, final ICacheValueEncoder encoder) throws DevFailed {
+        final Object value = get();
+        final Encoded current = encoded;
+        if (current != null && current.value == value && current.key == key) {
+            return current.result;
+        }
+        final Object result = encoder.encode(value);
+        encoded = new Encoded(value, key, result);
+        return result;
+    }
+
+    /**
+     * @return the name of the polled object
+     */
+    public String getName() {
+        return name;
+    }
+
+    private Snapshot read(final ICacheEntryFactory reader) {
+        Snapshot result;
+        try {
+            result = new Snapshot(reader.createEntry(), null, System.nanoTime());
+        } catch (final DevFailed e) {
+            result = new Snapshot(null, e, System.nanoTime());
+        }
+        snapshot.set(result);
+        return result;
+    }
+
+    private static final class Encoded {
+        private final Object value;
+        private final Object key;
+        private final Object result;
+
+        private Encoded(final Object value, final Object key, final Object result) {
+            this.value = value;
+            this.key = key;
+            this.result = result;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Object value;
+        private final DevFailed error;
+        private final long time;
+
+        private Snapshot(final Object value, final DevFailed error, final long time) {
+            this.value = value;
+            this.error = error;
+            this.time = time;
+        }
+
+        private Object getValue() throws DevFailed {
+            if (error != null) {
+                throw error;
+            }
+            return value;
+        }
+
+        private boolean isExpired(final long now) {
+            return now - time > TIME_TO_LIVE;
+        }
+    }
+}
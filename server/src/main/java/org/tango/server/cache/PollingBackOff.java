@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import org.tango.server.IPollable;
+
+/**
+ * Adaptive back-off of a failing polled object. After a number of consecutive failures, the polling period is doubled
+ * at each new failure, up to a maximum period. The polling period is restored on the first success. Disabled by
+ * default, enabled with the system property {@value #BACK_OFF}, set to the number of consecutive failures before
+ * backing off.
+ */
+final class PollingBackOff {
+
+    /**
+     * System property for the number of consecutive failures before backing off
+     */
+    static final String BACK_OFF = "org.tango.server.polling.backoff";
+    /**
+     * System property for the maximum polling period when backing off, in milliseconds
+     */
+    static final String BACK_OFF_MAX = "org.tango.server.polling.backoff.max";
+    private static final int MAX_SHIFT = 30;
+
+    private final IPollable pollable;
+    private final int threshold;
+    private final int maxPeriod;
+    private volatile int failures;
+    private int skip;
+
+    PollingBackOff(final IPollable pollable, final int threshold, final int maxPeriod) {
+        this.pollable = pollable;
+        this.threshold = threshold;
+        this.maxPeriod = maxPeriod;
+        pollable.setBackOffPeriod(0);
+    }
+
+    /**
+     * @param pollable the polled object
+     * @return the back-off of the polled object, or null if disabled
+     */
+    static PollingBackOff create(final IPollable pollable) {
+        final int threshold = Integer.getInteger(BACK_OFF, 0);
+        if (threshold <= 0) {
+            return null;
+        }
+        return new PollingBackOff(pollable, threshold, Integer.getInteger(BACK_OFF_MAX, 60000));
+    }
+
+    void success() {
+        if (failures >= threshold) {
+            pollable.setBackOffPeriod(0);
+        }
+        failures = 0;
+        skip = 0;
+    }
+
+    void failure() {
+        failures++;
+        final int cycles = getCycles();
+        skip = cycles - 1;
+        if (cycles > 1) {
+            pollable.setBackOffPeriod(cycles * pollable.getPollingPeriod());
+        }
+    }
+
+    /**
+     * @return the number of polling periods until the next polling, 1 if not backing off
+     */
+    int getCycles() {
+        return getCycles(failures, threshold, pollable.getPollingPeriod(), maxPeriod);
+    }
+
+    static int getCycles(final int failures, final int threshold, final int period, final int maxPeriod) {
+        if (failures < threshold || period <= 0) {
+            return 1;
+        }
+        final int shift = Math.min(failures - threshold + 1, MAX_SHIFT);
+        final long maxCycles = Math.max(1, maxPeriod / period);
+        return (int) Math.min(1L << shift, maxCycles);
+    }
+
+    /**
+     * For polling that runs at every period, tell if the current cycle has to be skipped
+     *
+     * @return true if backing off
+     */
+    boolean skipCycle() {
+        if (skip > 0) {
+            skip--;
+            return true;
+        }
+        return false;
+    }
+}
@@ -24,9 +24,8 @@
  */
 package org.tango.server.cache;
 
+import fr.esrf.Tango.AttributeValue_5;
 import fr.esrf.Tango.DevFailed;
-import net.sf.ehcache.CacheException;
-import net.sf.ehcache.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.client.database.DatabaseFactory;
@@ -38,12 +37,12 @@ import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.attribute.AttributeValue;
 import org.tango.server.attribute.ForwardedAttribute;
 import org.tango.server.command.CommandImpl;
+import org.tango.server.idl.TangoIDLAttributeUtil;
 import org.tango.server.servant.AttributeGetterSetter;
 import org.tango.server.servant.CommandGetter;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
 
-import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -169,7 +168,7 @@ public final class PollingManager {
     }
 
     /**
-     * Update polling cache
+     * Update polling cache. Triggers received while the object is being updated are coalesced into one more update.
      *
      * @param objectName The command or attribute to update
      * @throws DevFailed
@@ -194,27 +193,13 @@ public final class PollingManager {
             }
             checkPolling(objectName, att);
             try {
-                cacheManager.getAttributeCache(att).refresh(att.getName());
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                } else {
-                    throw DevFailedUtils.newDevFailed(e.getCause());
-                }
+                cacheManager.getAttributeCache(att).trigger();
             } catch (final NoCacheFoundException e) {
                 throw DevFailedUtils.newDevFailed(e);
             }
         } else {
             checkPolling(objectName, cmd);
-            try {
-                cacheManager.getCommandCache(cmd).refresh(cmd.getName());
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                } else {
-                    throw DevFailedUtils.newDevFailed(e.getCause());
-                }
-            }
+            cacheManager.getCommandCache(cmd).trigger();
         }
     }
 
@@ -358,21 +343,12 @@ public final class PollingManager {
 
     public Object getCommandCacheElement(final CommandImpl cmd) throws DevFailed {
         Object ret;
-        try {
-            final Element element = cacheManager.getCommandCache(cmd).get(cmd.getName().toLowerCase(Locale.ENGLISH));
-            final Serializable cmdValue = element.getValue();
-            if (cmdValue instanceof org.tango.server.attribute.AttributeValue) {
-                // state or status are returned as attribute value
-                ret = ((org.tango.server.attribute.AttributeValue) cmdValue).getValue();
-            } else {
-                ret = element.getValue();
-            }
-        } catch (final CacheException e) {
-            if (e.getCause() instanceof DevFailed) {
-                throw (DevFailed) e.getCause();
-            } else {
-                throw DevFailedUtils.newDevFailed(e.getCause());
-            }
+        final Object cmdValue = cacheManager.getCommandCache(cmd).get();
+        if (cmdValue instanceof org.tango.server.attribute.AttributeValue) {
+            // state or status are returned as attribute value
+            ret = ((org.tango.server.attribute.AttributeValue) cmdValue).getValue();
+        } else {
+            ret = cmdValue;
         }
         return ret;
     }
@@ -380,17 +356,35 @@ public final class PollingManager {
     /**
      * @param att the attribute
      * @return element or null
-     * @throws IllegalStateException TODO description
-     * @throws CacheException        TODO description
+     * @throws DevFailed the error of the last polling of the attribute
+     */
+    public AttributeValue getAttributeCacheElement(final AttributeImpl att) throws DevFailed {
+        try {
+            return (AttributeValue) cacheManager.getAttributeCache(att).get();
+        } catch (NoCacheFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the last polled value of an attribute as an IDL 5 reply. The reply is converted once per polling cycle and
+     * shared by all the clients reading from the cache.
+     *
+     * @param att the attribute
+     * @return the reply or null
+     * @throws DevFailed the error of the last polling of the attribute
      */
-    public AttributeValue getAttributeCacheElement(final AttributeImpl att) throws CacheException {
-        final Element element;
+    public AttributeValue_5 getAttributeCacheValue5(final AttributeImpl att) throws DevFailed {
+        final PolledValue cache;
         try {
-            element = cacheManager.getAttributeCache(att).get(att.getName().toLowerCase(Locale.ENGLISH));
-            return (AttributeValue) element.getValue();
+            cache = cacheManager.getAttributeCache(att);
         } catch (NoCacheFoundException e) {
             return null;
         }
+        // the reply also holds the write value, which is replaced on each write
+        final AttributeValue writeValue = att.getWriteValue();
+        return (AttributeValue_5) cache.getEncoded(writeValue,
+                value -> TangoIDLAttributeUtil.toAttributeValue5(att, (AttributeValue) value, writeValue));
     }
 
     public void setPollRingDepth(final int pollRingDepth) {
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.server.IPollable;
+
+/**
+ * Periodic polling job. Each cycle is scheduled on a fixed grid from the first cycle, so that the execution time does
+ * not make the polling drift. When a cycle lasts longer than the polling period, the cycles that were missed are
+ * skipped instead of being run back to back, and the overrun is counted. The first cycle is delayed by a random
+ * jitter, so that objects polled at the same period do not all fire at the same time.
+ */
+public final class PollingTask implements Runnable {
+
+    /**
+     * System property for the maximum jitter of the first cycle, in milliseconds
+     */
+    public static final String POLLING_JITTER = "org.tango.server.polling.jitter";
+    private static final long MAX_JITTER = TimeUnit.MILLISECONDS.toNanos(Long.getLong(POLLING_JITTER, 100L));
+    private static final double NANO_TO_MILLI = 1000000.0;
+
+    private final Logger logger = LoggerFactory.getLogger(PollingTask.class);
+
+    private final ScheduledExecutorService lane;
+    private final Runnable job;
+    private final long period;
+    private final Iterable<? extends IPollable> pollables;
+    private final PollingBackOff backOff;
+    private long nextTime;
+    private long overruns;
+    private long skippedCycles;
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> future;
+
+    private PollingTask(final ScheduledExecutorService lane, final Runnable job, final int pollingPeriod,
+            final Iterable<? extends IPollable> pollables, final PollingBackOff backOff) {
+        this.lane = lane;
+        this.job = job;
+        period = TimeUnit.MILLISECONDS.toNanos(pollingPeriod);
+        this.pollables = pollables;
+        this.backOff = backOff;
+    }
+
+    /**
+     * Start a polling job
+     *
+     * @param lane          the executor of the polling job
+     * @param job           the polling job
+     * @param pollingPeriod the polling period in milliseconds
+     * @param pollables     the polled objects, updated with the scheduling statistics
+     * @return the task, to be cancelled to stop the polling
+     */
+    public static PollingTask schedule(final ScheduledExecutorService lane, final Runnable job,
+            final int pollingPeriod, final Iterable<? extends IPollable> pollables) {
+        return schedule(lane, job, pollingPeriod, pollables, null);
+    }
+
+    static PollingTask schedule(final ScheduledExecutorService lane, final Runnable job, final int pollingPeriod,
+            final Iterable<? extends IPollable> pollables, final PollingBackOff backOff) {
+        final PollingTask task = new PollingTask(lane, job, pollingPeriod, pollables, backOff);
+        final long jitter = Math.min(task.period, MAX_JITTER);
+        final long delay = jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0L;
+        task.nextTime = System.nanoTime() + delay;
+        task.future = lane.schedule(task, delay, TimeUnit.NANOSECONDS);
+        return task;
+    }
+
+    /**
+     * Number of cycles missed by an execution that started at its scheduled time and ended after the next ones
+     *
+     * @param scheduledTime the scheduled time of the execution
+     * @param endTime       the end time of the execution
+     * @param period        the polling period
+     * @return the number of cycles to skip
+     */
+    static long missedCycles(final long scheduledTime, final long endTime, final long period) {
+        final long elapsed = endTime - scheduledTime;
+        return elapsed < period ? 0 : elapsed / period;
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final long lateness = Math.max(0L, start - nextTime);
+        try {
+            job.run();
+        } catch (final RuntimeException e) {
+            logger.error("polling error", e);
+        }
+        final long missed = missedCycles(nextTime, System.nanoTime(), period);
+        if (missed > 0) {
+            overruns++;
+            skippedCycles += missed;
+        }
+        final long cycles = backOff == null ? 1 : backOff.getCycles();
+        nextTime += Math.max(missed + 1, cycles) * period;
+        for (final IPollable pollable : pollables) {
+            pollable.setSchedulingStats(lateness / NANO_TO_MILLI, overruns, skippedCycles);
+        }
+        if (!cancelled) {
+            try {
+                future = lane.schedule(this, nextTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (final RejectedExecutionException e) {
+                // polling lane is stopped
+                cancelled = true;
+            }
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Stop the polling
+     *
+     * @param mayInterruptIfRunning interrupt a running cycle
+     * @return false if the polling could not be cancelled
+     */
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        cancelled = true;
+        final ScheduledFuture<?> current = future;
+        return current == null || current.cancel(mayInterruptIfRunning) || current.isDone();
+    }
+}
@@ -24,48 +24,38 @@
  */
 package org.tango.server.cache;
 
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tango.server.IPollable;
 import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.command.CommandImpl;
 import org.tango.server.device.AroundInvokeImpl;
 import org.tango.server.device.DeviceLocker;
 
+import java.util.Arrays;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 public final class StateStatusCache {
     private final Logger logger = LoggerFactory.getLogger(StateStatusCache.class);
-    private final SelfPopulatingCache cache;
+    private final PolledValue cache;
     private final CommandImpl command;
-    private ScheduledFuture<?> result;
+    private final AttributeImpl attribute;
+    private PollingTask result;
 
-    public StateStatusCache(final CacheManager manager, final CommandImpl command, final AttributeImpl attribute,
-                            final String deviceName, final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
+    public StateStatusCache(final CommandImpl command, final AttributeImpl attribute, final String deviceName,
+                            final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
         this.command = command;
-        final String cacheName = "stateStatusTangoPollingCache." + deviceName + "/" + command.getName();
-        Cache defaultCache = manager.getCache(cacheName);
-        if (defaultCache == null) {
-            manager.addCache(cacheName);
-            defaultCache = manager.getCache(cacheName);
-            // defaultCache.setStatisticsEnabled(true);
-        }
-        defaultCache.flush();
-        cache = new SelfPopulatingCache(defaultCache, new StateStatusCacheEntryFactory(command, attribute, deviceLock,
+        this.attribute = attribute;
+        cache = new PolledValue(command.getName(), new StateStatusCacheEntryFactory(command, attribute, deviceLock,
                 deviceName, aroundInvoke));
-        cache.getCacheConfiguration().setTimeToLiveSeconds(60);
-
     }
 
     public void startRefresh(final ScheduledExecutorService pollingPool) {
         if (result == null) {
             logger.debug("start refresh cache of {} at period of {}", command.getName(), command.getPollingPeriod());
-            final CacheRefresher refresher = new CacheRefresher(cache, command.getName());
-            result = pollingPool.scheduleAtFixedRate(refresher, 0L, command.getPollingPeriod(), TimeUnit.MILLISECONDS);
+            final CacheRefresher refresher = new CacheRefresher(cache);
+            result = PollingTask.schedule(pollingPool, refresher, command.getPollingPeriod(),
+                    Arrays.<IPollable> asList(command, attribute));
         }
     }
 
@@ -83,7 +73,7 @@ public final class StateStatusCache {
         }
     }
 
-    public SelfPopulatingCache getCache() {
+    public PolledValue getCache() {
         return cache;
     }
 }
@@ -25,7 +25,6 @@
 package org.tango.server.cache;
 
 import fr.esrf.Tango.DevFailed;
-import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
 import org.tango.server.InvocationContext;
 import org.tango.server.InvocationContext.CallType;
 import org.tango.server.InvocationContext.ContextType;
@@ -35,8 +34,9 @@ import org.tango.server.command.CommandImpl;
 import org.tango.server.device.AroundInvokeImpl;
 import org.tango.server.device.DeviceLocker;
 import org.tango.server.events.EventManager;
+import org.tango.server.events.EventType;
 
-public final class StateStatusCacheEntryFactory implements CacheEntryFactory {
+public final class StateStatusCacheEntryFactory implements ICacheEntryFactory {
     private static final double NANO_TO_MILLI = 1000000.0;
     private final CommandImpl command;
     private final AttributeImpl attribute;
@@ -55,7 +55,7 @@ public final class StateStatusCacheEntryFactory implements CacheEntryFactory {
     }
 
     @Override
-    public Object createEntry(final Object key) throws DevFailed {
+    public Object createEntry() throws DevFailed {
 
         Object result = null;
         final Object lock = deviceLock.getAttributeLock();
@@ -76,11 +76,15 @@ public final class StateStatusCacheEntryFactory implements CacheEntryFactory {
                 attribute.addToHistory();
                 result = attribute.getReadValue();
                 command.addToHistory(((AttributeValue) result).getValue());
-                EventManager.getInstance().pushAttributeValueEvent(deviceName, attribute.getName());
+                if (attribute.hasEventSubscriber(EventType.getEventTypeListForAttrPolling())) {
+                    EventManager.getInstance().pushAttributeValueEvent(deviceName, attribute.getName());
+                }
             } catch (final DevFailed e) {
                 command.addErrorToHistory(e);
                 attribute.addErrorToHistory(e);
-                EventManager.getInstance().pushAttributeErrorEvent(deviceName, attribute.getName(), e);
+                if (attribute.hasEventSubscriber()) {
+                    EventManager.getInstance().pushAttributeErrorEvent(deviceName, attribute.getName(), e);
+                }
                 throw e;
             } finally {
                 attribute.unlock();
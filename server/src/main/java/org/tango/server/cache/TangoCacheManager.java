@@ -25,11 +25,6 @@
 package org.tango.server.cache;
 
 import fr.esrf.Tango.DevFailed;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.config.CacheConfiguration;
-import net.sf.ehcache.config.Configuration;
-import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
-import net.sf.ehcache.management.ManagementService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tango.client.database.DatabaseFactory;
@@ -41,14 +36,15 @@ import org.tango.server.device.DeviceLocker;
 import org.tango.server.properties.PropertiesUtils;
 import org.tango.server.servant.DeviceImpl;
 
-import javax.management.MBeanServer;
-import java.lang.management.ManagementFactory;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Manage cache for attributes/commands of a Tango device
@@ -59,34 +55,55 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 public final class TangoCacheManager {
 
     private static final String POLLING_THREADS_POOL_CONF = "polling_threads_pool_conf";
+    /**
+     * System property to poll the attributes of a device with the same polling period in one task
+     * {@link AttributeBatchRefresher}
+     */
+    private static final String BATCH_POLLING = "org.tango.server.polling.batch";
+    /**
+     * System property to run each polling cycle on a virtual thread {@link VirtualPollingLane}. The polling pool size
+     * is then the number of cycles running at the same time.
+     */
+    private static final String VIRTUAL_POLLING = "org.tango.server.polling.virtual";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TangoCacheManager.class);
 
     private static final int POOL_SIZE = 1;
 
-    private static volatile ScheduledExecutorService POLLING_POOL = new ScheduledThreadPoolExecutor(POOL_SIZE,
-            new TangoCacheThreadFactory());
+    /**
+     * One single threaded polling lane per polling thread. A device is always polled in the same lane, so a slow
+     * device only delays the devices that share its lane.
+     */
+    private static volatile ScheduledExecutorService[] POLLING_LANES = createLanes(POOL_SIZE);
     /**
      * Maintains the ordered list of polled device of the server
      */
     private static List<String> polledDevices = new LinkedList<String>();
-    private volatile static CacheManager MANAGER;
     private static int poolSize = POOL_SIZE;
     private static Map<String, TangoCacheManager> cacheList = new HashMap<String, TangoCacheManager>();
-    private final Map<AttributeImpl, AttributeCache> attributeCacheMap = new HashMap<AttributeImpl, AttributeCache>();
-    private final Map<CommandImpl, CommandCache> commandCacheMap = new HashMap<CommandImpl, CommandCache>();
+    /**
+     * Caches are read without lock by clients reading from CACHE or CACHE_DEV, and modified by the synchronized
+     * polling configuration methods
+     */
+    private final Map<AttributeImpl, AttributeCache> attributeCacheMap = new ConcurrentHashMap<AttributeImpl, AttributeCache>();
+    private final Map<CommandImpl, CommandCache> commandCacheMap = new ConcurrentHashMap<CommandImpl, CommandCache>();
     /**
      * pollingPeriod==0 means that the polling is triggered externally
      */
-    private final Map<AttributeImpl, AttributeCache> extTrigAttributeCacheMap = new HashMap<AttributeImpl, AttributeCache>();
-    private final Map<CommandImpl, CommandCache> extTrigCommandCacheMap = new HashMap<CommandImpl, CommandCache>();
+    private final Map<AttributeImpl, AttributeCache> extTrigAttributeCacheMap = new ConcurrentHashMap<AttributeImpl, AttributeCache>();
+    private final Map<CommandImpl, CommandCache> extTrigCommandCacheMap = new ConcurrentHashMap<CommandImpl, CommandCache>();
+    /**
+     * Batches of polled attributes, by polling period
+     */
+    private final Map<Integer, AttributeBatchRefresher> attributeBatches = new HashMap<Integer, AttributeBatchRefresher>();
+    private final boolean batchPolling = Boolean.parseBoolean(System.getProperty(BATCH_POLLING, "false"));
     private final DeviceLocker deviceLock;
 
     private final String deviceName;
 
     private final AroundInvokeImpl aroundInvoke;
-    private StateStatusCache stateCache;
-    private StateStatusCache statusCache;
+    private volatile StateStatusCache stateCache;
+    private volatile StateStatusCache statusCache;
 
     public TangoCacheManager(final String deviceName, final DeviceLocker deviceLock, final AroundInvokeImpl aroundInvoke) {
         this.deviceLock = deviceLock;
@@ -95,31 +112,40 @@ public final class TangoCacheManager {
         cacheList.put(deviceName, this);
     }
 
-    private static void startCache() {
-        final Configuration config = new Configuration();
-        config.setUpdateCheck(false);
-        final CacheConfiguration defaultCacheConfiguration = new CacheConfiguration();
-        defaultCacheConfiguration.setDiskPersistent(false);
-        defaultCacheConfiguration.setOverflowToDisk(false);
-        defaultCacheConfiguration.setMaxElementsInMemory(1);
-        config.setDefaultCacheConfiguration(defaultCacheConfiguration);
-        MANAGER = CacheManager.create(config);
-        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
-        ManagementService.registerMBeans(MANAGER, mBeanServer, true, true, true, true, true);
-        setPollSize(POOL_SIZE);
+    private static ScheduledExecutorService[] createLanes(final int size) {
+        final ThreadFactory threadFactory = new TangoCacheThreadFactory();
+        if (Boolean.getBoolean(VIRTUAL_POLLING)) {
+            // a single lane, as the polling cycles do not wait for each other
+            return new ScheduledExecutorService[] { new VirtualPollingLane(size, threadFactory) };
+        }
+        final ScheduledExecutorService[] lanes = new ScheduledExecutorService[size];
+        for (int i = 0; i < size; i++) {
+            final ScheduledThreadPoolExecutor lane = new ScheduledThreadPoolExecutor(1, threadFactory);
+            lane.setRemoveOnCancelPolicy(true);
+            lanes[i] = lane;
+        }
+        return lanes;
     }
 
-    public static void shutdown() {
-        if (MANAGER != null) {
-            MANAGER.shutdown();
-            MANAGER = null;
+    private static void shutdownLanes() {
+        if (POLLING_LANES != null) {
+            for (final ScheduledExecutorService lane : POLLING_LANES) {
+                lane.shutdownNow();
+            }
         }
-        if (POLLING_POOL != null) {
-            POLLING_POOL.shutdownNow();
-            POLLING_POOL = null;
+    }
+
+    private static void startPollingPool() {
+        if (POLLING_LANES == null) {
+            POLLING_LANES = createLanes(poolSize);
         }
     }
 
+    public static void shutdown() {
+        shutdownLanes();
+        POLLING_LANES = null;
+    }
+
     /**
      * Retrieve the ordered list of polled devices
      *
@@ -146,10 +172,8 @@ public final class TangoCacheManager {
             for (final TangoCacheManager cache : cacheList.values()) {
                 cache.stop();
             }
-            if (POLLING_POOL != null) {
-                POLLING_POOL.shutdownNow();
-            }
-            POLLING_POOL = new ScheduledThreadPoolExecutor(poolSize, new TangoCacheThreadFactory());
+            shutdownLanes();
+            POLLING_LANES = createLanes(poolSize);
             for (final TangoCacheManager cache : cacheList.values()) {
                 cache.start();
             }
@@ -165,6 +189,18 @@ public final class TangoCacheManager {
         return polledDevices;
     }
 
+    /**
+     * @return the polling lane of this device, from its rank in the polled devices
+     */
+    private ScheduledExecutorService getPollingLane() {
+        final ScheduledExecutorService[] lanes = POLLING_LANES;
+        int rank = polledDevices.indexOf(deviceName);
+        if (rank < 0) {
+            rank = deviceName.hashCode() & Integer.MAX_VALUE;
+        }
+        return lanes[rank % lanes.length];
+    }
+
     /**
      * Add the current device in polled list and persist it as device property of admin device. This property is not
      * used. Just here to have the same behavior as C++ Tango API.
@@ -182,24 +218,22 @@ public final class TangoCacheManager {
     }
 
     public synchronized void startStateStatusPolling(final CommandImpl command, final AttributeImpl attribute) {
-        if (MANAGER == null) {
-            startCache();
-        }
+        startPollingPool();
         if (command.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             if (stateCache != null) {
                 stateCache.stopRefresh();
             }
-            stateCache = new StateStatusCache(MANAGER, command, attribute, deviceName, deviceLock, aroundInvoke);
+            stateCache = new StateStatusCache(command, attribute, deviceName, deviceLock, aroundInvoke);
             if (command.getPollingPeriod() != 0) {
-                stateCache.startRefresh(POLLING_POOL);
+                stateCache.startRefresh(getPollingLane());
             }
         } else if (command.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
             if (statusCache != null) {
                 statusCache.stopRefresh();
             }
-            statusCache = new StateStatusCache(MANAGER, command, attribute, deviceName, deviceLock, aroundInvoke);
+            statusCache = new StateStatusCache(command, attribute, deviceName, deviceLock, aroundInvoke);
             if (command.getPollingPeriod() != 0) {
-                statusCache.startRefresh(POLLING_POOL);
+                statusCache.startRefresh(getPollingLane());
             }
         }
     }
@@ -215,7 +249,7 @@ public final class TangoCacheManager {
         addCommandPolling(command);
         LOGGER.debug("starting command {} for polling on device {}", command.getName(), deviceName);
         if (command.getPollingPeriod() != 0) {
-            commandCacheMap.get(command).startRefresh(POLLING_POOL);
+            commandCacheMap.get(command).startRefresh(getPollingLane());
         }
     }
 
@@ -226,11 +260,9 @@ public final class TangoCacheManager {
      * @throws DevFailed
      */
     private void addCommandPolling(final CommandImpl command) throws DevFailed {
-        if (MANAGER == null) {
-            startCache();
-        }
+        startPollingPool();
         removeCommandPolling(command);
-        final CommandCache cache = new CommandCache(MANAGER, command, deviceName, deviceLock, aroundInvoke);
+        final CommandCache cache = new CommandCache(command, deviceLock, aroundInvoke);
         if (command.getPollingPeriod() == 0) {
             extTrigCommandCacheMap.put(command, cache);
         } else {
@@ -250,7 +282,37 @@ public final class TangoCacheManager {
         addAttributePolling(attr);
         LOGGER.debug("starting attribute {} for polling on device {}", attr.getName(), deviceName);
         if (attr.getPollingPeriod() != 0) {
-            attributeCacheMap.get(attr).startRefresh(POLLING_POOL);
+            final AttributeCache cache = attributeCacheMap.get(attr);
+            if (batchPolling) {
+                addToBatch(cache);
+            } else {
+                cache.startRefresh(getPollingLane());
+            }
+        }
+    }
+
+    private void addToBatch(final AttributeCache cache) {
+        final int pollingPeriod = cache.getAttribute().getPollingPeriod();
+        AttributeBatchRefresher batch = attributeBatches.get(pollingPeriod);
+        if (batch == null) {
+            batch = new AttributeBatchRefresher(pollingPeriod, deviceName, deviceLock, aroundInvoke);
+            attributeBatches.put(pollingPeriod, batch);
+            batch.add(cache);
+            batch.startRefresh(getPollingLane());
+        } else {
+            batch.add(cache);
+        }
+    }
+
+    private void removeFromBatch(final AttributeCache cache) {
+        final Iterator<AttributeBatchRefresher> it = attributeBatches.values().iterator();
+        while (it.hasNext()) {
+            final AttributeBatchRefresher batch = it.next();
+            batch.remove(cache);
+            if (batch.isEmpty()) {
+                batch.stopRefresh();
+                it.remove();
+            }
         }
     }
 
@@ -261,11 +323,9 @@ public final class TangoCacheManager {
      * @throws DevFailed
      */
     private void addAttributePolling(final AttributeImpl attr) throws DevFailed {
-        if (MANAGER == null) {
-            startCache();
-        }
+        startPollingPool();
         removeAttributePolling(attr);
-        final AttributeCache cache = new AttributeCache(MANAGER, attr, deviceName, deviceLock, aroundInvoke);
+        final AttributeCache cache = new AttributeCache(attr, deviceName, deviceLock, aroundInvoke);
         if (attr.getPollingPeriod() == 0) {
             extTrigAttributeCacheMap.put(attr, cache);
         } else {
@@ -284,6 +344,7 @@ public final class TangoCacheManager {
         if (attributeCacheMap.containsKey(attr)) {
             final AttributeCache cache = attributeCacheMap.get(attr);
             cache.stopRefresh();
+            removeFromBatch(cache);
             attributeCacheMap.remove(attr);
         } else if (extTrigAttributeCacheMap.containsKey(attr)) {
             extTrigAttributeCacheMap.remove(attr);
@@ -303,6 +364,10 @@ public final class TangoCacheManager {
         for (final AttributeCache cache : attributeCacheMap.values()) {
             cache.stopRefresh();
         }
+        for (final AttributeBatchRefresher batch : attributeBatches.values()) {
+            batch.stopRefresh();
+        }
+        attributeBatches.clear();
         attributeCacheMap.clear();
         extTrigAttributeCacheMap.clear();
         for (final CommandCache cache : commandCacheMap.values()) {
@@ -347,17 +412,23 @@ public final class TangoCacheManager {
      * Start all polling
      */
     public synchronized void start() {
-        for (final AttributeCache cache : attributeCacheMap.values()) {
-            cache.startRefresh(POLLING_POOL);
+        if (batchPolling) {
+            for (final AttributeBatchRefresher batch : attributeBatches.values()) {
+                batch.startRefresh(getPollingLane());
+            }
+        } else {
+            for (final AttributeCache cache : attributeCacheMap.values()) {
+                cache.startRefresh(getPollingLane());
+            }
         }
         for (final CommandCache cache : commandCacheMap.values()) {
-            cache.startRefresh(POLLING_POOL);
+            cache.startRefresh(getPollingLane());
         }
         if (stateCache != null) {
-            stateCache.startRefresh(POLLING_POOL);
+            stateCache.startRefresh(getPollingLane());
         }
         if (statusCache != null) {
-            statusCache.startRefresh(POLLING_POOL);
+            statusCache.startRefresh(getPollingLane());
         }
     }
 
@@ -368,6 +439,9 @@ public final class TangoCacheManager {
         for (final AttributeCache cache : attributeCacheMap.values()) {
             cache.stopRefresh();
         }
+        for (final AttributeBatchRefresher batch : attributeBatches.values()) {
+            batch.stopRefresh();
+        }
         for (final CommandCache cache : commandCacheMap.values()) {
             cache.stopRefresh();
         }
@@ -377,21 +451,18 @@ public final class TangoCacheManager {
         if (statusCache != null) {
             statusCache.stopRefresh();
         }
-        if (POLLING_POOL != null) {
-            POLLING_POOL.shutdownNow();
-            POLLING_POOL = new ScheduledThreadPoolExecutor(poolSize, new TangoCacheThreadFactory());
-        }
     }
 
     /**
-     * Get cache of an attribute
+     * Get cache of an attribute. It does not lock the manager, so reading from the cache does not wait for the
+     * polling configuration.
      *
      * @param attr
      *            the attribute
      * @return the attribute cache
      * @throws NoCacheFoundException if cache for the attribute is not found
      */
-    public synchronized SelfPopulatingCache getAttributeCache(final AttributeImpl attr) throws NoCacheFoundException {
+    public PolledValue getAttributeCache(final AttributeImpl attr) throws NoCacheFoundException {
         if (attr.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             return stateCache.getCache();
         } else if (attr.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
@@ -401,7 +472,7 @@ public final class TangoCacheManager {
         }
     }
 
-    private SelfPopulatingCache tryGetAttributeCache(final AttributeImpl attr) throws NoCacheFoundException {
+    private PolledValue tryGetAttributeCache(final AttributeImpl attr) throws NoCacheFoundException {
         AttributeCache attrCache = attributeCacheMap.get(attr);
         if (attrCache == null) {
             attrCache = extTrigAttributeCacheMap.get(attr);
@@ -412,14 +483,14 @@ public final class TangoCacheManager {
     }
 
     /**
-     * Get cache of a command
+     * Get cache of a command, without locking the manager
      *
      * @param cmd
      *            The command
      * @return The command cache
      */
-    public synchronized SelfPopulatingCache getCommandCache(final CommandImpl cmd) {
-        SelfPopulatingCache cache = null;
+    public PolledValue getCommandCache(final CommandImpl cmd) {
+        PolledValue cache = null;
         if (cmd.getName().equalsIgnoreCase(DeviceImpl.STATE_NAME)) {
             cache = stateCache.getCache();
         } else if (cmd.getName().equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
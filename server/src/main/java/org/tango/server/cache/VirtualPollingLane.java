@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polling lane for blocking reads. The polling cycles are still scheduled by a single platform timer thread, but each
+ * cycle runs on its own virtual thread, so a read blocked on I/O does not hold back the other polled objects. The
+ * number of cycles running at the same time is limited by a number of permits. Virtual threads need Java 21; on older
+ * runtimes the cycles run on a fixed pool of as many platform threads as permits, waiting cycles being queued.
+ * <p>
+ * A running cycle is not interrupted when its polling is cancelled.
+ */
+final class VirtualPollingLane extends ScheduledThreadPoolExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualPollingLane.class);
+    private static final AtomicInteger TASK_NR = new AtomicInteger(0);
+
+    private final ExecutorService workers;
+    private final Semaphore permits;
+
+    /**
+     * Ctr
+     *
+     * @param concurrency  the maximum number of polling cycles running at the same time
+     * @param timerFactory creates the timer thread
+     */
+    VirtualPollingLane(final int concurrency, final ThreadFactory timerFactory) {
+        super(1, timerFactory);
+        setRemoveOnCancelPolicy(true);
+        workers = createWorkers(concurrency);
+        permits = new Semaphore(concurrency);
+    }
+
+    private static ExecutorService createWorkers(final int concurrency) {
+        try {
+            // Thread.ofVirtual().name("Polling task ", 1).factory(), without requiring Java 21 to build
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Polling task ", 1L);
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            final Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (final ReflectiveOperationException e) {
+            LOGGER.warn("virtual threads are not available, polling on platform threads");
+            return Executors.newFixedThreadPool(concurrency,
+                    r -> new Thread(r, "Polling task " + TASK_NR.incrementAndGet()));
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        return super.schedule(() -> dispatch(command), delay, unit);
+    }
+
+    private void dispatch(final Runnable command) {
+        try {
+            workers.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // lane is stopped
+            LOGGER.debug("polling lane is stopped");
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        workers.shutdownNow();
+        return super.shutdownNow();
+    }
+}
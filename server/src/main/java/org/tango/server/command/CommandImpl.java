@@ -63,6 +63,10 @@ public class CommandImpl extends DeviceBehaviorObject implements Comparable<Comm
     private volatile double executionDuration;
     private volatile double lastUpdateTime;
     private volatile double deltaTime;
+    private volatile double pollingLateness;
+    private volatile long pollingOverruns;
+    private volatile long skippedPollingCycles;
+    private volatile int backOffPeriod;
 
     private DevFailed lastError;
 
@@ -287,6 +291,38 @@ public class CommandImpl extends DeviceBehaviorObject implements Comparable<Comm
         this.deltaTime = deltaTime;
     }
 
+    @Override
+    public double getPollingLateness() {
+        return pollingLateness;
+    }
+
+    @Override
+    public long getPollingOverruns() {
+        return pollingOverruns;
+    }
+
+    @Override
+    public long getSkippedPollingCycles() {
+        return skippedPollingCycles;
+    }
+
+    @Override
+    public void setSchedulingStats(final double lateness, final long overruns, final long skippedCycles) {
+        pollingLateness = lateness;
+        pollingOverruns = overruns;
+        skippedPollingCycles = skippedCycles;
+    }
+
+    @Override
+    public int getBackOffPeriod() {
+        return backOffPeriod;
+    }
+
+    @Override
+    public void setBackOffPeriod(final int backOffPeriod) {
+        this.backOffPeriod = backOffPeriod;
+    }
+
     @Override
     public String getLastDevFailed() {
         return PollingUtils.toString(lastError);
@@ -32,6 +32,7 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
+import org.tango.server.MethodInvoker;
 import org.tango.server.StateMachineBehavior;
 import org.tango.utils.DevFailedUtils;
 
@@ -42,12 +43,15 @@ public final class ReflectCommandBehavior implements ICommandBehavior {
     private final XLogger xlogger = XLoggerFactory.getXLogger(ReflectCommandBehavior.class);
 
     private final Method executeMethod;
+    private final MethodInvoker invoker;
     private final Object businessObject;
     private final CommandConfiguration config;
 
     public ReflectCommandBehavior(final Method executeMethod, final Object businessObject,
             final CommandConfiguration config) {
         this.executeMethod = executeMethod;
+        // bound once, to avoid reflection on each execution
+        invoker = MethodInvoker.of(executeMethod);
         this.businessObject = businessObject;
         this.config = config;
     }
@@ -60,10 +64,10 @@ public final class ReflectCommandBehavior implements ICommandBehavior {
             if (!config.getInType().equals(Void.class)) {
                 checkInputType(arg);
                 // execute with params
-                obj = executeMethod.invoke(businessObject, arg);
+                obj = invoker.invoke(businessObject, arg);
             } else {
                 // execute without params
-                obj = executeMethod.invoke(businessObject);
+                obj = invoker.invoke(businessObject);
             }
         } catch (final IllegalAccessException e) {
             throw DevFailedUtils.newDevFailed(e);
@@ -39,7 +39,6 @@ import org.tango.server.events.EventManager;
 import org.tango.server.events.EventType;
 import org.tango.server.pipe.PipeImpl;
 import org.tango.server.pipe.PipeValue;
-import org.tango.server.servant.AttributeGetterSetter;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.ClientIDUtil;
 import org.tango.utils.DevFailedUtils;
@@ -96,7 +95,7 @@ public class DeviceManager {
      * @throws DevFailed
      */
     public AttributePropertiesImpl getAttributeProperties(final String attributeName) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         return attr.getProperties();
     }
 
@@ -109,7 +108,7 @@ public class DeviceManager {
      */
     public void setAttributeProperties(final String attributeName, final AttributePropertiesImpl properties)
             throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         attr.setProperties(properties);
     }
 
@@ -120,7 +119,7 @@ public class DeviceManager {
      * @throws DevFailed
      */
     public void removeAttributeProperties(final String attributeName) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         attr.removeProperties();
     }
 
@@ -144,7 +143,7 @@ public class DeviceManager {
      */
     public boolean isPolled(final String polledObject) throws DevFailed {
         try {
-            return AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList()).isPolled();
+            return device.getAttribute(polledObject).isPolled();
         } catch (final DevFailed e) {
             return device.getCommand(polledObject).isPolled();
         }
@@ -159,7 +158,7 @@ public class DeviceManager {
      */
     public int getPollingPeriod(final String polledObject) throws DevFailed {
         try {
-            return AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList()).getPollingPeriod();
+            return device.getAttribute(polledObject).getPollingPeriod();
         } catch (final DevFailed e) {
             return device.getCommand(polledObject).getPollingPeriod();
         }
@@ -173,7 +172,7 @@ public class DeviceManager {
      * @throws DevFailed
      */
     public void startPolling(final String polledObject, final int pollingPeriod) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(polledObject);
         attr.configurePolling(pollingPeriod);
         if (polledObject.equalsIgnoreCase(DeviceImpl.STATE_NAME)
                 || polledObject.equalsIgnoreCase(DeviceImpl.STATUS_NAME)) {
@@ -191,7 +190,7 @@ public class DeviceManager {
      */
     public void startPolling(final String polledObject) throws DevFailed {
         try {
-            final AttributeImpl attr = AttributeGetterSetter.getAttribute(polledObject, device.getAttributeList());
+            final AttributeImpl attr = device.getAttribute(polledObject);
             device.startPolling(attr);
         } catch (final DevFailed e) {
             if (polledObject.equalsIgnoreCase(DeviceImpl.STATE_NAME)
@@ -236,7 +235,7 @@ public class DeviceManager {
      * @throws DevFailed
      */
     public void fillAttributeHistory(String attributeName, AttributeValue[] readValues, AttributeValue[] writeValues, DevFailed[] errors) throws DevFailed {
-        final AttributeImpl attr = AttributeGetterSetter.getAttribute(attributeName, device.getAttributeList());
+        final AttributeImpl attr = device.getAttribute(attributeName);
         attr.fillHistory(readValues, writeValues, errors);
     }
 
@@ -254,8 +253,7 @@ public class DeviceManager {
             case ARCHIVE_EVENT:
             case USER_EVENT:
                 // get attribute value
-                final AttributeImpl attribute = AttributeGetterSetter.getAttribute(attributeName,
-                        device.getAttributeList());
+                final AttributeImpl attribute = device.getAttribute(attributeName);
                 attribute.lock();
                 try {
                     attribute.updateValue();
@@ -286,8 +284,7 @@ public class DeviceManager {
             case ARCHIVE_EVENT:
             case USER_EVENT:
                 // set attribute value
-                final AttributeImpl attribute = AttributeGetterSetter.getAttribute(attributeName,
-                        device.getAttributeList());
+                final AttributeImpl attribute = device.getAttribute(attributeName);
                 attribute.lock();
                 try {
                     // convert to the State type use on API side
@@ -26,8 +26,8 @@ package org.tango.server.device;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -56,7 +56,10 @@ public final class StateImpl {
     private final Method setStateMethod;
     private final Object businessObject;
     private DevState state = DevState.UNKNOWN;
-    private final Set<String> attributeAlarm = new HashSet<String>();
+    /**
+     * attributes in alarm, updated by the threads updating the attributes
+     */
+    private final Set<String> attributeAlarm = ConcurrentHashMap.newKeySet();
 
     /**
      * Ctr
@@ -127,6 +130,15 @@ public final class StateImpl {
         attributeAlarm.remove(attributeName);
     }
 
+    /**
+     * Set the state to ALARM if at least one attribute is in alarm
+     */
+    public void checkAttributeAlarms() {
+        if (!attributeAlarm.isEmpty()) {
+            state = DevState.ALARM;
+        }
+    }
+
     /**
      * change state of the device
      *
@@ -26,8 +26,8 @@ package org.tango.server.device;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -56,7 +56,7 @@ public final class StatusImpl {
     private final Method setStatusMethod;
     private String status = "";
     private final Object businessObject;
-    private final Map<String, String> attributeAlarm = new HashMap<String, String>();
+    private final Map<String, String> attributeAlarm = new ConcurrentHashMap<String, String>();
 
     /**
      * Ctr
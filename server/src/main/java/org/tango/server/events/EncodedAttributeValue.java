@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import fr.esrf.Tango.DevFailed;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One generation of an attribute value, as sent by events. The value is marshalled at most once per IDL version, the
+ * resulting frame is then shared by all the event types, subscribers and event sockets of this push.
+ */
+final class EncodedAttributeValue {
+
+    private final AttributeImpl attribute;
+    private final AttributeValue readValue;
+    private final AttributeValue writeValue;
+    private ByteBuffer idl4;
+    private ByteBuffer idl5;
+
+    /**
+     * Ctr
+     *
+     * @param attribute  the attribute
+     * @param readValue  the read value
+     * @param writeValue the write value, may be null
+     */
+    EncodedAttributeValue(final AttributeImpl attribute, final AttributeValue readValue,
+                          final AttributeValue writeValue) {
+        this.attribute = attribute;
+        this.readValue = readValue;
+        this.writeValue = writeValue;
+    }
+
+    /**
+     * Snapshot of the current value of an attribute. The value objects of an attribute are replaced on each update, so
+     * their references are a consistent generation of the value.
+     *
+     * @param attribute the attribute
+     * @return the current value
+     */
+    static EncodedAttributeValue of(final AttributeImpl attribute) {
+        return new EncodedAttributeValue(attribute, attribute.getReadValue(), attribute.getWriteValue());
+    }
+
+    /**
+     * @param idlVersion the IDL version of the event
+     * @param metrics    the metrics of the event, the marshalling duration is recorded in the metrics of the first
+     *                   event asking for this IDL version
+     * @return the marshalled value, aligned for C++ clients. It must not be modified.
+     * @throws DevFailed if marshall action failed
+     */
+    ByteBuffer get(final int idlVersion, final EventMetrics metrics) throws DevFailed {
+        if (idlVersion >= 5) {
+            return getIDL5(metrics);
+        } else {
+            return getIDL4(metrics);
+        }
+    }
+
+    private synchronized ByteBuffer getIDL5(final EventMetrics metrics) throws DevFailed {
+        if (idl5 == null) {
+            final long start = System.nanoTime();
+            try {
+                idl5 = EventUtilities.marshallIDL5(attribute, readValue, writeValue);
+            } catch (final DevFailed | RuntimeException e) {
+                metrics.recordFailed();
+                throw e;
+            }
+            metrics.recordMarshal(System.nanoTime() - start);
+        }
+        return idl5;
+    }
+
+    private synchronized ByteBuffer getIDL4(final EventMetrics metrics) throws DevFailed {
+        if (idl4 == null) {
+            final long start = System.nanoTime();
+            try {
+                idl4 = EventUtilities.marshallIDL4(attribute, readValue, writeValue);
+            } catch (final DevFailed | RuntimeException e) {
+                metrics.recordFailed();
+                throw e;
+            }
+            metrics.recordMarshal(System.nanoTime() - start);
+        }
+        return idl4;
+    }
+
+    AttributeImpl getAttribute() {
+        return attribute;
+    }
+}
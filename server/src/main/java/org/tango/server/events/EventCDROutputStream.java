@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.jacorb.orb.CDROutputStream;
+import org.omg.CORBA.ORBSingleton;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CDR stream for event data. The 0xc0de alignment header expected by C++ clients is reserved at the beginning of the
+ * buffer, so the payload keeps the alignment it would have at offset 0 and no copy is needed to prepend it. The
+ * initial buffer is taken from the JacORB buffer manager pool.
+ */
+final class EventCDROutputStream extends CDROutputStream {
+
+    /**
+     * Header size for attribute, config, error and interface events
+     */
+    static final int HEADER_SIZE = 4;
+    /**
+     * Header size for pipe events
+     */
+    static final int PIPE_HEADER_SIZE = 8;
+
+    /**
+     * Ctr
+     *
+     * @param headerSize the size of the alignment header
+     */
+    EventCDROutputStream(final int headerSize) {
+        this(headerSize, -1);
+    }
+
+    /**
+     * Ctr
+     *
+     * @param headerSize the size of the alignment header
+     * @param sizeHint   the expected size of the payload, or -1 if unknown
+     */
+    EventCDROutputStream(final int headerSize, final int sizeHint) {
+        super(ORBSingleton.init(), sizeHint < 0 ? -1 : sizeHint + headerSize);
+        // advances the write position only, CDR alignment is still computed from the payload start
+        increaseSize(headerSize);
+        for (int i = 0; i < headerSize; i += 2) {
+            buffer[i] = (byte) 0xc0;
+            buffer[i + 1] = (byte) 0xde;
+        }
+    }
+
+    /**
+     * Detach the buffer from this stream. The buffer is not returned to the pool as ZMQ keeps a reference on it until
+     * the message has been written by its IO thread. The stream is closed afterwards.
+     *
+     * @return the aligned data
+     */
+    ByteBuffer toFrame() {
+        final int size = size();
+        return ByteBuffer.wrap(releaseBuffer(), 0, size);
+    }
+}
@@ -43,6 +43,14 @@ interface EventConstants {
     // Time to manage events
     long EVENT_RESUBSCRIBE_PERIOD = 600000;
     long EVENT_HEARTBEAT_PERIOD = 9000;
+    long EVENT_EXPIRY_SWEEP_PERIOD = 1000;
+
+    // Asynchronous publishing of attribute events, disabled by default
+    String ASYNC_PUBLISHING = "org.tango.server.events.async";
+    String PUBLISHING_QUEUE_CAPACITY = "org.tango.server.events.queue_capacity";
+    int PUBLISHING_QUEUE_CAPACITY_DEFAULT = 10000;
+    // Number of event sockets, each one with its own publisher thread, devices are spread over them
+    String PUBLISHING_SHARDS = "org.tango.server.events.shards";
 
     // Used by sent object but not yet by client API
     String EXECUTE_METHOD = "";
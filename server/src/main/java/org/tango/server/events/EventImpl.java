@@ -29,12 +29,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
+import org.tango.server.Constants;
 import org.tango.server.attribute.AttributeImpl;
 import org.tango.server.pipe.PipeImpl;
 import org.tango.server.servant.DeviceImpl;
 import org.tango.utils.DevFailedUtils;
 import org.zeromq.ZMQ;
 
+import java.nio.ByteBuffer;
+
 /**
  * based on AttributeImpl object with event information
  *
@@ -46,9 +49,15 @@ final class EventImpl {
     private final XLogger xlogger = XLoggerFactory.getXLogger(EventImpl.class);
     private final IEventTrigger eventTrigger;
     private final boolean isLatestIDLVersion;
+    private final int idlVersion;
+    private final EventType eventType;
     private final String fullName;
+    private final byte[] topic;
+    private final EventRateLimiter rateLimiter = new EventRateLimiter();
+    private final EventMetrics metrics = new EventMetrics();
     private AttributeImpl attribute;
-    private long subscribeTime;
+    private volatile boolean isCheckCriteria = Constants.EVENT_CHECK_CRITERIA;
+    private volatile long subscribeTime;
     private int counter = 0;
 
     /**
@@ -63,7 +72,10 @@ final class EventImpl {
     EventImpl(final AttributeImpl attribute, final EventType eventType, final int idlVersion, final String fullName) throws DevFailed {
         this.attribute = attribute;
         isLatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
+        this.idlVersion = idlVersion;
+        this.eventType = eventType;
         this.fullName = fullName;
+        topic = fullName.getBytes(ZMQ.CHARSET);
         eventTrigger = EventTriggerFactory.createEventTrigger(eventType, attribute);
         logger.debug("event trigger for {} type is {}", attribute.getName(), eventTrigger.getClass());
         updateSubscribeTime();
@@ -76,7 +88,10 @@ final class EventImpl {
      */
     EventImpl(final PipeImpl pipe, final int idlVersion, final String fullName) {
         isLatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
+        this.idlVersion = idlVersion;
+        eventType = EventType.PIPE_EVENT;
         this.fullName = fullName;
+        topic = fullName.getBytes(ZMQ.CHARSET);
         eventTrigger = new DefaultEventTrigger();
         logger.debug("event trigger for {} type is {}", pipe.getName(), eventTrigger.getClass());
         updateSubscribeTime();
@@ -88,12 +103,55 @@ final class EventImpl {
      */
     EventImpl(final int idlVersion, final String fullName) {
         isLatestIDLVersion = idlVersion == DeviceImpl.SERVER_VERSION;
+        this.idlVersion = idlVersion;
+        eventType = EventType.INTERFACE_CHANGE_EVENT;
         this.fullName = fullName;
+        topic = fullName.getBytes(ZMQ.CHARSET);
         eventTrigger = new DefaultEventTrigger();
         logger.debug("event trigger for Device, type is {}", eventTrigger.getClass());
         updateSubscribeTime();
     }
 
+    /**
+     * @return the attribute of this event, null for pipe and interface change events
+     */
+    AttributeImpl getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return the event name
+     */
+    String getFullName() {
+        return fullName;
+    }
+
+    EventType getEventType() {
+        return eventType;
+    }
+
+    int getIdlVersion() {
+        return idlVersion;
+    }
+
+    boolean isLatestIDLVersion() {
+        return isLatestIDLVersion;
+    }
+
+    /**
+     * @return the rate limiter of the value events
+     */
+    EventRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @return the counters and latencies of this event
+     */
+    EventMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Update the subscribe time to manage if subscribe is still active.
      */
@@ -101,15 +159,28 @@ final class EventImpl {
         subscribeTime = System.currentTimeMillis();
     }
 
+    /**
+     * @param subscribeTime the time of the last subscribe, in milliseconds
+     */
+    void setSubscribeTime(final long subscribeTime) {
+        this.subscribeTime = subscribeTime;
+    }
+
     /**
      * Returns false if the last subscribe is too old.
      *
+     * @param now the current time, in milliseconds
      * @return false if the last subscribe is too old.
      */
+    boolean isStillSubscribed(final long now) {
+        return now < getExpiryTime();
+    }
 
-    boolean isStillSubscribed() {
-        final long dt = System.currentTimeMillis() - subscribeTime;
-        return dt < EventConstants.EVENT_RESUBSCRIBE_PERIOD;
+    /**
+     * @return the time the subscription expires if it is not renewed, in milliseconds
+     */
+    long getExpiryTime() {
+        return subscribeTime + EventConstants.EVENT_RESUBSCRIBE_PERIOD;
     }
 
     /**
@@ -119,28 +190,31 @@ final class EventImpl {
      * @param eventSocket
      */
     protected void pushAttributeValueEvent(ZMQ.Socket eventSocket) throws DevFailed {
-        xlogger.entry();
-        eventTrigger.setError(null);
-        eventTrigger.updateProperties();
-        if (isSendEvent()) {
-            sendAttributeValueEvent(eventSocket);
+        if (isSendEvent(null)) {
+            pushAttributeValueEvent(eventSocket, EncodedAttributeValue.of(attribute));
         }
-        xlogger.exit();
     }
 
+    /**
+     * Fire an event containing the given value. The event condition must have been checked once for this push with
+     * {@link #isSendEvent(DevFailed)}. The value may have been taken from the attribute before, i.e. when events are
+     * published asynchronously, and its encoding is shared with the other events of the same push.
+     *
+     * @param eventSocket
+     * @param value       the value to send
+     * @throws DevFailed
+     */
+    void pushAttributeValueEvent(final ZMQ.Socket eventSocket, final EncodedAttributeValue value) throws DevFailed {
+        xlogger.entry();
+        sendAttributeValueEvent(eventSocket, value);
+        xlogger.exit();
+    }
 
-    private void sendAttributeValueEvent(ZMQ.Socket eventSocket) throws DevFailed {
+    private void sendAttributeValueEvent(final ZMQ.Socket eventSocket, final EncodedAttributeValue value)
+            throws DevFailed {
         xlogger.entry();
         try {
-            if (isLatestIDLVersion) {
-                synchronized (eventSocket) {
-                    EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL5(attribute));
-                }
-            } else {
-                synchronized (eventSocket) {
-                    EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL4(attribute));
-                }
-            }
+            send(eventSocket, false, value.get(idlVersion, metrics));
         } catch (final org.zeromq.ZMQException | ArrayIndexOutOfBoundsException e) {
             if (e instanceof ArrayIndexOutOfBoundsException) {
                 logger.error(fullName, e);
@@ -153,9 +227,7 @@ final class EventImpl {
     public void pushAttributeIDL5Event(AttributeValue_5 value, ZMQ.Socket eventSocket) throws DevFailed {
         xlogger.entry();
         try {
-            synchronized (eventSocket) {
-                EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL5(value));
-            }
+            send(eventSocket, false, marshall(() -> EventUtilities.marshallIDL5(value)));
         } catch (final org.zeromq.ZMQException | ArrayIndexOutOfBoundsException e) {
             if (e instanceof ArrayIndexOutOfBoundsException) {
                 logger.error(fullName, e);
@@ -177,10 +249,14 @@ final class EventImpl {
         xlogger.entry();
         try {
             final AttDataReady dataReady = new AttDataReady(attribute.getName(), attribute.getTangoType(), counter);
+            final ByteBuffer data = marshall(() -> EventUtilities.marshall(dataReady));
+            final long start = System.nanoTime();
             synchronized (eventSocket) {
-                EventUtilities.sendToSocket(eventSocket, fullName, counter, EventUtilities.marshall(dataReady));
+                EventUtilities.sendToSocket(eventSocket, topic, counter, data);
             }
+            metrics.recordSent(data.remaining(), System.nanoTime() - start);
         } catch (final org.zeromq.ZMQException e) {
+            metrics.recordFailed();
             throw DevFailedUtils.newDevFailed(e);
         }
 
@@ -190,9 +266,7 @@ final class EventImpl {
     protected void pushAttributeConfigIDL5Event(AttributeConfig_5 config, ZMQ.Socket eventSocket) throws DevFailed {
         xlogger.entry();
         try {
-            synchronized (eventSocket) {
-                EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL5Config(config));
-            }
+            send(eventSocket, false, marshall(() -> EventUtilities.marshallIDL5Config(config)));
         } catch (final org.zeromq.ZMQException e) {
             throw DevFailedUtils.newDevFailed(e);
         }
@@ -203,13 +277,9 @@ final class EventImpl {
         xlogger.entry();
         try {
             if (isLatestIDLVersion) {
-                synchronized (eventSocket) {
-                    EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL5Config(attribute));
-                }
+                send(eventSocket, false, marshall(() -> EventUtilities.marshallIDL5Config(attribute)));
             } else {
-                synchronized (eventSocket) {
-                    EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshallIDL4Config(attribute));
-                }
+                send(eventSocket, false, marshall(() -> EventUtilities.marshallIDL4Config(attribute)));
             }
         } catch (final org.zeromq.ZMQException e) {
             throw DevFailedUtils.newDevFailed(e);
@@ -221,9 +291,7 @@ final class EventImpl {
             final DevIntrChange deviceInterface, ZMQ.Socket eventSocket) throws DevFailed {
         xlogger.entry();
         try {
-            synchronized (eventSocket) {
-                EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshall(deviceInterface));
-            }
+            send(eventSocket, false, marshall(() -> EventUtilities.marshall(deviceInterface)));
         } catch (final org.zeromq.ZMQException e) {
             throw DevFailedUtils.newDevFailed(e);
         }
@@ -234,9 +302,7 @@ final class EventImpl {
             throws DevFailed {
         xlogger.entry();
         try {
-            synchronized (eventSocket) {
-                EventUtilities.sendToSocket(eventSocket, fullName, counter++, EventUtilities.marshall(pipeData));
-            }
+            send(eventSocket, false, marshall(() -> EventUtilities.marshall(pipeData)));
         } catch (final org.zeromq.ZMQException e) {
             throw DevFailedUtils.newDevFailed(e);
         }
@@ -244,7 +310,8 @@ final class EventImpl {
     }
 
     /**
-     * Fire an event containing a DevFailed.
+     * Fire an event containing a DevFailed. The event condition must have been checked once for this push with
+     * {@link #isSendEvent(DevFailed)}.
      *
      * @param devFailed the failed object to be sent.
      * @param eventSocket
@@ -252,26 +319,81 @@ final class EventImpl {
      */
     protected void pushDevFailedEvent(final DevFailed devFailed, ZMQ.Socket eventSocket) throws DevFailed {
         xlogger.entry();
-        eventTrigger.updateProperties();
-        eventTrigger.setError(devFailed);
-        if (isSendEvent()) {
-            try {
-                synchronized (eventSocket) {
-                    EventUtilities.sendToSocket(eventSocket, fullName, counter++, true, EventUtilities.marshall(devFailed));
-                }
-            } catch (final org.zeromq.ZMQException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            }
+        try {
+            send(eventSocket, true, marshall(() -> EventUtilities.marshall(devFailed)));
+        } catch (final org.zeromq.ZMQException e) {
+            throw DevFailedUtils.newDevFailed(e);
         }
         xlogger.exit();
     }
 
     /**
-     * check if send event
+     * Marshall the data of an event, and record the marshalling duration
+     *
+     * @param marshaller the marshalling action
+     * @return the marshalled data
+     * @throws DevFailed if marshall action failed
+     */
+    private ByteBuffer marshall(final Marshaller marshaller) throws DevFailed {
+        final long start = System.nanoTime();
+        final ByteBuffer data;
+        try {
+            data = marshaller.marshall();
+        } catch (final DevFailed | RuntimeException e) {
+            metrics.recordFailed();
+            throw e;
+        }
+        metrics.recordMarshal(System.nanoTime() - start);
+        return data;
+    }
+
+    /**
+     * Send an event with the next counter value, and record the sending duration
      *
-     * @return
+     * @param eventSocket the event socket
+     * @param isException true if the data is a DevFailed
+     * @param data        the marshalled data
+     * @throws DevFailed
+     */
+    private void send(final ZMQ.Socket eventSocket, final boolean isException, final ByteBuffer data)
+            throws DevFailed {
+        final long start = System.nanoTime();
+        try {
+            synchronized (eventSocket) {
+                EventUtilities.sendToSocket(eventSocket, topic, counter++, isException, data);
+            }
+        } catch (final RuntimeException e) {
+            metrics.recordFailed();
+            throw e;
+        }
+        metrics.recordSent(data.remaining(), System.nanoTime() - start);
+    }
+
+    /**
+     * @param isCheckCriteria true to check the event criteria before sending, see {@link Constants#EVENT_CHECK_CRITERIA}
      */
-    private boolean isSendEvent() throws DevFailed {
-        return true;
+    void setCheckCriteria(final boolean isCheckCriteria) {
+        this.isCheckCriteria = isCheckCriteria;
+    }
+
+    /**
+     * Check the event condition (change, archive or periodic criteria) for a push, if enabled. Triggers keep the
+     * previously sent value, so it must be called once per push whatever the number of event sockets.
+     *
+     * @param error the error to send, null for a value
+     * @return true if the event must be sent
+     * @throws DevFailed
+     */
+    synchronized boolean isSendEvent(final DevFailed error) throws DevFailed {
+        if (!isCheckCriteria) {
+            return true;
+        }
+        eventTrigger.setError(error);
+        eventTrigger.updateProperties();
+        return !eventTrigger.doCheck() || eventTrigger.isSendEvent();
+    }
+
+    private interface Marshaller {
+        ByteBuffer marshall() throws DevFailed;
     }
 }
@@ -55,6 +55,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.tango.orb.ORBManager.OAI_ADDR;
@@ -72,38 +73,50 @@ public final class EventManager {
     public static final int MINIMUM_IDL_VERSION = 4;
     public static final String IDL_REGEX = "idl[0-9]_[a-z]*";
     public static final String IDL_LATEST = "idl" + DeviceImpl.SERVER_VERSION + "_";
+    /**
+     * event type masks used on push, one bit per {@link EventType#ordinal()}
+     */
+    private static final int ALL_EVENT_TYPES = -1;
+    private static final int ATTR_POLLING_EVENT_TYPES = toMask(EventType.getEventTypeListForAttrPolling());
     private static final EventManager INSTANCE = new EventManager();
 
-    private final Map<String, EventImpl> eventImplMap = new HashMap<String, EventImpl>();
+    private final SubscriptionRegistry subscriptions = new SubscriptionRegistry();
+    /**
+     * metrics of the expired subscriptions
+     */
+    private final EventMetrics expiredMetrics = new EventMetrics();
     private final ScheduledExecutorService scheduledHeartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
             new ThreadFactoryBuilder()
                     .setNameFormat("Event-HeartBeat-%d")
                     .setDaemon(true)
                     .build());
+    private final ScheduledExecutorService eventFlushExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Event-Flush-%d")
+                    .setDaemon(true)
+                    .build());
+    private final ScheduledExecutorService subscriptionExpiryExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Event-Expiry-%d")
+                    .setDaemon(true)
+                    .build());
     private final ZContext context = new ZContext();
     private final int serverHWM = initializeServerHwm();
     private final int clientHWN = initializeClientHwm();
     private final Map<String, ZMQ.Socket> heartbeatEndpoints = Maps.newLinkedHashMap();
-    private final Map<String, ZMQ.Socket> eventEndpoints = Maps.newLinkedHashMap();
-
-    private final java.util.function.Function<EventImpl, Void> pushAttributeValueEvent = (eventImpl) -> {
-        for (Map.Entry<String, ZMQ.Socket> eventSocket : eventEndpoints.entrySet()) {
-            try {
-                logger.debug("sending event to {}", eventSocket.getKey());
-                eventImpl.pushAttributeValueEvent(eventSocket.getValue());
-            } catch (DevFailed devFailed) {
-                logger.error("Failed to pushAttributeValueEvent");
-                DevFailedUtils.logDevFailed(devFailed, logger);
-            }
-        }
-        return null;
-    };
+    /**
+     * devices are spread over the shards, at least one
+     */
+    private final List<EventShard> eventShards;
 
     private EventManager() {
         List<String> ipAddresses = getIp4Addresses();
 
         bindEndpoints(createSocket(), ipAddresses, heartbeatEndpoints, SocketType.HEARTBEAT);
-        bindEndpoints(createEventSocket(), ipAddresses, eventEndpoints, SocketType.EVENTS);
+        eventShards = createEventShards(ipAddresses);
+        subscriptionExpiryExecutor.scheduleAtFixedRate(this::removeExpiredSubscriptions,
+                EventConstants.EVENT_EXPIRY_SWEEP_PERIOD, EventConstants.EVENT_EXPIRY_SWEEP_PERIOD,
+                TimeUnit.MILLISECONDS);
 
         final String adminDeviceName = ServerManager.getInstance().getAdminDeviceName();
         final String heartbeatName;
@@ -118,6 +131,114 @@ public final class EventManager {
 
     }
 
+    private List<EventShard> createEventShards(final Iterable<String> ipAddresses) {
+        int nbShards = 1;
+        final String value = System.getProperty(EventConstants.PUBLISHING_SHARDS);
+        try {
+            if (value != null) {
+                nbShards = Math.max(1, Integer.parseInt(value));
+            }
+        } catch (final NumberFormatException e) {
+            logger.warn("{} is not a number: {} ", EventConstants.PUBLISHING_SHARDS, value);
+        }
+        logger.debug("events are published through {} sockets", nbShards);
+        return createEventShards(nbShards,
+                Boolean.parseBoolean(System.getProperty(EventConstants.ASYNC_PUBLISHING, "false")),
+                () -> {
+                    final Map<String, ZMQ.Socket> endpoints = Maps.newLinkedHashMap();
+                    bindEndpoints(createEventSocket(), ipAddresses, endpoints, SocketType.EVENTS);
+                    return endpoints;
+                }, this::createEventPublisher);
+    }
+
+    /**
+     * Create the event shards. A single shard sends the events in the caller thread unless asynchronous publishing is
+     * enabled, several shards have each their own socket and publisher thread.
+     *
+     * @param nbShards         the number of shards, at least 1
+     * @param isAsynchronous   true to publish through a publisher thread with a single shard
+     * @param endpointsBinder  binds the endpoints of a new event socket
+     * @param publisherFactory creates a publisher thread from its thread name format
+     * @return the shards
+     */
+    static List<EventShard> createEventShards(final int nbShards, final boolean isAsynchronous,
+                                              final Supplier<Map<String, ZMQ.Socket>> endpointsBinder,
+                                              final Function<String, EventPublisher> publisherFactory) {
+        final List<EventShard> shards = new ArrayList<EventShard>(nbShards);
+        if (nbShards == 1) {
+            final EventPublisher publisher = isAsynchronous ? publisherFactory.apply("Event-Publisher-%d") : null;
+            shards.add(new EventShard(endpointsBinder.get(), publisher));
+        } else {
+            for (int i = 0; i < nbShards; i++) {
+                shards.add(new EventShard(endpointsBinder.get(),
+                        publisherFactory.apply("Event-Publisher-" + i + "-%d")));
+            }
+        }
+        return Collections.unmodifiableList(shards);
+    }
+
+    private EventPublisher createEventPublisher(final String nameFormat) {
+        int capacity = EventConstants.PUBLISHING_QUEUE_CAPACITY_DEFAULT;
+        final String value = System.getProperty(EventConstants.PUBLISHING_QUEUE_CAPACITY);
+        try {
+            if (value != null) {
+                capacity = Integer.parseInt(value);
+            }
+        } catch (final NumberFormatException e) {
+            logger.warn("{} is not a number: {} ", EventConstants.PUBLISHING_QUEUE_CAPACITY, value);
+        }
+        logger.debug("events are published asynchronously, queue capacity is {}", capacity);
+        return new EventPublisher(capacity, nameFormat);
+    }
+
+    /**
+     * Remove the subscriptions that have not been renewed, and the subscriptions of their root attributes for the
+     * forwarded attributes
+     */
+    private void removeExpiredSubscriptions() {
+        try {
+            for (final EventImpl eventImpl : subscriptions.removeExpired(System.currentTimeMillis())) {
+                expiredMetrics.add(eventImpl.getMetrics());
+                final AttributeImpl attribute = eventImpl.getAttribute();
+                if (attribute != null && attribute.getBehavior() instanceof ForwardedAttribute) {
+                    try {
+                        ((ForwardedAttribute) attribute.getBehavior()).unsubscribe(eventImpl.getEventType());
+                    } catch (final DevFailed e) {
+                        DevFailedUtils.logDevFailed(e, logger);
+                    }
+                }
+            }
+        } catch (final RuntimeException e) {
+            // do not cancel the next sweeps
+            logger.error("failed to remove expired subscriptions", e);
+        }
+    }
+
+    /**
+     * @param deviceName the device name
+     * @return the shard sending the events of this device
+     */
+    private EventShard getEventShard(final String deviceName) {
+        return eventShards.get(getShardIndex(deviceName, eventShards.size()));
+    }
+
+    /**
+     * @param deviceName the device name, case insensitive
+     * @param nbShards   the number of shards
+     * @return the index of the shard of this device, always the same for a device name
+     */
+    static int getShardIndex(final String deviceName, final int nbShards) {
+        if (nbShards == 1) {
+            return 0;
+        }
+        // case insensitive hash, computed without building the lower case name
+        int hash = 0;
+        for (int i = 0; i < deviceName.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(deviceName.charAt(i));
+        }
+        return Math.floorMod(hash, nbShards);
+    }
+
     private int initializeServerHwm() {
         // Check the High Water Mark value from environment
         final String env = System.getenv("TANGO_DS_EVENT_BUFFER_HWM");
@@ -244,37 +365,116 @@ public final class EventManager {
 
 
     /**
-     * Search the specified EventImpl object
-     *
-     * @param fullName specified EventImpl name.
-     * @return the specified EventImpl object if found, otherwise returns null.
+     * @param eventType an event type
+     * @return the bit of this event type in an event type mask
      */
-    //TODO concurrency
-    private EventImpl getEventImpl(final String fullName) {
-        // Check if subscribed
-        EventImpl eventImpl = eventImplMap.get(fullName);
-
-        // Check if subscription is out of time
-        if (eventImpl != null && !eventImpl.isStillSubscribed()) {
-            logger.debug("{} not subscribed any more", fullName);
-            // System.out.println(fullName + "Not Subscribed any more");
-            eventImplMap.remove(fullName);
-
-            return null;
-        } else {
-            return eventImpl;
+    private static int toMask(final EventType eventType) {
+        return 1 << eventType.ordinal();
+    }
+
+    private static int toMask(final Collection<EventType> eventTypes) {
+        int mask = 0;
+        for (final EventType eventType : eventTypes) {
+            mask |= toMask(eventType);
         }
+        return mask;
+    }
+
+    /**
+     * Filter the registered events of an attribute on push. The registered arrays are iterated directly, so a push
+     * does not copy them.
+     *
+     * @param eventImpl  a registered event
+     * @param typeMask   the event types, one bit per {@link EventType#ordinal()}
+     * @param latestOnly true to accept only the events of the latest IDL version
+     * @return true if the event must be pushed
+     */
+    private static boolean accepts(final EventImpl eventImpl, final int typeMask, final boolean latestOnly) {
+        final boolean isIdlVersion = latestOnly ? eventImpl.isLatestIDLVersion()
+                : eventImpl.getIdlVersion() <= DeviceImpl.SERVER_VERSION;
+        return isIdlVersion && (typeMask & toMask(eventImpl.getEventType())) != 0;
     }
 
     public boolean hasSubscriber(final String deviceName) {
-        boolean hasSubscriber = false;
-        for (final String eventName : eventImplMap.keySet()) {
-            if (eventName.toLowerCase(Locale.ENGLISH).contains(deviceName.toLowerCase(Locale.ENGLISH))) {
-                hasSubscriber = true;
-                break;
+        return subscriptions.hasSubscriber(deviceName);
+    }
+
+    /**
+     * @return true if attribute value and error events are sent by a dedicated publisher thread
+     */
+    public boolean isAsynchronousPublishing() {
+        return eventShards.get(0).getPublisher() != null;
+    }
+
+    /**
+     * @return the number of event sockets
+     */
+    public int getEventShardNr() {
+        return eventShards.size();
+    }
+
+    /**
+     * @return the number of events waiting to be sent by the publisher threads
+     */
+    public int getEventQueueDepth() {
+        int depth = 0;
+        for (final EventShard shard : eventShards) {
+            if (shard.getPublisher() != null) {
+                depth += shard.getPublisher().getQueueDepth();
             }
         }
-        return hasSubscriber;
+        return depth;
+    }
+
+    /**
+     * @return the number of events sent since startup
+     */
+    public long getSentEventNr() {
+        return getTotalMetrics().getSentNr();
+    }
+
+    /**
+     * @return the number of bytes of the events sent since startup
+     */
+    public long getSentEventBytes() {
+        return getTotalMetrics().getBytes();
+    }
+
+    /**
+     * @return the number of events dropped since startup, because a publisher queue was full or because a newer value
+     * replaced them while the event rate was limited
+     */
+    public long getDroppedEventNr() {
+        return getTotalMetrics().getDroppedNr();
+    }
+
+    /**
+     * @return the number of events whose marshalling or sending failed since startup
+     */
+    public long getFailedEventNr() {
+        return getTotalMetrics().getFailedNr();
+    }
+
+    /**
+     * @return the counters and latencies of each subscribed event, one line per event
+     */
+    public String[] getEventMetrics() {
+        final List<EventImpl> events = subscriptions.getEvents();
+        events.sort(Comparator.comparing(EventImpl::getFullName));
+        final String[] result = new String[events.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = events.get(i).getFullName() + ": " + events.get(i).getMetrics();
+        }
+        return result;
+    }
+
+    private EventMetrics getTotalMetrics() {
+        final EventMetrics total = new EventMetrics();
+        total.add(expiredMetrics);
+        for (final EventImpl eventImpl : subscriptions.getEvents()) {
+            total.add(eventImpl.getMetrics());
+        }
+        return total;
     }
 
     /**
@@ -284,7 +484,12 @@ public final class EventManager {
         xlogger.entry();
         logger.debug("closing all event resources");
 
+        for (final EventShard shard : eventShards) {
+            shard.close();
+        }
         scheduledHeartbeatExecutor.shutdown();
+        eventFlushExecutor.shutdownNow();
+        subscriptionExpiryExecutor.shutdownNow();
         try {
             scheduledHeartbeatExecutor.awaitTermination(1, TimeUnit.SECONDS);
         } catch (final InterruptedException e) {
@@ -295,7 +500,7 @@ public final class EventManager {
         //TODO ensure this is done in the same thread where sockets were created
             // close all open sockets
 //        context.destroy();
-        eventImplMap.clear();
+        subscriptions.clear();
 
         logger.debug("all event resources closed");
         xlogger.exit();
@@ -310,10 +515,15 @@ public final class EventManager {
         // longStringArray.lvalue = new int[0];
         longStringArray.lvalue = new int[]{EventConstants.TANGO_RELEASE, DeviceImpl.SERVER_VERSION, clientHWN, 0, 0,
                 EventConstants.ZMQ_RELEASE};
-        if (heartbeatEndpoints.isEmpty() || eventEndpoints.isEmpty()) {
+        if (heartbeatEndpoints.isEmpty() || eventShards.get(0).getEndpoints().isEmpty()) {
             longStringArray.svalue = new String[]{"No ZMQ event yet !"};
         } else {
-            longStringArray.svalue = getEndpoints();
+            // the endpoints of all shards
+            final List<String> endpoints = new ArrayList<String>();
+            for (final EventShard shard : eventShards) {
+                endpoints.addAll(Arrays.asList(getEndpoints(shard)));
+            }
+            longStringArray.svalue = endpoints.toArray(new String[0]);
         }
         return longStringArray;
 
@@ -333,16 +543,13 @@ public final class EventManager {
         // If first time start the ZMQ management
         // check if event is already subscribed
         final String fullName = EventUtilities.buildPipeEventName(deviceName, pipe.getName());
-        EventImpl eventImpl = eventImplMap.get(fullName);
-        if (eventImpl == null) {
-            // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(pipe, DeviceImpl.SERVER_VERSION, fullName);
-            eventImplMap.put(fullName, eventImpl);
-        } else {
-            eventImpl.updateSubscribeTime();
+        if (subscriptions.renewPipeEvent(deviceName, pipe.getName()) == null) {
+            // If not already manage, create EventImpl object and add it to the registry
+            subscriptions.addPipeEvent(deviceName, pipe.getName(),
+                    new EventImpl(pipe, DeviceImpl.SERVER_VERSION, fullName));
         }
 
-        return buildConnectionParameters(fullName);
+        return buildConnectionParameters(deviceName, fullName);
     }
 
     /**
@@ -360,21 +567,23 @@ public final class EventManager {
         xlogger.entry();
         // check if event is already subscribed
         final String fullName = EventUtilities.buildEventName(deviceName, attribute.getName(), eventType, idlVersion);
-        EventImpl eventImpl = eventImplMap.get(fullName);
-        if (eventImpl == null) {
+        if (subscriptions.renewAttributeEvent(deviceName, attribute.getName(), fullName) == null) {
             // special case for forwarded attribute, subscribe to root attribute
-            if (attribute.getBehavior() instanceof ForwardedAttribute) {
-                final ForwardedAttribute fwdAttr = (ForwardedAttribute) attribute.getBehavior();
+            final ForwardedAttribute fwdAttr = attribute.getBehavior() instanceof ForwardedAttribute
+                    ? (ForwardedAttribute) attribute.getBehavior() : null;
+            if (fwdAttr != null) {
                 fwdAttr.subscribe(eventType);
             }
-            // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(attribute, eventType, idlVersion, fullName);
-            eventImplMap.put(fullName, eventImpl);
-        } else {
-            eventImpl.updateSubscribeTime();
+            // If not already manage, create EventImpl object and add it to the registry
+            final EventImpl newEvent = new EventImpl(attribute, eventType, idlVersion, fullName);
+            final EventImpl registered = subscriptions.addAttributeEvent(deviceName, attribute.getName(), newEvent);
+            if (registered != newEvent && fwdAttr != null) {
+                // subscribed concurrently: the root attribute is released once, when the registered event expires
+                fwdAttr.unsubscribe(eventType);
+            }
         }
         logger.debug("starting event {}", fullName);
-        return buildConnectionParameters(fullName);
+        return buildConnectionParameters(deviceName, fullName);
     }
 
     /**
@@ -389,32 +598,29 @@ public final class EventManager {
         xlogger.entry();
         // check if event is already subscribed
         final String fullName = EventUtilities.buildDeviceEventName(deviceName, EventType.INTERFACE_CHANGE_EVENT);
-        EventImpl eventImpl = eventImplMap.get(fullName);
-        if (eventImpl == null) {
-            // If not already manage, create EventImpl object and add it to the map
-            eventImpl = new EventImpl(DeviceImpl.SERVER_VERSION, fullName);
-            eventImplMap.put(fullName, eventImpl);
-        } else {
-            eventImpl.updateSubscribeTime();
+        if (subscriptions.renewInterfaceChangeEvent(deviceName) == null) {
+            // If not already manage, create EventImpl object and add it to the registry
+            subscriptions.addInterfaceChangeEvent(deviceName, new EventImpl(DeviceImpl.SERVER_VERSION, fullName));
         }
 
-        return buildConnectionParameters(fullName);
+        return buildConnectionParameters(deviceName, fullName);
     }
 
-    private DevVarLongStringArray buildConnectionParameters(final String fullName) {
+    private DevVarLongStringArray buildConnectionParameters(final String deviceName, final String fullName) {
         // Build the connection parameters object
         final DevVarLongStringArray longStringArray = new DevVarLongStringArray();
         longStringArray.lvalue = new int[]{EventConstants.TANGO_RELEASE, DeviceImpl.SERVER_VERSION, clientHWN, 0, 0,
                 EventConstants.ZMQ_RELEASE};
-        longStringArray.svalue = getEndpoints();
+        // the client connects to the shard of the device
+        longStringArray.svalue = getEndpoints(getEventShard(deviceName));
         logger.debug("event registered for {}", fullName);
         return longStringArray;
     }
 
-    private String[] getEndpoints() {
+    private String[] getEndpoints(final EventShard shard) {
         return Observable.zip(
                     Observable.fromIterable(heartbeatEndpoints.keySet()),
-                    Observable.fromIterable(eventEndpoints.keySet()),
+                    Observable.fromIterable(shard.getEndpoints().keySet()),
                     Observable::just
                 )
                 .flatMap(stringObservable -> stringObservable)
@@ -432,18 +638,153 @@ public final class EventManager {
     public void pushAttributeErrorEvent(final String deviceName, final String attributeName, final DevFailed devFailed)
             throws DevFailed {
         xlogger.entry();
-        for (final EventType eventType : EventType.values()) {
-            final String fullName = EventUtilities.buildEventName(deviceName, attributeName, eventType);
-            final EventImpl eventImpl = getEventImpl(fullName);
-            if (eventImpl != null) {
-                for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+        final EventShard shard = getEventShard(deviceName);
+        for (final EventImpl eventImpl : subscriptions.getAttributeEvents(deviceName, attributeName)) {
+            if (!accepts(eventImpl, ALL_EVENT_TYPES, true) || !isSendEvent(eventImpl, devFailed)) {
+                continue;
+            }
+            if (shard.getPublisher() == null) {
+                for (ZMQ.Socket eventSocket : shard.getSockets()) {
                     eventImpl.pushDevFailedEvent(devFailed, eventSocket);
                 }
+            } else {
+                if (!shard.getPublisher().publish(() -> sendDevFailedEvent(shard, eventImpl, devFailed))) {
+                    eventImpl.getMetrics().recordDropped();
+                }
             }
         }
         xlogger.exit();
     }
 
+    private void pushAttributeValueEvent(final String deviceName, final String attributeName, final int typeMask) {
+        final EventImpl[] registered = subscriptions.getAttributeEvents(deviceName, attributeName);
+        EncodedAttributeValue value = null;
+        EventShard shard = null;
+        EventImpl[] toPublish = null;
+        int toPublishNr = 0;
+        for (final EventImpl eventImpl : registered) {
+            if (!accepts(eventImpl, typeMask, false)) {
+                continue;
+            }
+            if (value == null) {
+                // all events of a push share the same value, encoded at most once per IDL version
+                value = EncodedAttributeValue.of(eventImpl.getAttribute());
+                shard = getEventShard(deviceName);
+            }
+            // the criteria are checked on the pushing thread, against the value of this push
+            if (!isSendEvent(eventImpl, null)) {
+                continue;
+            }
+            if (shard.getPublisher() == null) {
+                sendAttributeValueEvent(shard, eventImpl, value, getMinEventInterval(value.getAttribute()),
+                        System.nanoTime());
+            } else {
+                if (toPublish == null) {
+                    toPublish = new EventImpl[registered.length];
+                }
+                toPublish[toPublishNr++] = eventImpl;
+            }
+        }
+        if (toPublishNr > 0) {
+            final EventShard publishShard = shard;
+            final EventImpl[] eventImpls = toPublish;
+            final int eventNr = toPublishNr;
+            final EncodedAttributeValue publishedValue = value;
+            if (!shard.getPublisher().publish(() -> sendAttributeValueEvent(publishShard, eventImpls, eventNr,
+                    publishedValue))) {
+                for (int i = 0; i < eventNr; i++) {
+                    eventImpls[i].getMetrics().recordDropped();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param eventImpl the event
+     * @param error     the error to send, null for a value
+     * @return true if the event criteria are met. Errors of the criteria evaluation are logged, the event is then not
+     * sent
+     */
+    private boolean isSendEvent(final EventImpl eventImpl, final DevFailed error) {
+        try {
+            return eventImpl.isSendEvent(error);
+        } catch (final DevFailed devFailed) {
+            logger.error("Failed to check event criteria of {}", eventImpl.getFullName());
+            DevFailedUtils.logDevFailed(devFailed, logger);
+            return false;
+        }
+    }
+
+    private void sendAttributeValueEvent(final EventShard shard, final EventImpl[] eventImpls, final int eventNr,
+                                         final EncodedAttributeValue value) {
+        final long minInterval = getMinEventInterval(value.getAttribute());
+        final long now = System.nanoTime();
+        for (int i = 0; i < eventNr; i++) {
+            sendAttributeValueEvent(shard, eventImpls[i], value, minInterval, now);
+        }
+    }
+
+    private void sendAttributeValueEvent(final EventShard shard, final EventImpl eventImpl,
+                                         final EncodedAttributeValue value, final long minInterval, final long now) {
+        if (minInterval > 0 && !eventImpl.getRateLimiter().acquire(value, minInterval, now)) {
+            // too many events, the latest value will be sent at the end of the period
+            final long delay = eventImpl.getRateLimiter().scheduleFlush(minInterval, now);
+            if (delay >= 0) {
+                eventFlushExecutor.schedule(() -> flushAttributeValueEvent(shard, eventImpl), delay,
+                        TimeUnit.NANOSECONDS);
+            } else {
+                // the pending value of the period has been replaced
+                eventImpl.getMetrics().recordDropped();
+            }
+        } else {
+            sendAttributeValueEvent(shard, eventImpl, value);
+        }
+    }
+
+    private void flushAttributeValueEvent(final EventShard shard, final EventImpl eventImpl) {
+        final EncodedAttributeValue value = eventImpl.getRateLimiter().flush(System.nanoTime());
+        if (value != null) {
+            if (shard.getPublisher() == null) {
+                sendAttributeValueEvent(shard, eventImpl, value);
+            } else if (!shard.getPublisher().publish(() -> sendAttributeValueEvent(shard, eventImpl, value))) {
+                eventImpl.getMetrics().recordDropped();
+            }
+        }
+    }
+
+    private void sendAttributeValueEvent(final EventShard shard, final EventImpl eventImpl,
+                                         final EncodedAttributeValue value) {
+        for (Map.Entry<String, ZMQ.Socket> eventSocket : shard.getEndpoints().entrySet()) {
+            try {
+                logger.debug("sending event to {}", eventSocket.getKey());
+                eventImpl.pushAttributeValueEvent(eventSocket.getValue(), value);
+            } catch (DevFailed devFailed) {
+                logger.error("Failed to pushAttributeValueEvent");
+                DevFailedUtils.logDevFailed(devFailed, logger);
+            }
+        }
+    }
+
+    /**
+     * @param attribute the attribute
+     * @return the minimum interval between two value events of the attribute, in nanoseconds, 0 if not limited
+     */
+    private static long getMinEventInterval(final AttributeImpl attribute) {
+        final double maxRate = attribute.getEventMaxRate();
+        return maxRate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxRate) : 0;
+    }
+
+    private void sendDevFailedEvent(final EventShard shard, final EventImpl eventImpl, final DevFailed error) {
+        for (ZMQ.Socket eventSocket : shard.getSockets()) {
+            try {
+                eventImpl.pushDevFailedEvent(error, eventSocket);
+            } catch (DevFailed devFailed) {
+                logger.error("Failed to pushDevFailedEvent");
+                DevFailedUtils.logDevFailed(devFailed, logger);
+            }
+        }
+    }
+
     /**
      * Check if the event must be sent and fire it if must be done
      *
@@ -452,22 +793,10 @@ public final class EventManager {
      */
     public void pushAttributeValueEvent(final String deviceName, final String attributeName) throws DevFailed {
         xlogger.entry();
-        for (final EventType eventType : EventType.getEventTypeListForAttrPolling()) {
-            forEachIdlVersionDo(deviceName, attributeName, eventType, pushAttributeValueEvent);
-        }
+        pushAttributeValueEvent(deviceName, attributeName, ATTR_POLLING_EVENT_TYPES);
         xlogger.exit();
     }
 
-    private void forEachIdlVersionDo(String deviceName, String attributeName, EventType eventType, java.util.function.Function<EventImpl, Void> action) throws DevFailed {
-        for (int idl = MINIMUM_IDL_VERSION; idl <= DeviceImpl.SERVER_VERSION; idl++) {
-            final String fullName = EventUtilities.buildEventName(deviceName, attributeName, eventType, idl);
-            final EventImpl eventImpl = getEventImpl(fullName);
-            if (eventImpl != null) {
-                action.apply(eventImpl);
-            }
-        }
-    }
-
     /**
      * fire event
      *
@@ -479,7 +808,7 @@ public final class EventManager {
     public void pushAttributeValueEvent(final String deviceName, final String attributeName, final EventType eventType)
             throws DevFailed {
         xlogger.entry();
-        forEachIdlVersionDo(deviceName, attributeName, eventType, pushAttributeValueEvent);
+        pushAttributeValueEvent(deviceName, attributeName, toMask(eventType));
         xlogger.exit();
     }
 
@@ -494,10 +823,11 @@ public final class EventManager {
     public void pushAttributeDataReadyEvent(final String deviceName, final String attributeName, final int counter)
             throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildEventName(deviceName, attributeName, EventType.DATA_READY_EVENT);
-        final EventImpl eventImpl = getEventImpl(fullName);
-        if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+        for (final EventImpl eventImpl : subscriptions.getAttributeEvents(deviceName, attributeName)) {
+            if (!accepts(eventImpl, toMask(EventType.DATA_READY_EVENT), true)) {
+                continue;
+            }
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushAttributeDataReadyEvent(counter, eventSocket);
             }
         }
@@ -506,8 +836,11 @@ public final class EventManager {
 
     public void pushAttributeConfigEvent(final String deviceName, final String attributeName) throws DevFailed {
         xlogger.entry();
-        forEachIdlVersionDo(deviceName, attributeName, EventType.ATT_CONF_EVENT, (eventImpl -> {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+        for (final EventImpl eventImpl : subscriptions.getAttributeEvents(deviceName, attributeName)) {
+            if (!accepts(eventImpl, toMask(EventType.ATT_CONF_EVENT), false)) {
+                continue;
+            }
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 try {
                     eventImpl.pushAttributeConfigEvent(eventSocket);
                 } catch (DevFailed devFailed) {
@@ -515,18 +848,16 @@ public final class EventManager {
                     DevFailedUtils.logDevFailed(devFailed, logger);
                 }
             }
-            return null;
-        }));
+        }
         xlogger.exit();
     }
 
     public void pushInterfaceChangedEvent(final String deviceName, final DevIntrChange deviceInterface)
             throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildDeviceEventName(deviceName, EventType.INTERFACE_CHANGE_EVENT);
-        final EventImpl eventImpl = getEventImpl(fullName);
+        final EventImpl eventImpl = subscriptions.getInterfaceChangeEvent(deviceName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushInterfaceChangeEvent(deviceInterface, eventSocket);
             }
         }
@@ -535,10 +866,9 @@ public final class EventManager {
 
     public void pushPipeEvent(final String deviceName, final String pipeName, final PipeValue blob) throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildPipeEventName(deviceName, pipeName);
-        final EventImpl eventImpl = getEventImpl(fullName);
+        final EventImpl eventImpl = subscriptions.getPipeEvent(deviceName, pipeName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushPipeEvent(
                         new DevPipeData(pipeName, TangoIDLUtil.getTime(blob.getTime()), blob.getValue()
                                 .getDevPipeBlobObject()), eventSocket);
@@ -550,10 +880,9 @@ public final class EventManager {
     public void pushPipeEvent(final String deviceName, final String pipeName, final DevFailed devFailed)
             throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildPipeEventName(deviceName, pipeName);
-        final EventImpl eventImpl = getEventImpl(fullName);
+        final EventImpl eventImpl = subscriptions.getPipeEvent(deviceName, pipeName);
         if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushDevFailedEvent(devFailed, eventSocket);
             }
         }
@@ -563,10 +892,11 @@ public final class EventManager {
 
     public void pushAttributeValueIDL5Event(final String deviceName, final String attributeName, AttributeValue_5 value, EventType evtType) throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildEventName(deviceName, attributeName, evtType);
-        final EventImpl eventImpl = getEventImpl(fullName);
-        if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+        for (final EventImpl eventImpl : subscriptions.getAttributeEvents(deviceName, attributeName)) {
+            if (!accepts(eventImpl, toMask(evtType), true)) {
+                continue;
+            }
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushAttributeIDL5Event(value, eventSocket);
             }
         }
@@ -575,10 +905,11 @@ public final class EventManager {
 
     public void pushAttributeConfigIDL5Event(final String deviceName, final String attributeName, AttributeConfig_5 config) throws DevFailed {
         xlogger.entry();
-        final String fullName = EventUtilities.buildEventName(deviceName, attributeName, EventType.ATT_CONF_EVENT);
-        final EventImpl eventImpl = getEventImpl(fullName);
-        if (eventImpl != null) {
-            for (ZMQ.Socket eventSocket : eventEndpoints.values()) {
+        for (final EventImpl eventImpl : subscriptions.getAttributeEvents(deviceName, attributeName)) {
+            if (!accepts(eventImpl, toMask(EventType.ATT_CONF_EVENT), true)) {
+                continue;
+            }
+            for (ZMQ.Socket eventSocket : getEventShard(deviceName).getSockets()) {
                 eventImpl.pushAttributeConfigIDL5Event(config, eventSocket);
             }
         }
@@ -604,7 +935,7 @@ public final class EventManager {
         @Override
         public void run() {
             xlogger.entry();
-            if (eventImplMap.isEmpty()) return;
+            if (subscriptions.isEmpty()) return;
             for (Map.Entry<String, ZMQ.Socket> heartbeatSocket : heartbeatEndpoints.entrySet()) {
                 // Fire heartbeat
                 try {
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of the events of a topic. Updated by the sending threads without locking.
+ * <ul>
+ * <li>sent: events written to an event socket. ZMQ drops messages silently on a publisher socket when the high water
+ * mark is reached, so they are counted as sent</li>
+ * <li>dropped: events never written, because the publisher queue was full or because a newer value replaced them
+ * while the event rate was limited</li>
+ * <li>failed: events whose marshalling or sending failed</li>
+ * </ul>
+ */
+final class EventMetrics {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LatencyHistogram marshalLatency = new LatencyHistogram();
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+
+    /**
+     * @param size  the size of the data frame, in bytes
+     * @param nanos the sending duration, in nanoseconds
+     */
+    void recordSent(final long size, final long nanos) {
+        sent.increment();
+        bytes.add(size);
+        sendLatency.record(nanos);
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    /**
+     * @param nanos the marshalling duration, in nanoseconds
+     */
+    void recordMarshal(final long nanos) {
+        marshalLatency.record(nanos);
+    }
+
+    /**
+     * Add the counters of another topic to this one
+     *
+     * @param other the other metrics
+     */
+    void add(final EventMetrics other) {
+        sent.add(other.sent.sum());
+        dropped.add(other.dropped.sum());
+        failed.add(other.failed.sum());
+        bytes.add(other.bytes.sum());
+        marshalLatency.add(other.marshalLatency);
+        sendLatency.add(other.sendLatency);
+    }
+
+    long getSentNr() {
+        return sent.sum();
+    }
+
+    long getDroppedNr() {
+        return dropped.sum();
+    }
+
+    long getFailedNr() {
+        return failed.sum();
+    }
+
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    LatencyHistogram getMarshalLatency() {
+        return marshalLatency;
+    }
+
+    LatencyHistogram getSendLatency() {
+        return sendLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "sent=" + sent.sum() + ", dropped=" + dropped.sum() + ", failed=" + failed.sum() + ", bytes="
+                + bytes.sum() + ", marshal_us=" + toString(marshalLatency) + ", send_us=" + toString(sendLatency);
+    }
+
+    private static String toString(final LatencyHistogram histogram) {
+        return "[avg=" + TimeUnit.NANOSECONDS.toMicros(histogram.getAverage()) + ", p50="
+                + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(0.5)) + ", p99="
+                + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(0.99)) + ", max="
+                + TimeUnit.NANOSECONDS.toMicros(histogram.getMax()) + "]";
+    }
+}
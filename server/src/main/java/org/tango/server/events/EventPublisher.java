@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue and dedicated thread used to send events outside of the caller thread. The caller (polling thread or
+ * device code holding the attribute lock) only pays for the enqueueing. Tasks are run in submission order, so the
+ * events of an attribute are sent in the order they were pushed. When the queue is full, the event is dropped and
+ * counted.
+ */
+final class EventPublisher {
+    /**
+     * Maximum time to wait in {@link #close()} for the event being sent
+     */
+    private static final long JOIN_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+    private static final Runnable STOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
+    private final ThreadFactory threadFactory;
+    private final int capacity;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private volatile Worker worker;
+
+    /**
+     * Ctr
+     *
+     * @param capacity the maximum number of events waiting to be sent
+     */
+    EventPublisher(final int capacity) {
+        this(capacity, "Event-Publisher-%d");
+    }
+
+    /**
+     * Ctr
+     *
+     * @param capacity   the maximum number of events waiting to be sent
+     * @param nameFormat the name format of the publisher thread
+     */
+    EventPublisher(final int capacity, final String nameFormat) {
+        this.capacity = capacity;
+        threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(nameFormat)
+                .setDaemon(true)
+                .build();
+    }
+
+    /**
+     * Enqueue an event. Never blocks: if the queue is full the event is dropped.
+     *
+     * @param task the sending of the event
+     * @return false if the event has been dropped
+     */
+    boolean publish(final Runnable task) {
+        final boolean isQueued = start().queue.offer(task);
+        if (!isQueued) {
+            droppedEvents.incrementAndGet();
+            logger.debug("event queue is full, event dropped");
+        }
+        return isQueued;
+    }
+
+    private Worker start() {
+        Worker current = worker;
+        if (current == null) {
+            synchronized (this) {
+                current = worker;
+                if (current == null) {
+                    current = new Worker();
+                    worker = current;
+                    current.thread.start();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stop the publisher thread and discard pending events. The event being sent, if any, is waited for, so that a
+     * restarted publisher never sends at the same time as the previous thread. The thread is restarted on next
+     * {@link #publish(Runnable)}
+     */
+    synchronized void close() {
+        final Worker current = worker;
+        if (current == null) {
+            return;
+        }
+        worker = null;
+        current.stop();
+        if (current.thread != Thread.currentThread()) {
+            try {
+                current.thread.join(JOIN_TIMEOUT);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (current.thread.isAlive()) {
+                logger.warn("{} is still sending an event", current.thread.getName());
+            }
+        }
+    }
+
+    /**
+     * @return the number of events waiting to be sent
+     */
+    int getQueueDepth() {
+        final Worker current = worker;
+        return current == null ? 0 : current.queue.size();
+    }
+
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return the number of events sent by the publisher thread
+     */
+    long getPublishedEvents() {
+        return publishedEvents.get();
+    }
+
+    /**
+     * A publisher thread with its own queue, so that a stopped thread never takes the events of the next one
+     */
+    private final class Worker implements Runnable {
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<Runnable>(capacity);
+        private final Thread thread = threadFactory.newThread(this);
+        private volatile boolean isStopped;
+
+        private void stop() {
+            isStopped = true;
+            queue.clear();
+            // wakes up the thread if it is waiting, otherwise it sees the flag after its current event
+            queue.offer(STOP);
+        }
+
+        @Override
+        public void run() {
+            while (!isStopped) {
+                final Runnable task;
+                try {
+                    task = queue.take();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (isStopped) {
+                    break;
+                }
+                try {
+                    task.run();
+                    publishedEvents.incrementAndGet();
+                } catch (final RuntimeException e) {
+                    logger.error("failed to publish event", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+/**
+ * Limits the rate of the value events of a subscription. The first value of a period is sent immediately, the
+ * following ones replace each other and only the latest one is sent when the period is over.
+ */
+final class EventRateLimiter {
+
+    private long lastSendTime;
+    private boolean hasSent = false;
+    private boolean isFlushScheduled = false;
+    private EncodedAttributeValue pending;
+
+    /**
+     * Check if a value may be sent now. If not, the value replaces the pending one.
+     *
+     * @param value       the value to send
+     * @param minInterval the minimum interval between two events, in nanoseconds
+     * @param now         the current time, from {@link System#nanoTime()}
+     * @return true if the value must be sent now
+     */
+    synchronized boolean acquire(final EncodedAttributeValue value, final long minInterval, final long now) {
+        if (!isFlushScheduled && (!hasSent || now - lastSendTime >= minInterval)) {
+            markSent(now);
+            return true;
+        }
+        pending = value;
+        return false;
+    }
+
+    /**
+     * Request a flush of the pending value at the end of the current period
+     *
+     * @param minInterval the minimum interval between two events, in nanoseconds
+     * @param now         the current time, from {@link System#nanoTime()}
+     * @return the delay before the flush, in nanoseconds, or -1 if a flush is already scheduled
+     */
+    synchronized long scheduleFlush(final long minInterval, final long now) {
+        if (isFlushScheduled) {
+            return -1;
+        }
+        isFlushScheduled = true;
+        return Math.max(0, lastSendTime + minInterval - now);
+    }
+
+    /**
+     * Take the pending value, that must then be sent. A new period starts.
+     *
+     * @param now the current time, from {@link System#nanoTime()}
+     * @return the latest value of the period, null if none
+     */
+    synchronized EncodedAttributeValue flush(final long now) {
+        isFlushScheduled = false;
+        final EncodedAttributeValue value = pending;
+        pending = null;
+        if (value != null) {
+            markSent(now);
+        }
+        return value;
+    }
+
+    private void markSent(final long now) {
+        lastSendTime = now;
+        hasSent = true;
+    }
+}
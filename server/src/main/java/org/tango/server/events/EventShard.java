@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.zeromq.ZMQ;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * An event socket, bound on one endpoint per network address, and its optional publisher thread. The events of a
+ * device are always sent through the same shard, so they keep their order.
+ */
+final class EventShard {
+
+    private final Map<String, ZMQ.Socket> endpoints;
+    private final EventPublisher publisher;
+
+    /**
+     * Ctr
+     *
+     * @param endpoints the bound endpoints and their socket
+     * @param publisher the publisher thread, null if events are sent in the caller thread
+     */
+    EventShard(final Map<String, ZMQ.Socket> endpoints, final EventPublisher publisher) {
+        this.endpoints = endpoints;
+        this.publisher = publisher;
+    }
+
+    /**
+     * @return the bound endpoints and their socket
+     */
+    Map<String, ZMQ.Socket> getEndpoints() {
+        return endpoints;
+    }
+
+    Collection<ZMQ.Socket> getSockets() {
+        return endpoints.values();
+    }
+
+    /**
+     * @return the publisher thread, null if events are sent in the caller thread
+     */
+    EventPublisher getPublisher() {
+        return publisher;
+    }
+
+    void close() {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+}
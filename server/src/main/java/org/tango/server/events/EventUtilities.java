@@ -31,10 +31,13 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
 import org.tango.server.idl.TangoIDLAttributeUtil;
 import org.tango.utils.TangoUtil;
 import org.zeromq.ZMQ;
 
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Locale;
 import java.util.StringTokenizer;
@@ -55,6 +58,8 @@ class EventUtilities {
     private static final String VERSION = "version";
     private static final XLogger XLOGGER = XLoggerFactory.getXLogger(EventUtilities.class);
     private static final Logger LOGGER = LoggerFactory.getLogger(EventUtilities.class);
+    // name, quality, time, dimensions... of an attribute value
+    private static final int VALUE_OVERHEAD = 512;
     private static double zmqVersion = -1.0;
 
     static String buildEventName(final String deviceName, final String attributeName, final EventType eventType,
@@ -106,58 +111,31 @@ class EventUtilities {
     }
 
     /**
-     * Add 8 bytes at beginning for C++ alignment
-     *
-     * @param data buffer to be aligned
-     * @return buffer after c++ alignment.
-     */
-    static byte[] cppAlignmentAdd8(final byte[] data) {
-        XLOGGER.entry();
-        final byte[] buffer = new byte[data.length + 8];
-        buffer[0] = (byte) 0xc0;
-        buffer[1] = (byte) 0xde;
-        buffer[2] = (byte) 0xc0;
-        buffer[3] = (byte) 0xde;
-        buffer[4] = (byte) 0xc0;
-        buffer[5] = (byte) 0xde;
-        buffer[6] = (byte) 0xc0;
-        buffer[7] = (byte) 0xde;
-        System.arraycopy(data, 0, buffer, 8, data.length);
-        XLOGGER.exit();
-        return buffer;
-    }
-
-    /**
-     * Add 4 bytes at beginning for C++ alignment
+     * Marshall the attribute with attribute Value
      *
-     * @param data buffer to be aligned
-     * @return buffer after c++ alignment.
+     * @return result of the marshall action
+     * @throws fr.esrf.Tango.DevFailed if marshall action failed
      */
-    static byte[] cppAlignment(final byte[] data) {
-        XLOGGER.entry();
-        final byte[] buffer = new byte[data.length + 4];
-        buffer[0] = (byte) 0xc0;
-        buffer[1] = (byte) 0xde;
-        buffer[2] = (byte) 0xc0;
-        buffer[3] = (byte) 0xde;
-        System.arraycopy(data, 0, buffer, 4, data.length);
-        XLOGGER.exit();
-        return buffer;
+    static ByteBuffer marshallIDL5(final AttributeValue_5 attributeValue) throws DevFailed {
+        return marshallIDL5(attributeValue, -1);
     }
 
     /**
      * Marshall the attribute with attribute Value
      *
+     * @param attributeValue the value to marshall
+     * @param sizeHint       the expected size of the marshalled value, or -1 if unknown
      * @return result of the marshall action
      * @throws fr.esrf.Tango.DevFailed if marshall action failed
      */
-    static byte[] marshallIDL5(final AttributeValue_5 attributeValue) throws DevFailed {
+    private static ByteBuffer marshallIDL5(final AttributeValue_5 attributeValue, final int sizeHint)
+            throws DevFailed {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE, sizeHint);
         try {
             AttributeValue_5Helper.write(os, attributeValue);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -169,13 +147,26 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws fr.esrf.Tango.DevFailed if marshall action failed
      */
-    static byte[] marshallIDL4(final AttributeValue_4 attributeValue) throws DevFailed {
+    static ByteBuffer marshallIDL4(final AttributeValue_4 attributeValue) throws DevFailed {
+        return marshallIDL4(attributeValue, -1);
+    }
+
+    /**
+     * Marshall the attribute with attribute Value
+     *
+     * @param attributeValue the value to marshall
+     * @param sizeHint       the expected size of the marshalled value, or -1 if unknown
+     * @return result of the marshall action
+     * @throws fr.esrf.Tango.DevFailed if marshall action failed
+     */
+    private static ByteBuffer marshallIDL4(final AttributeValue_4 attributeValue, final int sizeHint)
+            throws DevFailed {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE, sizeHint);
         try {
             AttributeValue_4Helper.write(os, attributeValue);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -188,11 +179,25 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws fr.esrf.Tango.DevFailed if marshall action failed
      */
-    static byte[] marshallIDL5(final AttributeImpl attribute) throws DevFailed {
+    static ByteBuffer marshallIDL5(final AttributeImpl attribute) throws DevFailed {
+        return marshallIDL5(attribute, attribute.getReadValue(), attribute.getWriteValue());
+    }
+
+    /**
+     * Marshall the attribute with the given read and write values
+     *
+     * @param attribute  attribute to marshall
+     * @param readValue  the read value
+     * @param writeValue the write value, may be null
+     * @return result of the marshall action
+     * @throws fr.esrf.Tango.DevFailed if marshall action failed
+     */
+    static ByteBuffer marshallIDL5(final AttributeImpl attribute, final AttributeValue readValue,
+                                   final AttributeValue writeValue) throws DevFailed {
         XLOGGER.entry();
-        final AttributeValue_5 attributeValue = TangoIDLAttributeUtil.toAttributeValue5(attribute,
-                attribute.getReadValue(), attribute.getWriteValue());
-        return marshallIDL5(attributeValue);
+        final AttributeValue_5 attributeValue = TangoIDLAttributeUtil.toAttributeValue5(attribute, readValue,
+                writeValue);
+        return marshallIDL5(attributeValue, sizeHint(readValue) + sizeHint(writeValue));
     }
 
     /**
@@ -202,11 +207,62 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws fr.esrf.Tango.DevFailed if marshall action failed
      */
-    static byte[] marshallIDL4(final AttributeImpl attribute) throws DevFailed {
+    static ByteBuffer marshallIDL4(final AttributeImpl attribute) throws DevFailed {
+        return marshallIDL4(attribute, attribute.getReadValue(), attribute.getWriteValue());
+    }
+
+    /**
+     * Marshall the attribute with the given read and write values
+     *
+     * @param attribute  attribute to marshall
+     * @param readValue  the read value
+     * @param writeValue the write value, may be null
+     * @return result of the marshall action
+     * @throws fr.esrf.Tango.DevFailed if marshall action failed
+     */
+    static ByteBuffer marshallIDL4(final AttributeImpl attribute, final AttributeValue readValue,
+                                   final AttributeValue writeValue) throws DevFailed {
         XLOGGER.entry();
-        final AttributeValue_4 attributeValue = TangoIDLAttributeUtil.toAttributeValue4(attribute,
-                attribute.getReadValue(), attribute.getWriteValue());
-        return marshallIDL4(attributeValue);
+        final AttributeValue_4 attributeValue = TangoIDLAttributeUtil.toAttributeValue4(attribute, readValue,
+                writeValue);
+        return marshallIDL4(attributeValue, sizeHint(readValue) + sizeHint(writeValue));
+    }
+
+    /**
+     * Estimate the marshalled size of a value, so that big spectrums and images are written in a buffer of the right
+     * size instead of growing it several times.
+     *
+     * @param value the value, may be null
+     * @return the estimated size, 0 if the value is not a numerical array
+     */
+    private static int sizeHint(final AttributeValue value) {
+        if (value == null) {
+            return 0;
+        }
+        return (int) Math.min(arraySize(value.getValue()) + VALUE_OVERHEAD, Integer.MAX_VALUE - VALUE_OVERHEAD);
+    }
+
+    private static long arraySize(final Object array) {
+        if (array == null || !array.getClass().isArray()) {
+            return 0;
+        }
+        final Class<?> componentType = array.getClass().getComponentType();
+        final int length = Array.getLength(array);
+        long size = 0;
+        if (componentType.isArray()) {
+            for (int i = 0; i < length; i++) {
+                size += arraySize(Array.get(array, i));
+            }
+        } else if (componentType == double.class || componentType == long.class) {
+            size = 8L * length;
+        } else if (componentType == int.class || componentType == float.class) {
+            size = 4L * length;
+        } else if (componentType == short.class || componentType == char.class) {
+            size = 2L * length;
+        } else if (componentType == byte.class || componentType == boolean.class) {
+            size = length;
+        }
+        return size;
     }
 
     /**
@@ -216,13 +272,13 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws DevFailed
      */
-    static byte[] marshall(final AttDataReady dataReady) throws DevFailed {
+    static ByteBuffer marshall(final AttDataReady dataReady) throws DevFailed {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE);
         try {
             AttDataReadyHelper.write(os, dataReady);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -234,14 +290,14 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws DevFailed if marshall action failed
      */
-    static byte[] marshallIDL4Config(final AttributeImpl attribute) throws DevFailed {
+    static ByteBuffer marshallIDL4Config(final AttributeImpl attribute) throws DevFailed {
         XLOGGER.entry();
         final AttributeConfig_3 config = TangoIDLAttributeUtil.toAttributeConfig3(attribute);
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE);
         try {
             AttributeConfig_3Helper.write(os, config);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -253,7 +309,7 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws DevFailed if marshall action failed
      */
-    static byte[] marshallIDL5Config(final AttributeImpl attribute) throws DevFailed {
+    static ByteBuffer marshallIDL5Config(final AttributeImpl attribute) throws DevFailed {
         return marshallIDL5Config(TangoIDLAttributeUtil.toAttributeConfig5(attribute));
     }
 
@@ -263,14 +319,14 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws DevFailed if marshall action failed
      */
-    static byte[] marshallIDL5Config(AttributeConfig_5 config) {
+    static ByteBuffer marshallIDL5Config(AttributeConfig_5 config) {
         XLOGGER.entry();
         //  System.out.println("config "+ ToStringBuilder.reflectionToString(config, ToStringStyle.MULTI_LINE_STYLE));
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE);
         try {
             AttributeConfig_5Helper.write(os, config);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -283,13 +339,13 @@ class EventUtilities {
      * @return result of the marshall action
      * @throws DevFailed if marshall action failed
      */
-    static byte[] marshall(final DevFailed devFailed) throws DevFailed {
+    static ByteBuffer marshall(final DevFailed devFailed) throws DevFailed {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE);
         try {
             DevErrorListHelper.write(os, devFailed.errors);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -318,26 +374,26 @@ class EventUtilities {
         }
     }
 
-    static byte[] marshall(final DevIntrChange deviceInterface) {
+    static ByteBuffer marshall(final DevIntrChange deviceInterface) {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.HEADER_SIZE);
         try {
             DevIntrChangeHelper.write(os, deviceInterface);
             XLOGGER.exit();
-            return cppAlignment(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
 
     }
 
-    static byte[] marshall(final DevPipeData pipeData) {
+    static ByteBuffer marshall(final DevPipeData pipeData) {
         XLOGGER.entry();
-        final CDROutputStream os = new CDROutputStream();
+        final EventCDROutputStream os = new EventCDROutputStream(EventCDROutputStream.PIPE_HEADER_SIZE);
         try {
             DevPipeDataHelper.write(os, pipeData);
             XLOGGER.exit();
-            return cppAlignmentAdd8(os.getBufferCopy());
+            return os.toFrame();
         } finally {
             os.close();
         }
@@ -378,13 +434,13 @@ class EventUtilities {
         return zmqVersion;
     }
 
-    static void sendContextData(final ZMQ.Socket eventSocket, final String fullName, int counter) throws DevFailed {
-        sendContextData(eventSocket, fullName, counter, false);
+    static void sendContextData(final ZMQ.Socket eventSocket, final byte[] topic, int counter) throws DevFailed {
+        sendContextData(eventSocket, topic, counter, false);
     }
 
-    static void sendContextData(final ZMQ.Socket eventSocket, final String fullName, int counter, boolean isException) throws DevFailed {
+    static void sendContextData(final ZMQ.Socket eventSocket, final byte[] topic, int counter, boolean isException) throws DevFailed {
         XLOGGER.entry();
-        eventSocket.sendMore(fullName);
+        eventSocket.send(topic, ZMQ.SNDMORE);
         eventSocket.send(LITTLE_ENDIAN, ZMQ.SNDMORE);
         eventSocket.send(EventUtilities.marshall(counter, isException), ZMQ.SNDMORE);
         XLOGGER.exit();
@@ -403,24 +459,27 @@ class EventUtilities {
      * Warning. See http://zeromq.org/area:faq. "ZeroMQ sockets are not thread-safe.<br>
      * The short version is that sockets should not be shared between threads. We recommend creating a dedicated socket for each thread. <br>
      * For those situations where a dedicated socket per thread is infeasible, a socket may be shared if and only if each thread executes a full memory barrier before accessing the socket.
-     * Most languages support a Mutex or Spinlock which will execute the full memory barrier on your behalf."
+     * Most languages support a Mutex or Spinlock which will execute the full memory barrier on your behalf."<br>
+     * The data is not copied, it must not be modified afterwards. It may be sent to several sockets.
      *
      * @param eventSocket
-     * @param fullName
+     * @param topic       the event name, encoded with {@link ZMQ#CHARSET}
      * @param counter
      * @param isException
      * @param data
      * @throws DevFailed
      */
-    static void sendToSocket(final ZMQ.Socket eventSocket, final String fullName, int counter, boolean isException, byte[] data) throws DevFailed {
+    static void sendToSocket(final ZMQ.Socket eventSocket, final byte[] topic, int counter, boolean isException, ByteBuffer data) throws DevFailed {
         XLOGGER.entry();
-        sendContextData(eventSocket, fullName, counter, isException);
-        eventSocket.send(data);
-        LOGGER.debug("event sent for {}", fullName);
+        sendContextData(eventSocket, topic, counter, isException);
+        eventSocket.sendByteBuffer(data, 0);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("event sent for {}", new String(topic, ZMQ.CHARSET));
+        }
         XLOGGER.exit();
     }
 
-    static void sendToSocket(final ZMQ.Socket eventSocket, final String fullName, int counter, byte[] data) throws DevFailed {
-        sendToSocket(eventSocket, fullName, counter, false, data);
+    static void sendToSocket(final ZMQ.Socket eventSocket, final byte[] topic, int counter, ByteBuffer data) throws DevFailed {
+        sendToSocket(eventSocket, topic, counter, false, data);
     }
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations, with one bucket per power of two nanoseconds. Percentiles are the upper bound of
+ * their bucket, so they are accurate within a factor of two, which is enough to compare topics and spot outliers.
+ */
+final class LatencyHistogram {
+
+    /**
+     * the last bucket gathers everything above 2^39 ns, about 9 minutes
+     */
+    static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * @param nanos a duration, in nanoseconds
+     */
+    void record(final long nanos) {
+        final long duration = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(duration));
+        count.increment();
+        total.add(duration);
+        max.accumulate(duration);
+    }
+
+    /**
+     * Add the durations of another histogram to this one
+     *
+     * @param other the other histogram
+     */
+    void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.addAndGet(i, other.buckets.get(i));
+        }
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        max.accumulate(other.max.get());
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the average duration, in nanoseconds
+     */
+    long getAverage() {
+        final long nb = count.sum();
+        return nb == 0 ? 0 : total.sum() / nb;
+    }
+
+    /**
+     * @return the maximum duration, in nanoseconds
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds
+     */
+    long getPercentile(final double percentile) {
+        long nb = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            nb += buckets.get(i);
+        }
+        if (nb == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile * nb));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            cumulated += buckets.get(i);
+            if (cumulated >= rank) {
+                return Math.min(1L << (i + 1), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucket(final long nanos) {
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos | 1));
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.lang.reflect.Array;
+
+/**
+ * Check if a numerical value has changed according to absolute and relative change criteria. Arrays are compared on
+ * their primitive values without any conversion, and the comparison stops at the first changed element.
+ */
+final class NumberChangeDetector {
+
+    private double absolute;
+    private boolean checkAbsolute;
+    private double relative;
+    private boolean checkRelative;
+
+    /**
+     * Set the change criteria. A criterion that is not a number is not checked.
+     *
+     * @param absolute The absolute change delta
+     * @param relative The relative change delta, in percent
+     */
+    void setCriteria(final String absolute, final String relative) {
+        try {
+            this.absolute = Double.parseDouble(absolute);
+            checkAbsolute = true;
+        } catch (final NumberFormatException e) {
+            checkAbsolute = false;
+        }
+        try {
+            this.relative = Double.parseDouble(relative);
+            checkRelative = true;
+        } catch (final NumberFormatException e) {
+            checkRelative = false;
+        }
+    }
+
+    /**
+     * @param value         the new value
+     * @param previousValue the previous value
+     * @return true if the change is over one of the criteria
+     */
+    boolean hasChanged(final double value, final double previousValue) {
+        // absolute change
+        if (checkAbsolute && Math.abs(value - previousValue) >= absolute) {
+            return true;
+        }
+        // relative change
+        if (checkRelative) {
+            final double delta;
+            if (previousValue == 0) {
+                if (value == 0) {
+                    delta = 0;
+                } else {
+                    delta = 100;
+                }
+            } else {
+                delta = (value - previousValue) / previousValue * 100.0;
+            }
+            return Math.abs(delta) >= relative;
+        }
+        return false;
+    }
+
+    /**
+     * @param value         the new scalar value
+     * @param previousValue the previous scalar value
+     * @return true if the change is over one of the criteria
+     */
+    boolean hasScalarChanged(final Object value, final Object previousValue) {
+        return hasChanged(toDouble(value), toDouble(previousValue));
+    }
+
+    /**
+     * @param value         the new array value
+     * @param previousValue the previous array value
+     * @return true if the length has changed or if the change of an element is over one of the criteria
+     */
+    boolean hasArrayChanged(final Object value, final Object previousValue) {
+        final boolean hasChanged;
+        if (Array.getLength(value) != Array.getLength(previousValue)) {
+            hasChanged = true;
+        } else if (value instanceof double[] && previousValue instanceof double[]) {
+            hasChanged = hasChanged((double[]) value, (double[]) previousValue);
+        } else if (value instanceof float[] && previousValue instanceof float[]) {
+            hasChanged = hasChanged((float[]) value, (float[]) previousValue);
+        } else if (value instanceof int[] && previousValue instanceof int[]) {
+            hasChanged = hasChanged((int[]) value, (int[]) previousValue);
+        } else if (value instanceof long[] && previousValue instanceof long[]) {
+            hasChanged = hasChanged((long[]) value, (long[]) previousValue);
+        } else if (value instanceof short[] && previousValue instanceof short[]) {
+            hasChanged = hasChanged((short[]) value, (short[]) previousValue);
+        } else if (value instanceof byte[] && previousValue instanceof byte[]) {
+            hasChanged = hasChanged((byte[]) value, (byte[]) previousValue);
+        } else {
+            hasChanged = hasObjectArrayChanged(value, previousValue);
+        }
+        return hasChanged;
+    }
+
+    private boolean hasChanged(final double[] value, final double[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final float[] value, final float[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final int[] value, final int[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final long[] value, final long[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final short[] value, final short[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasChanged(final byte[] value, final byte[] previousValue) {
+        for (int i = 0; i < value.length; i++) {
+            if (hasChanged(value[i], previousValue[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasObjectArrayChanged(final Object value, final Object previousValue) {
+        final int length = Array.getLength(value);
+        for (int i = 0; i < length; i++) {
+            if (hasChanged(toDouble(Array.get(value, i)), toDouble(Array.get(previousValue, i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double toDouble(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+}
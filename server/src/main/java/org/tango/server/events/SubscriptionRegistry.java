@@ -0,0 +1,469 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tango.server.attribute.AttributeImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread safe registry of the event subscriptions, indexed by device then attribute or pipe. Subscriptions are added
+ * by the admin device and read by polling and user threads on each push, so the events of an attribute are kept in a
+ * copy on write array: a push is a lookup without building any event name.
+ * <p>
+ * Names are case insensitive. The key of a name is looked up as given first and only lower-cased on a miss, so pushes
+ * with names already seen do not allocate. Subscriptions that have not been renewed are removed by {@link #removeExpired(long)},
+ * which must be called periodically: the expiry times are kept in a timing wheel so a sweep only visits the
+ * subscriptions that are due, and a push never checks them.
+ */
+final class SubscriptionRegistry {
+
+    private static final EventImpl[] NO_EVENTS = new EventImpl[0];
+    /**
+     * Bound of the names kept in {@link #keys}, to not grow with names sent by clients
+     */
+    private static final int MAX_CACHED_NAMES = 65536;
+
+    private final Logger logger = LoggerFactory.getLogger(SubscriptionRegistry.class);
+    private final ConcurrentMap<String, DeviceSubscriptions> devices = new ConcurrentHashMap<String, DeviceSubscriptions>();
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * The lower-case key of each name already seen
+     */
+    private final ConcurrentMap<String, String> keys = new ConcurrentHashMap<String, String>();
+    private final TimingWheel<Subscription> expiries = new TimingWheel<Subscription>(
+            EventConstants.EVENT_EXPIRY_SWEEP_PERIOD, System.currentTimeMillis());
+
+    /**
+     * @param deviceName    the device name
+     * @param attributeName the attribute name
+     * @return the events of the attribute, an empty array if none. The array must not be modified.
+     */
+    EventImpl[] getAttributeEvents(final String deviceName, final String attributeName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        if (device == null) {
+            return NO_EVENTS;
+        }
+        final EventImpl[] events = device.attributeEvents.get(toKey(attributeName));
+        return events == null ? NO_EVENTS : events;
+    }
+
+    /**
+     * Renew the subscription of an attribute event, whatever its subscription is still valid or not. The renewal is
+     * atomic with the removal of the expired events.
+     *
+     * @param deviceName    the device name
+     * @param attributeName the attribute name
+     * @param fullName      the event name
+     * @return the renewed event, null if not registered
+     */
+    EventImpl renewAttributeEvent(final String deviceName, final String attributeName, final String fullName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        if (device == null) {
+            return null;
+        }
+        final EventImpl[] renewed = new EventImpl[1];
+        device.attributeEvents.computeIfPresent(toKey(attributeName), (key, events) -> {
+            renewed[0] = renew(events, fullName);
+            return events;
+        });
+        return renewed[0];
+    }
+
+    private static EventImpl renew(final EventImpl[] events, final String fullName) {
+        for (final EventImpl eventImpl : events) {
+            if (eventImpl.getFullName().equals(fullName)) {
+                eventImpl.updateSubscribeTime();
+                return eventImpl;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Register an attribute event, or renew the subscription of the event with the same name if already registered
+     *
+     * @param deviceName    the device name
+     * @param attributeName the attribute name
+     * @param eventImpl     the event
+     * @return the registered event
+     */
+    EventImpl addAttributeEvent(final String deviceName, final String attributeName, final EventImpl eventImpl) {
+        final DeviceSubscriptions device = getOrCreate(deviceName);
+        final String attributeKey = toKey(attributeName);
+        final EventImpl[] registered = new EventImpl[1];
+        device.attributeEvents.compute(attributeKey, (key, events) -> {
+            if (events == null) {
+                registered[0] = eventImpl;
+                final EventImpl[] result = new EventImpl[]{eventImpl};
+                updateSubscriptionMask(eventImpl.getAttribute(), result);
+                return result;
+            }
+            final EventImpl existing = renew(events, eventImpl.getFullName());
+            if (existing != null) {
+                registered[0] = existing;
+                return events;
+            }
+            registered[0] = eventImpl;
+            final EventImpl[] result = Arrays.copyOf(events, events.length + 1);
+            result[events.length] = eventImpl;
+            updateSubscriptionMask(eventImpl.getAttribute(), result);
+            return result;
+        });
+        if (registered[0] == eventImpl) {
+            added(device, Kind.ATTRIBUTE, attributeKey, eventImpl);
+        }
+        return registered[0];
+    }
+
+    /**
+     * @param deviceName the device name
+     * @param pipeName   the pipe name
+     * @return the pipe event, null if none
+     */
+    EventImpl getPipeEvent(final String deviceName, final String pipeName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        return device == null ? null : device.pipeEvents.get(toKey(pipeName));
+    }
+
+    /**
+     * Renew the subscription of a pipe event, whatever its subscription is still valid or not. The renewal is atomic
+     * with the removal of the expired events.
+     *
+     * @param deviceName the device name
+     * @param pipeName   the pipe name
+     * @return the renewed event, null if not registered
+     */
+    EventImpl renewPipeEvent(final String deviceName, final String pipeName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        return device == null ? null : device.pipeEvents.computeIfPresent(toKey(pipeName), (key, existing) -> {
+            existing.updateSubscribeTime();
+            return existing;
+        });
+    }
+
+    /**
+     * Register a pipe event, or renew the subscription of the registered one
+     *
+     * @param deviceName the device name
+     * @param pipeName   the pipe name
+     * @param eventImpl  the event
+     * @return the registered event
+     */
+    EventImpl addPipeEvent(final String deviceName, final String pipeName, final EventImpl eventImpl) {
+        final DeviceSubscriptions device = getOrCreate(deviceName);
+        final String pipeKey = toKey(pipeName);
+        final EventImpl registered = device.pipeEvents.compute(pipeKey, (key, existing) -> {
+            if (existing == null) {
+                return eventImpl;
+            }
+            existing.updateSubscribeTime();
+            return existing;
+        });
+        if (registered == eventImpl) {
+            added(device, Kind.PIPE, pipeKey, eventImpl);
+        }
+        return registered;
+    }
+
+    /**
+     * @param deviceName the device name
+     * @return the interface change event of the device, null if none
+     */
+    EventImpl getInterfaceChangeEvent(final String deviceName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        return device == null ? null : device.interfaceChangeEvent;
+    }
+
+    /**
+     * Renew the subscription of the interface change event, whatever its subscription is still valid or not. The
+     * renewal is atomic with the removal of the expired events.
+     *
+     * @param deviceName the device name
+     * @return the renewed event, null if not registered
+     */
+    EventImpl renewInterfaceChangeEvent(final String deviceName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        if (device == null) {
+            return null;
+        }
+        synchronized (device) {
+            final EventImpl existing = device.interfaceChangeEvent;
+            if (existing != null) {
+                existing.updateSubscribeTime();
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Register the interface change event of a device, or renew the subscription of the registered one
+     *
+     * @param deviceName the device name
+     * @param eventImpl  the event
+     * @return the registered event
+     */
+    EventImpl addInterfaceChangeEvent(final String deviceName, final EventImpl eventImpl) {
+        final DeviceSubscriptions device = getOrCreate(deviceName);
+        synchronized (device) {
+            if (device.interfaceChangeEvent != null) {
+                device.interfaceChangeEvent.updateSubscribeTime();
+                return device.interfaceChangeEvent;
+            }
+            device.interfaceChangeEvent = eventImpl;
+        }
+        added(device, Kind.INTERFACE_CHANGE, null, eventImpl);
+        return eventImpl;
+    }
+
+    /**
+     * @return all registered events
+     */
+    List<EventImpl> getEvents() {
+        final List<EventImpl> result = new ArrayList<EventImpl>(size.get());
+        for (final DeviceSubscriptions device : devices.values()) {
+            for (final EventImpl[] events : device.attributeEvents.values()) {
+                result.addAll(Arrays.asList(events));
+            }
+            result.addAll(device.pipeEvents.values());
+            final EventImpl interfaceChangeEvent = device.interfaceChangeEvent;
+            if (interfaceChangeEvent != null) {
+                result.add(interfaceChangeEvent);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param deviceName the device name
+     * @return true if at least one event of this device is registered
+     */
+    boolean hasSubscriber(final String deviceName) {
+        final DeviceSubscriptions device = devices.get(toKey(deviceName));
+        return device != null && device.size.get() > 0;
+    }
+
+    /**
+     * @return true if no event is registered
+     */
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * @return the number of registered events
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Remove all events
+     */
+    void clear() {
+        for (final DeviceSubscriptions device : devices.values()) {
+            for (final EventImpl[] events : device.attributeEvents.values()) {
+                updateSubscriptionMask(events[0].getAttribute(), NO_EVENTS);
+            }
+        }
+        devices.clear();
+        size.set(0);
+    }
+
+    /**
+     * Remove the events whose subscription has not been renewed in time
+     *
+     * @param now the current time, in milliseconds
+     * @return the removed events
+     */
+    List<EventImpl> removeExpired(final long now) {
+        final List<Subscription> due;
+        synchronized (expiries) {
+            due = expiries.advance(now);
+        }
+        final List<EventImpl> expired = new ArrayList<EventImpl>();
+        for (final Subscription subscription : due) {
+            final EventImpl eventImpl = subscription.eventImpl;
+            if (remove(subscription, now)) {
+                logger.debug("{} not subscribed any more", eventImpl.getFullName());
+                expired.add(eventImpl);
+            } else if (eventImpl.isStillSubscribed(now)) {
+                // renewed since it was scheduled
+                synchronized (expiries) {
+                    expiries.schedule(subscription, eventImpl.getExpiryTime());
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Remove an event if its subscription has expired. The expiry is checked under the same lock as the renewal, so
+     * that a subscription renewed concurrently is kept.
+     */
+    private boolean remove(final Subscription subscription, final long now) {
+        final DeviceSubscriptions device = devices.get(subscription.deviceKey);
+        if (device == null) {
+            return false;
+        }
+        final EventImpl eventImpl = subscription.eventImpl;
+        boolean isRemoved = false;
+        if (subscription.kind == Kind.INTERFACE_CHANGE) {
+            synchronized (device) {
+                if (device.interfaceChangeEvent == eventImpl && !eventImpl.isStillSubscribed(now)) {
+                    device.interfaceChangeEvent = null;
+                    isRemoved = true;
+                }
+            }
+        } else if (subscription.kind == Kind.PIPE) {
+            final boolean[] found = new boolean[1];
+            device.pipeEvents.computeIfPresent(subscription.nameKey, (key, existing) -> {
+                if (existing == eventImpl && !eventImpl.isStillSubscribed(now)) {
+                    found[0] = true;
+                    return null;
+                }
+                return existing;
+            });
+            isRemoved = found[0];
+        } else {
+            final boolean[] found = new boolean[1];
+            device.attributeEvents.computeIfPresent(subscription.nameKey, (key, events) -> {
+                for (int i = 0; i < events.length; i++) {
+                    if (events[i] == eventImpl) {
+                        if (eventImpl.isStillSubscribed(now)) {
+                            return events;
+                        }
+                        found[0] = true;
+                        final EventImpl[] result = new EventImpl[events.length - 1];
+                        System.arraycopy(events, 0, result, 0, i);
+                        System.arraycopy(events, i + 1, result, i, events.length - i - 1);
+                        updateSubscriptionMask(eventImpl.getAttribute(), result);
+                        return result.length == 0 ? null : result;
+                    }
+                }
+                return events;
+            });
+            isRemoved = found[0];
+        }
+        if (isRemoved) {
+            removed(device);
+        }
+        return isRemoved;
+    }
+
+    /**
+     * Let the attribute know which of its events are subscribed, so that polling skips the event system when none is
+     *
+     * @param attribute the attribute, may be null
+     * @param events    the events of the attribute
+     */
+    private static void updateSubscriptionMask(final AttributeImpl attribute, final EventImpl[] events) {
+        if (attribute != null) {
+            int mask = 0;
+            for (final EventImpl eventImpl : events) {
+                mask |= 1 << eventImpl.getEventType().ordinal();
+            }
+            attribute.setEventSubscriptionMask(mask);
+        }
+    }
+
+    private DeviceSubscriptions getOrCreate(final String deviceName) {
+        return devices.computeIfAbsent(toKey(deviceName), DeviceSubscriptions::new);
+    }
+
+    private void added(final DeviceSubscriptions device, final Kind kind, final String nameKey,
+                       final EventImpl eventImpl) {
+        device.size.incrementAndGet();
+        size.incrementAndGet();
+        final Subscription subscription = new Subscription(device.key, kind, nameKey, eventImpl);
+        synchronized (expiries) {
+            expiries.schedule(subscription, eventImpl.getExpiryTime());
+        }
+    }
+
+    private void removed(final DeviceSubscriptions device) {
+        device.size.decrementAndGet();
+        size.decrementAndGet();
+    }
+
+    private String toKey(final String name) {
+        String key = keys.get(name);
+        if (key == null) {
+            key = name.toLowerCase(Locale.ENGLISH);
+            if (keys.size() < MAX_CACHED_NAMES) {
+                keys.putIfAbsent(name, key);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * The events of a device
+     */
+    private static final class DeviceSubscriptions {
+        private final String key;
+        private final ConcurrentMap<String, EventImpl[]> attributeEvents = new ConcurrentHashMap<String, EventImpl[]>();
+        private final ConcurrentMap<String, EventImpl> pipeEvents = new ConcurrentHashMap<String, EventImpl>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile EventImpl interfaceChangeEvent;
+
+        private DeviceSubscriptions(final String key) {
+            this.key = key;
+        }
+    }
+
+    private enum Kind {
+        ATTRIBUTE, PIPE, INTERFACE_CHANGE
+    }
+
+    /**
+     * An entry of the timing wheel
+     */
+    private static final class Subscription {
+        private final String deviceKey;
+        private final Kind kind;
+        /**
+         * attribute or pipe name, null for the interface change event
+         */
+        private final String nameKey;
+        private final EventImpl eventImpl;
+
+        private Subscription(final String deviceKey, final Kind kind, final String nameKey,
+                             final EventImpl eventImpl) {
+            this.deviceKey = deviceKey;
+            this.kind = kind;
+            this.nameKey = nameKey;
+            this.eventImpl = eventImpl;
+        }
+    }
+}
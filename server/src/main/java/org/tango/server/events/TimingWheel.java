@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) :     2012
+ * <p>
+ * Synchrotron Soleil
+ * L'Orme des merisiers
+ * Saint Aubin
+ * BP48
+ * 91192 GIF-SUR-YVETTE CEDEX
+ * <p>
+ * This file is part of Tango.
+ * <p>
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Each level has {@value #WHEEL_SIZE} slots, a slot of a level covers a whole revolution
+ * of the level below. Items are cascaded to the lower levels as time advances, so scheduling and expiring an item are
+ * done in constant amortized time whatever the number of items.
+ * <p>
+ * Not thread safe.
+ *
+ * @param <T> the type of the items
+ */
+final class TimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+
+    private final long tickDuration;
+    private final List<List<Entry<T>>> slots;
+    private final List<Entry<T>> overdue = new ArrayList<Entry<T>>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickDuration the duration of a tick
+     * @param now          the current time, in the same unit as the tick duration
+     */
+    TimingWheel(final long tickDuration, final long now) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick duration must be positive");
+        }
+        this.tickDuration = tickDuration;
+        currentTick = now / tickDuration;
+        slots = new ArrayList<List<Entry<T>>>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<Entry<T>>());
+        }
+    }
+
+    /**
+     * Schedule an item. It will be returned by the first call to {@link #advance(long)} with a time after its
+     * deadline, rounded up to the next tick. Deadlines beyond the range of the wheel are rescheduled as time advances.
+     *
+     * @param item     the item
+     * @param deadline the deadline
+     */
+    void schedule(final T item, final long deadline) {
+        final long dueTick = (deadline + tickDuration - 1) / tickDuration;
+        final Entry<T> entry = new Entry<T>(item, dueTick);
+        if (dueTick <= currentTick) {
+            overdue.add(entry);
+        } else {
+            place(entry);
+        }
+        size++;
+    }
+
+    /**
+     * Advance the time of the wheel
+     *
+     * @param now the current time
+     * @return the items whose deadline is reached
+     */
+    List<T> advance(final long now) {
+        final List<T> expired = new ArrayList<T>();
+        for (final Entry<T> entry : overdue) {
+            expired.add(entry.item);
+        }
+        overdue.clear();
+        final long targetTick = now / tickDuration;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            final List<Entry<T>> slot = slots.get((int) (currentTick & WHEEL_MASK));
+            for (final Entry<T> entry : slot) {
+                expired.add(entry.item);
+            }
+            slot.clear();
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * @return the number of scheduled items
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Move the items of the upper levels whose slot is starting to the lower levels, starting from the highest
+     * level so that they go down level by level
+     */
+    private void cascade() {
+        int level = 1;
+        while (level < LEVELS && (currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+            level++;
+        }
+        for (int i = level - 1; i > 0; i--) {
+            final List<Entry<T>> slot = slots.get(i * WHEEL_SIZE
+                    + (int) ((currentTick >>> (WHEEL_BITS * i)) & WHEEL_MASK));
+            final List<Entry<T>> entries = new ArrayList<Entry<T>>(slot);
+            slot.clear();
+            for (final Entry<T> entry : entries) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(final Entry<T> entry) {
+        final long delta = entry.dueTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        // beyond the range of the highest level, wait in its farthest slot and be placed again from there
+        final long tick = delta < 1L << (WHEEL_BITS * LEVELS) ? entry.dueTick
+                : currentTick + ((long) WHEEL_MASK << (WHEEL_BITS * (LEVELS - 1)));
+        slots.get(level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)).add(entry);
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long dueTick;
+
+        private Entry(final T item, final long dueTick) {
+            this.item = item;
+            this.dueTick = dueTick;
+        }
+    }
+}
@@ -24,8 +24,6 @@
  */
 package org.tango.server.idl;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -75,79 +73,75 @@ import fr.esrf.TangoDs.TangoConst;
  */
 public final class CleverAnyCommand {
 
-    private static final Map<Integer, Class<?>> CLASS_MAP = new HashMap<Integer, Class<?>>();
-
-    static {
-        CLASS_MAP.put(TangoConst.Tango_DEV_BOOLEAN, DevBooleanHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_SHORT, DevShortHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_USHORT, DevUShortHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_LONG, DevLongHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_ULONG, DevULongHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_LONG64, DevLong64Helper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_ULONG64, DevULong64Helper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_FLOAT, DevFloatHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_DOUBLE, DevDoubleHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_STRING, DevStringHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_STATE, DevStateHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_UCHAR, DevUCharHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEV_ENCODED, DevEncodedHelper.class);
-        //
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_SHORTARRAY, DevVarShortArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_USHORTARRAY, DevVarUShortArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_LONGARRAY, DevVarLongArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_ULONGARRAY, DevVarULongArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_LONG64ARRAY, DevVarLong64ArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_ULONG64ARRAY, DevVarULong64ArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_FLOATARRAY, DevVarFloatArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_DOUBLEARRAY, DevVarDoubleArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_STRINGARRAY, DevVarStringArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_CHARARRAY, DevVarCharArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_DOUBLESTRINGARRAY, DevVarDoubleStringArrayHelper.class);
-        CLASS_MAP.put(TangoConst.Tango_DEVVAR_LONGSTRINGARRAY, DevVarLongStringArrayHelper.class);
-    }
-
-    private static final Map<Integer, Class<?>> PARAM_MAP = new HashMap<Integer, Class<?>>();
-
-    static {
-        PARAM_MAP.put(TangoConst.Tango_DEV_BOOLEAN, boolean.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_SHORT, short.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_USHORT, short.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_LONG, int.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_ULONG, int.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_LONG64, long.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_ULONG64, long.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_FLOAT, float.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_DOUBLE, double.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_STRING, String.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_STATE, DevState.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_UCHAR, byte.class);
-        PARAM_MAP.put(TangoConst.Tango_DEV_ENCODED, DevEncoded.class);
+    /**
+     * Converters of each command type, built once to avoid reflection on each command
+     */
+    private static final Map<Integer, AnyCodec> CODECS = new HashMap<Integer, AnyCodec>();
 
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_SHORTARRAY, short[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_USHORTARRAY, short[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_LONGARRAY, int[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_ULONGARRAY, int[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_LONG64ARRAY, long[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_ULONG64ARRAY, long[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_FLOATARRAY, float[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_DOUBLEARRAY, double[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_STRINGARRAY, String[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_CHARARRAY, byte[].class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_DOUBLESTRINGARRAY, DevVarDoubleStringArray.class);
-        PARAM_MAP.put(TangoConst.Tango_DEVVAR_LONGSTRINGARRAY, DevVarLongStringArray.class);
-    }
     /**
-     * Command types for which, insertion must be done on Any (otherwise C++ client crashes)
+     * Scalar types are inserted directly in Any (otherwise C++ client crashes), others with their Helper.
      */
-    private static final Map<Integer, String> INSERT_ANY_MAP = new HashMap<Integer, String>();
     static {
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_BOOLEAN, "insert_boolean");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_SHORT, "insert_short");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_LONG, "insert_long");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_LONG64, "insert_longlong");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_FLOAT, "insert_float");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_DOUBLE, "insert_double");
-        INSERT_ANY_MAP.put(TangoConst.Tango_DEV_STRING, "insert_string");
+        CODECS.put(TangoConst.Tango_DEV_BOOLEAN, new AnyCodec(boolean.class, DevBooleanHelper::extract,
+                (any, value) -> any.insert_boolean((Boolean) value)));
+        CODECS.put(TangoConst.Tango_DEV_SHORT, new AnyCodec(short.class, DevShortHelper::extract,
+                (any, value) -> any.insert_short(ScalarConverter.toShort(value))));
+        CODECS.put(TangoConst.Tango_DEV_USHORT, new AnyCodec(short.class, DevUShortHelper::extract,
+                (any, value) -> DevUShortHelper.insert(any, ScalarConverter.toShort(value))));
+        CODECS.put(TangoConst.Tango_DEV_LONG, new AnyCodec(int.class, DevLongHelper::extract,
+                (any, value) -> any.insert_long(ScalarConverter.toInt(value))));
+        CODECS.put(TangoConst.Tango_DEV_ULONG, new AnyCodec(int.class, DevULongHelper::extract,
+                (any, value) -> DevULongHelper.insert(any, ScalarConverter.toInt(value))));
+        CODECS.put(TangoConst.Tango_DEV_LONG64, new AnyCodec(long.class, DevLong64Helper::extract,
+                (any, value) -> any.insert_longlong(ScalarConverter.toLong(value))));
+        CODECS.put(TangoConst.Tango_DEV_ULONG64, new AnyCodec(long.class, DevULong64Helper::extract,
+                (any, value) -> DevULong64Helper.insert(any, ScalarConverter.toLong(value))));
+        CODECS.put(TangoConst.Tango_DEV_FLOAT, new AnyCodec(float.class, DevFloatHelper::extract,
+                (any, value) -> any.insert_float(ScalarConverter.toFloat(value))));
+        CODECS.put(TangoConst.Tango_DEV_DOUBLE, new AnyCodec(double.class, DevDoubleHelper::extract,
+                (any, value) -> any.insert_double(ScalarConverter.toDouble(value))));
+        CODECS.put(TangoConst.Tango_DEV_STRING, new AnyCodec(String.class, DevStringHelper::extract,
+                (any, value) -> any.insert_string((String) value)));
+        CODECS.put(TangoConst.Tango_DEV_STATE, new AnyCodec(DevState.class, DevStateHelper::extract,
+                (any, value) -> {
+                    if (value instanceof DevState[]) {
+                        // special case for array of DevState (for command history)
+                        DevVarStateArrayHelper.insert(any, (DevState[]) value);
+                    } else {
+                        DevStateHelper.insert(any, (DevState) value);
+                    }
+                }));
+        CODECS.put(TangoConst.Tango_DEV_UCHAR, new AnyCodec(byte.class, DevUCharHelper::extract,
+                (any, value) -> DevUCharHelper.insert(any, (Byte) value)));
+        CODECS.put(TangoConst.Tango_DEV_ENCODED, new AnyCodec(DevEncoded.class, DevEncodedHelper::extract,
+                (any, value) -> DevEncodedHelper.insert(any, (DevEncoded) value)));
+        //
+        CODECS.put(TangoConst.Tango_DEVVAR_SHORTARRAY, new AnyCodec(short[].class, DevVarShortArrayHelper::extract,
+                (any, value) -> DevVarShortArrayHelper.insert(any, (short[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_USHORTARRAY, new AnyCodec(short[].class,
+                DevVarUShortArrayHelper::extract, (any, value) -> DevVarUShortArrayHelper.insert(any, (short[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_LONGARRAY, new AnyCodec(int[].class, DevVarLongArrayHelper::extract,
+                (any, value) -> DevVarLongArrayHelper.insert(any, (int[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_ULONGARRAY, new AnyCodec(int[].class, DevVarULongArrayHelper::extract,
+                (any, value) -> DevVarULongArrayHelper.insert(any, (int[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_LONG64ARRAY, new AnyCodec(long[].class, DevVarLong64ArrayHelper::extract,
+                (any, value) -> DevVarLong64ArrayHelper.insert(any, (long[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_ULONG64ARRAY, new AnyCodec(long[].class,
+                DevVarULong64ArrayHelper::extract, (any, value) -> DevVarULong64ArrayHelper.insert(any, (long[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_FLOATARRAY, new AnyCodec(float[].class, DevVarFloatArrayHelper::extract,
+                (any, value) -> DevVarFloatArrayHelper.insert(any, (float[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_DOUBLEARRAY, new AnyCodec(double[].class,
+                DevVarDoubleArrayHelper::extract, (any, value) -> DevVarDoubleArrayHelper.insert(any, (double[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_STRINGARRAY, new AnyCodec(String[].class,
+                DevVarStringArrayHelper::extract, (any, value) -> DevVarStringArrayHelper.insert(any, (String[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_CHARARRAY, new AnyCodec(byte[].class, DevVarCharArrayHelper::extract,
+                (any, value) -> DevVarCharArrayHelper.insert(any, (byte[]) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_DOUBLESTRINGARRAY, new AnyCodec(DevVarDoubleStringArray.class,
+                DevVarDoubleStringArrayHelper::extract,
+                (any, value) -> DevVarDoubleStringArrayHelper.insert(any, (DevVarDoubleStringArray) value)));
+        CODECS.put(TangoConst.Tango_DEVVAR_LONGSTRINGARRAY, new AnyCodec(DevVarLongStringArray.class,
+                DevVarLongStringArrayHelper::extract,
+                (any, value) -> DevVarLongStringArrayHelper.insert(any, (DevVarLongStringArray) value)));
     }
 
     private CleverAnyCommand() {
@@ -165,22 +159,13 @@ public final class CleverAnyCommand {
     public static Object get(final Any any, final int tangoType, final boolean asPrimitive) throws DevFailed {
         Object result = null;
         if (any != null) {
-            try {
-                final Class<?> extractorClass = CLASS_MAP.get(tangoType);
-                if (extractorClass != null) { // command void
-                    final Method method = extractorClass.getMethod("extract", Any.class);
-                    result = method.invoke(null, any);
+            final AnyCodec codec = CODECS.get(tangoType);
+            if (codec != null) { // command void
+                try {
+                    result = codec.extractor.extract(any);
+                } catch (final RuntimeException e) {
+                    throw DevFailedUtils.newDevFailed(e);
                 }
-            } catch (final IllegalArgumentException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final IllegalAccessException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final InvocationTargetException e) {
-                throw DevFailedUtils.newDevFailed(e.getCause());
-            } catch (final SecurityException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final NoSuchMethodException e) {
-                throw DevFailedUtils.newDevFailed(e);
             }
             // convert to array of Object if necessary
             if (result != null && !asPrimitive) {
@@ -198,37 +183,43 @@ public final class CleverAnyCommand {
                 // convert to array of primitives if necessary
                 array = org.tango.utils.ArrayUtils.toPrimitiveArray(value);
             }
-            Method method = null;
+            final AnyCodec codec = CODECS.get(tangoType);
+            if (codec == null) {
+                throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, "command type " + tangoType
+                        + " not supported");
+            }
             try {
-                final String methodName = INSERT_ANY_MAP.get(tangoType);
-                if (methodName != null) {
-                    // insert directly in Any
-                    method = any.getClass().getMethod(methodName, PARAM_MAP.get(tangoType));
-                    method.invoke(any, array);
-                } else {
-                    // insert in Helper
-                    if (tangoType == TangoConst.Tango_DEV_STATE && array instanceof DevState[]) {
-                        // special case for array of DevState (for command history)
-                        DevVarStateArrayHelper.insert(any, (DevState[]) array);
-                    } else {
-                        final Class<?> inserterClass = CLASS_MAP.get(tangoType);
-                        method = inserterClass.getMethod("insert", Any.class, PARAM_MAP.get(tangoType));
-                        method.invoke(null, any, array);
-                    }
-                }
+                codec.inserter.insert(any, array);
+            } catch (final ClassCastException e) {
+                throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
+                        + " is not the good type, should be " + codec.type.getCanonicalName());
             } catch (final IllegalArgumentException e) {
                 throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
-                        + " is not the good type, should be " + method);
-            } catch (final IllegalAccessException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final InvocationTargetException e) {
-                throw DevFailedUtils.newDevFailed(e.getCause());
-            } catch (final SecurityException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final NoSuchMethodException e) {
+                        + " is not the good type, should be " + codec.type.getCanonicalName());
+            } catch (final RuntimeException e) {
                 throw DevFailedUtils.newDevFailed(e);
             }
         }
         return any;
     }
+
+    private interface AnyExtractor {
+        Object extract(Any any);
+    }
+
+    private interface AnyInserter {
+        void insert(Any any, Object value);
+    }
+
+    private static final class AnyCodec {
+        private final Class<?> type;
+        private final AnyExtractor extractor;
+        private final AnyInserter inserter;
+
+        private AnyCodec(final Class<?> type, final AnyExtractor extractor, final AnyInserter inserter) {
+            this.type = type;
+            this.extractor = extractor;
+            this.inserter = inserter;
+        }
+    }
 }
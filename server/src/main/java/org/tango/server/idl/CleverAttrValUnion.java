@@ -24,9 +24,6 @@
  */
 package org.tango.server.idl;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -49,42 +46,56 @@ import fr.esrf.Tango.DevState;
  */
 public final class CleverAttrValUnion {
 
-    private static final Map<AttributeDataType, String> METHOD_MAP = new HashMap<AttributeDataType, String>();
-
-    static {
-        METHOD_MAP.put(AttributeDataType.ATT_BOOL, "bool_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_SHORT, "short_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_USHORT, "ushort_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_LONG, "long_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ULONG, "ulong_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_LONG64, "long64_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ULONG64, "ulong64_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_FLOAT, "float_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_DOUBLE, "double_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_STRING, "string_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_STATE, "state_att_value");
-        METHOD_MAP.put(AttributeDataType.DEVICE_STATE, "dev_state_att");
-        METHOD_MAP.put(AttributeDataType.ATT_UCHAR, "uchar_att_value");
-        METHOD_MAP.put(AttributeDataType.ATT_ENCODED, "encoded_att_value");
-    }
-
-    private static final Map<AttributeDataType, Class<?>> PARAM_MAP = new HashMap<AttributeDataType, Class<?>>();
+    /**
+     * Converters of each attribute type, built once to avoid reflection on each conversion
+     */
+    private static final Map<AttributeDataType, UnionCodec> CODECS = new HashMap<AttributeDataType, UnionCodec>();
 
     static {
-        PARAM_MAP.put(AttributeDataType.ATT_BOOL, boolean[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_SHORT, short[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_USHORT, short[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_LONG, int[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ULONG, int[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_LONG64, long[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ULONG64, long[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_FLOAT, float[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_DOUBLE, double[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_STRING, String[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_STATE, DevState[].class);
-        PARAM_MAP.put(AttributeDataType.DEVICE_STATE, DevState.class);
-        PARAM_MAP.put(AttributeDataType.ATT_UCHAR, byte[].class);
-        PARAM_MAP.put(AttributeDataType.ATT_ENCODED, DevEncoded[].class);
+        CODECS.put(AttributeDataType.ATT_BOOL, new UnionCodec(AttrValUnion::bool_att_value,
+                union -> union.bool_att_value()[0], (union, value) -> union.bool_att_value((boolean[]) value),
+                value -> new boolean[] { (Boolean) value }));
+        CODECS.put(AttributeDataType.ATT_SHORT, new UnionCodec(AttrValUnion::short_att_value,
+                union -> union.short_att_value()[0], (union, value) -> union.short_att_value((short[]) value),
+                value -> new short[] { ScalarConverter.toShort(value) }));
+        CODECS.put(AttributeDataType.ATT_USHORT, new UnionCodec(AttrValUnion::ushort_att_value,
+                union -> union.ushort_att_value()[0], (union, value) -> union.ushort_att_value((short[]) value),
+                value -> new short[] { ScalarConverter.toShort(value) }));
+        CODECS.put(AttributeDataType.ATT_LONG, new UnionCodec(AttrValUnion::long_att_value,
+                union -> union.long_att_value()[0], (union, value) -> union.long_att_value((int[]) value),
+                value -> new int[] { ScalarConverter.toInt(value) }));
+        CODECS.put(AttributeDataType.ATT_ULONG, new UnionCodec(AttrValUnion::ulong_att_value,
+                union -> union.ulong_att_value()[0], (union, value) -> union.ulong_att_value((int[]) value),
+                value -> new int[] { ScalarConverter.toInt(value) }));
+        CODECS.put(AttributeDataType.ATT_LONG64, new UnionCodec(AttrValUnion::long64_att_value,
+                union -> union.long64_att_value()[0], (union, value) -> union.long64_att_value((long[]) value),
+                value -> new long[] { ScalarConverter.toLong(value) }));
+        CODECS.put(AttributeDataType.ATT_ULONG64, new UnionCodec(AttrValUnion::ulong64_att_value,
+                union -> union.ulong64_att_value()[0], (union, value) -> union.ulong64_att_value((long[]) value),
+                value -> new long[] { ScalarConverter.toLong(value) }));
+        CODECS.put(AttributeDataType.ATT_FLOAT, new UnionCodec(AttrValUnion::float_att_value,
+                union -> union.float_att_value()[0], (union, value) -> union.float_att_value((float[]) value),
+                value -> new float[] { ScalarConverter.toFloat(value) }));
+        CODECS.put(AttributeDataType.ATT_DOUBLE, new UnionCodec(AttrValUnion::double_att_value,
+                union -> union.double_att_value()[0], (union, value) -> union.double_att_value((double[]) value),
+                value -> new double[] { ScalarConverter.toDouble(value) }));
+        CODECS.put(AttributeDataType.ATT_STRING, new UnionCodec(AttrValUnion::string_att_value,
+                union -> union.string_att_value()[0], (union, value) -> union.string_att_value((String[]) value),
+                value -> new String[] { (String) value }));
+        CODECS.put(AttributeDataType.ATT_STATE, new UnionCodec(AttrValUnion::state_att_value,
+                union -> union.state_att_value()[0], (union, value) -> union.state_att_value((DevState[]) value),
+                value -> new DevState[] { (DevState) value }));
+        // the device state is a single value, not an array
+        CODECS.put(AttributeDataType.DEVICE_STATE, new UnionCodec(AttrValUnion::dev_state_att,
+                AttrValUnion::dev_state_att, (union, value) -> union.dev_state_att((DevState) value),
+                value -> value));
+        CODECS.put(AttributeDataType.ATT_UCHAR, new UnionCodec(AttrValUnion::uchar_att_value,
+                union -> union.uchar_att_value()[0], (union, value) -> union.uchar_att_value((byte[]) value),
+                value -> new byte[] { (Byte) value }));
+        CODECS.put(AttributeDataType.ATT_ENCODED, new UnionCodec(AttrValUnion::encoded_att_value,
+                union -> union.encoded_att_value()[0],
+                (union, value) -> union.encoded_att_value((DevEncoded[]) value),
+                value -> new DevEncoded[] { (DevEncoded) value }));
     }
 
     private CleverAttrValUnion() {
@@ -106,23 +117,16 @@ public final class CleverAttrValUnion {
             if (discriminator.value() == AttributeDataType._ATT_NO_DATA) {
                 throw DevFailedUtils.newDevFailed("there is not data");
             }
+            final UnionCodec codec = getCodec(discriminator);
             try {
-                final Method method = union.getClass().getMethod(METHOD_MAP.get(discriminator));
-                result = method.invoke(union);
-            } catch (final IllegalArgumentException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final IllegalAccessException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            } catch (final InvocationTargetException e) {
-                throw DevFailedUtils.newDevFailed(e.getCause());
-            } catch (final SecurityException e) {
+                if (format.equals(AttrDataFormat.SCALAR)) {
+                    // for scalar, get only first value
+                    result = codec.scalarGetter.get(union);
+                } else {
+                    result = codec.getter.get(union);
+                }
+            } catch (final RuntimeException e) {
                 throw DevFailedUtils.newDevFailed(e);
-            } catch (final NoSuchMethodException e) {
-                throw DevFailedUtils.newDevFailed(e);
-            }
-            if (format.equals(AttrDataFormat.SCALAR) && !discriminator.equals(AttributeDataType.DEVICE_STATE)) {
-                // for scalar except state, get only first value
-                result = Array.get(result, 0);
             }
         }
         return result;
@@ -138,37 +142,61 @@ public final class CleverAttrValUnion {
      */
     public static AttrValUnion set(final int tangoType, final Object value) throws DevFailed {
         final AttributeDataType discriminator = AttributeTangoType.getTypeFromTango(tangoType).getAttributeDataType();
+        final UnionCodec codec = getCodec(discriminator);
         final AttrValUnion union = new AttrValUnion();
-        Object array = null;
-        if (value.getClass().isArray()) {
-            // convert to array of primitives if necessary
-            array = org.tango.utils.ArrayUtils.toPrimitiveArray(value);
-        } else {
-            // put in an array before inserting for scalars
-            array = Array.newInstance(AttributeTangoType.getTypeFromTango(tangoType).getType(), 1);
-            try {
-                Array.set(array, 0, value);
-            } catch (final IllegalArgumentException e) {
-                throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
-                        + " is not of the good type");
-            }
-        }
         try {
-            final Method method = union.getClass().getMethod(METHOD_MAP.get(discriminator),
-                    PARAM_MAP.get(discriminator));
-            method.invoke(union, array);
+            Object array;
+            if (value.getClass().isArray()) {
+                // convert to array of primitives if necessary
+                array = org.tango.utils.ArrayUtils.toPrimitiveArray(value);
+            } else {
+                // put in an array before inserting for scalars
+                array = codec.scalarWrapper.wrap(value);
+            }
+            codec.setter.set(union, array);
+        } catch (final ClassCastException e) {
+            throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
+                    + " is not of the good type");
         } catch (final IllegalArgumentException e) {
             throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, value.getClass().getCanonicalName()
                     + " is not of the good type");
-        } catch (final IllegalAccessException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        } catch (final InvocationTargetException e) {
-            throw DevFailedUtils.newDevFailed(e.getCause());
-        } catch (final SecurityException e) {
-            throw DevFailedUtils.newDevFailed(e);
-        } catch (final NoSuchMethodException e) {
-            throw DevFailedUtils.newDevFailed(e);
         }
         return union;
     }
+
+    private static UnionCodec getCodec(final AttributeDataType discriminator) throws DevFailed {
+        final UnionCodec codec = CODECS.get(discriminator);
+        if (codec == null) {
+            throw DevFailedUtils.newDevFailed(ExceptionMessages.ATTR_OPT_PROP, "attribute type "
+                    + discriminator.value() + " not supported");
+        }
+        return codec;
+    }
+
+    private interface UnionGetter {
+        Object get(AttrValUnion union);
+    }
+
+    private interface UnionSetter {
+        void set(AttrValUnion union, Object value);
+    }
+
+    private interface ScalarWrapper {
+        Object wrap(Object value);
+    }
+
+    private static final class UnionCodec {
+        private final UnionGetter getter;
+        private final UnionGetter scalarGetter;
+        private final UnionSetter setter;
+        private final ScalarWrapper scalarWrapper;
+
+        private UnionCodec(final UnionGetter getter, final UnionGetter scalarGetter, final UnionSetter setter,
+                final ScalarWrapper scalarWrapper) {
+            this.getter = getter;
+            this.scalarGetter = scalarGetter;
+            this.setter = setter;
+            this.scalarWrapper = scalarWrapper;
+        }
+    }
 }
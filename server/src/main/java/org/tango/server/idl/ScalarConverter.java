@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.idl;
+
+/**
+ * Unboxing of scalar values with the widening conversions of the Java language, as done by reflection
+ */
+final class ScalarConverter {
+
+    private ScalarConverter() {
+
+    }
+
+    static short toShort(final Object value) {
+        if (value instanceof Short) {
+            return (Short) value;
+        } else if (value instanceof Byte) {
+            return (Byte) value;
+        }
+        throw mismatch(value);
+    }
+
+    static int toInt(final Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        } else if (value instanceof Character) {
+            return (Character) value;
+        }
+        throw mismatch(value);
+    }
+
+    static long toLong(final Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        return toInt(value);
+    }
+
+    static float toFloat(final Object value) {
+        if (value instanceof Float) {
+            return (Float) value;
+        }
+        return toLong(value);
+    }
+
+    static double toDouble(final Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        } else if (value instanceof Float) {
+            return (Float) value;
+        }
+        return toLong(value);
+    }
+
+    private static IllegalArgumentException mismatch(final Object value) {
+        return new IllegalArgumentException(value == null ? "null" : value.getClass().getCanonicalName());
+    }
+}
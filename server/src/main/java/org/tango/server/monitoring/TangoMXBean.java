@@ -55,4 +55,14 @@ public interface TangoMXBean {
 
     void resetStats();
 
+    long getEventSentNr();
+
+    long getEventSentBytes();
+
+    long getEventDroppedNr();
+
+    long getEventFailedNr();
+
+    String[] getEventMetrics();
+
 }
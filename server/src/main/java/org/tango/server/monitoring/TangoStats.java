@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.tango.server.Chronometer;
+import org.tango.server.events.EventManager;
 
 /**
  * TODO: Error stats
@@ -238,4 +239,29 @@ public class TangoStats implements TangoMXBean /*, NotificationEmitter*/ {
         return minRequestsPerSecond;
     }
 
+    @Override
+    public long getEventSentNr() {
+        return EventManager.getInstance().getSentEventNr();
+    }
+
+    @Override
+    public long getEventSentBytes() {
+        return EventManager.getInstance().getSentEventBytes();
+    }
+
+    @Override
+    public long getEventDroppedNr() {
+        return EventManager.getInstance().getDroppedEventNr();
+    }
+
+    @Override
+    public long getEventFailedNr() {
+        return EventManager.getInstance().getFailedEventNr();
+    }
+
+    @Override
+    public String[] getEventMetrics() {
+        return EventManager.getInstance().getEventMetrics();
+    }
+
 }
@@ -34,7 +34,6 @@ import fr.esrf.Tango.DevSource;
 import fr.esrf.Tango.DevState;
 import fr.esrf.Tango.MultiDevFailed;
 import fr.esrf.Tango.NamedDevError;
-import net.sf.ehcache.CacheException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.ext.XLogger;
@@ -77,10 +76,14 @@ public final class AttributeGetterSetter {
     public static AttributeImpl getAttribute(final String name, final List<AttributeImpl> attributeList)
             throws DevFailed {
         AttributeImpl result = null;
-        for (final AttributeImpl attribute : attributeList) {
-            if (attribute.getName().equalsIgnoreCase(name)) {
-                result = attribute;
-                break;
+        if (attributeList instanceof NameIndexedList) {
+            result = ((NameIndexedList<AttributeImpl>) attributeList).get(name);
+        } else {
+            for (final AttributeImpl attribute : attributeList) {
+                if (attribute.getName().equalsIgnoreCase(name)) {
+                    result = attribute;
+                    break;
+                }
             }
         }
         if (result == null) {
@@ -221,21 +224,18 @@ public final class AttributeGetterSetter {
                 // aroundInvoke
                 // .aroundInvoke(new InvocationContext(ContextType.PRE_READ_ATTRIBUTE, callType, att.getName()));
                 // profiler.start("get cache");
-                final AttributeValue readValue = cacheManager.getAttributeCacheElement(att);
-                // profiler.start("to idl 5");
-                if (readValue == null) {
+                // converted once per polling cycle
+                final AttributeValue_5 cachedValue = cacheManager.getAttributeCacheValue5(att);
+                if (cachedValue == null) {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], att.getFormat(),
                             att.getTangoType(),
                             DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache"));
                 } else {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue5(att, readValue, att.getWriteValue());
+                    back[i] = cachedValue;
                 }
                 // profiler.stop().print();
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], AttrDataFormat.FMT_UNKNOWN, 0,
-                            (DevFailed) e.getCause());
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue5Error(names[i], AttrDataFormat.FMT_UNKNOWN, 0, e);
             }
             // aroundInvoke.aroundInvoke(new InvocationContext(ContextType.POST_READ_ATTRIBUTE, callType,
             // att.getName()));
@@ -343,11 +343,8 @@ public final class AttributeGetterSetter {
                 } else {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue4(att, readValue, att.getWriteValue());
                 }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue4Error(names[i], AttrDataFormat.FMT_UNKNOWN,
-                            (DevFailed) e.getCause());
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue4Error(names[i], AttrDataFormat.FMT_UNKNOWN, e);
             }
         }
         // get attributes values
@@ -434,10 +431,8 @@ public final class AttributeGetterSetter {
                 } else {
                     back[i] = TangoIDLAttributeUtil.toAttributeValue3(att, readValue, att.getWriteValue());
                 }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue3Error(names[i], (DevFailed) e.getCause());
-                }
+            } catch (final DevFailed e) {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue3Error(names[i], e);
             }
         }
         // get attributes values
@@ -506,18 +501,12 @@ public final class AttributeGetterSetter {
         for (final Entry<Integer, AttributeImpl> attribute : cacheAttributes.entrySet()) {
             final AttributeImpl att = attribute.getValue();
             final int i = attribute.getKey();
-            try {
-                LOGGER.debug("read from CACHE {}", att.getName());
-                final AttributeValue readValue = cacheManager.getAttributeCacheElement(att);
-                if (readValue == null) {
-                    throw DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache");
-                } else {
-                    back[i] = TangoIDLAttributeUtil.toAttributeValue(att, readValue);
-                }
-            } catch (final CacheException e) {
-                if (e.getCause() instanceof DevFailed) {
-                    throw (DevFailed) e.getCause();
-                }
+            LOGGER.debug("read from CACHE {}", att.getName());
+            final AttributeValue readValue = cacheManager.getAttributeCacheElement(att);
+            if (readValue == null) {
+                throw DevFailedUtils.newDevFailed("CACHE_ERROR", names[i] + " not available from cache");
+            } else {
+                back[i] = TangoIDLAttributeUtil.toAttributeValue(att, readValue);
             }
         }
         // get attributes values
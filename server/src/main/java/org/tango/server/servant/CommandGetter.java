@@ -43,10 +43,14 @@ public class CommandGetter {
      */
     public static CommandImpl getCommand(final String name, final List<CommandImpl> commandList) throws DevFailed {
         CommandImpl result = null;
-        for (final CommandImpl command : commandList) {
-            if (command.getName().equalsIgnoreCase(name)) {
-                result = command;
-                break;
+        if (commandList instanceof NameIndexedList) {
+            result = ((NameIndexedList<CommandImpl>) commandList).get(name);
+        } else {
+            for (final CommandImpl command : commandList) {
+                if (command.getName().equalsIgnoreCase(name)) {
+                    result = command;
+                    break;
+                }
             }
         }
         if (result == null) {
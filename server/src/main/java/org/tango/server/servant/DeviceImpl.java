@@ -68,7 +68,13 @@ import org.tango.utils.DevFailedUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The CORBA servant for a tango device server in IDL 5.
@@ -122,11 +128,12 @@ public class DeviceImpl extends Device_5POA {
     /**
      * the device's attributes
      */
-    private final List<AttributeImpl> attributeList = new ArrayList<AttributeImpl>();
+    private final NameIndexedList<AttributeImpl> attributeList = new NameIndexedList<AttributeImpl>(
+            AttributeImpl::getName);
     /**
      * the device's commands
      */
-    private final List<CommandImpl> commandList = new ArrayList<CommandImpl>();
+    private final NameIndexedList<CommandImpl> commandList = new NameIndexedList<CommandImpl>(CommandImpl::getName);
 
     // default attributes
     /**
@@ -211,7 +218,19 @@ public class DeviceImpl extends Device_5POA {
     /**
      * Check all attributes alarms while get state of the device
      */
-    private boolean stateCheckAttrAlarm = false;
+    private volatile boolean stateCheckAttrAlarm = false;
+    /**
+     * See {@link Constants#STATE_CHECK_ALARMS_MAX_AGE}
+     */
+    private volatile long stateCheckAlarmsMaxAge = Constants.STATE_CHECK_ALARMS_MAX_AGE;
+    /**
+     * See {@link Constants#STATE_CHECK_ALARMS_THREADS}
+     */
+    private volatile int stateCheckAlarmsThreads = Constants.STATE_CHECK_ALARMS_THREADS;
+    /**
+     * Threads of this device reading its attributes in parallel when checking alarms, created on first use
+     */
+    private ThreadPoolExecutor alarmCheckExecutor;
     private int minPolling = 0;
     private DeviceScheduler deviceScheduler;
     private PollingManager pollingManager;
@@ -329,6 +348,21 @@ public class DeviceImpl extends Device_5POA {
     public void setStateCheckAttrAlarm(final boolean stateCheckAttrAlarm) {
         logger.debug("update all attributes when reading state of status {}", stateCheckAttrAlarm);
         this.stateCheckAttrAlarm = stateCheckAttrAlarm;
+        if (stateCheckAttrAlarm) {
+            // the alarms are then updated by the attributes themselves
+            for (final AttributeImpl attr : getAttributeList()) {
+                attributeAlarmChanged(attr);
+            }
+        }
+    }
+
+    void setStateCheckAlarmsMaxAge(final long stateCheckAlarmsMaxAge) {
+        this.stateCheckAlarmsMaxAge = stateCheckAlarmsMaxAge;
+    }
+
+    void setStateCheckAlarmsThreads(final int stateCheckAlarmsThreads) {
+        this.stateCheckAlarmsThreads = stateCheckAlarmsThreads;
+        stopAlarmCheck();
     }
 
     public void setPolledAttributes(final String[] pollAttributes) {
@@ -472,15 +506,9 @@ public class DeviceImpl extends Device_5POA {
      */
     public synchronized void addAttribute(final AttributeImpl attribute) throws DevFailed {
         // add attribute only if it doesn't exists
-        AttributeImpl result = null;
-        for (final AttributeImpl attr : attributeList) {
-            if (attr.getName().equalsIgnoreCase(attribute.getName())) {
-                result = attribute;
-                break;
-            }
-        }
-        if (result == null) {
+        if (attributeList.get(attribute.getName()) == null) {
             attributeList.add(attribute);
+            attribute.setAlarmListener(this::attributeAlarmChanged);
             // set default polling configuration
             if (attrPollRingDepth.containsKey(attribute.getName().toLowerCase(Locale.ENGLISH))) {
                 attribute.setPollRingDepth(attrPollRingDepth.get(attribute.getName().toLowerCase(Locale.ENGLISH)));
@@ -504,6 +532,16 @@ public class DeviceImpl extends Device_5POA {
         statusImpl.removeAttributeAlarm(attribute.getName());
         stateImpl.removeAttributeAlarm(attribute.getName());
         attributeList.remove(attribute);
+        attribute.closeHistory();
+    }
+
+    /**
+     * Release the history of the attributes, when the device is removed
+     */
+    public synchronized void closeHistory() {
+        for (final AttributeImpl attribute : attributeList) {
+            attribute.closeHistory();
+        }
     }
 
     /**
@@ -551,6 +589,17 @@ public class DeviceImpl extends Device_5POA {
         return new ArrayList<AttributeImpl>(attributeList);
     }
 
+    /**
+     * Get an attribute
+     *
+     * @param name
+     * @return The attribute
+     * @throws DevFailed
+     */
+    public AttributeImpl getAttribute(final String name) throws DevFailed {
+        return AttributeGetterSetter.getAttribute(name, attributeList);
+    }
+
     /**
      * Get a command
      *
@@ -705,6 +754,7 @@ public class DeviceImpl extends Device_5POA {
         PropertiesUtils.clearClassCache(className);
         stopPolling();
         pollingManager.removeAll();
+        stopAlarmCheck();
         if (deviceScheduler != null) {
             deviceScheduler.stop();
         }
@@ -1522,7 +1572,7 @@ public class DeviceImpl extends Device_5POA {
     }
 
     /**
-     * Update polling cache
+     * Update polling cache. Triggers received while the object is being updated are coalesced into one more update.
      *
      * @param objectName The command or attribute to update
      * @throws DevFailed
@@ -1920,14 +1970,7 @@ public class DeviceImpl extends Device_5POA {
      * @throws DevFailed
      */
     public synchronized void addCommand(final CommandImpl command) throws DevFailed {
-        CommandImpl result = null;
-        for (final CommandImpl cmd : commandList) {
-            if (command.getName().equalsIgnoreCase(cmd.getName())) {
-                result = command;
-                break;
-            }
-        }
-        if (result == null) {
+        if (commandList.get(command.getName()) == null) {
             commandList.add(command);
             // set default polling configuration
             if (cmdPollRingDepth.containsKey(command.getName().toLowerCase(Locale.ENGLISH))) {
@@ -2164,42 +2207,111 @@ public class DeviceImpl extends Device_5POA {
         return state;
     }
 
-    private void checkAlarms() throws DevFailed {
-        final List<AttributeImpl> attrs = getAttributeList();
-        logger.debug("State: Number of attribute(s) to read: {}", attrs.size() - 2);
+    /**
+     * The alarms of the attributes are kept up to date on each update of their values. Reading the state only reads
+     * again the not polled attributes whose values are too old, see {@link Constants#STATE_CHECK_ALARMS_MAX_AGE}.
+     */
+    private void checkAlarms() {
+        final long maxAge = stateCheckAlarmsMaxAge;
+        if (maxAge >= 0) {
+            refreshAlarmAttributes(maxAge);
+        }
+        stateImpl.checkAttributeAlarms();
+        state = stateImpl.getState();
+    }
+
+    private void refreshAlarmAttributes(final long maxAge) {
+        final List<AttributeImpl> attrs = new ArrayList<AttributeImpl>();
+        for (final AttributeImpl attr : getAttributeList()) {
+            // refresh value only if not polled
+            if (!attr.getName().equals(STATE_NAME) && !attr.getName().equals(STATUS_NAME) && !attr.isPolled()
+                    && !attr.isFwdAttribute() && attr.isValueOlderThan(maxAge)) {
+                attrs.add(attr);
+            }
+        }
+        logger.debug("State: Number of attribute(s) to read: {}", attrs.size());
+        if (stateCheckAlarmsThreads > 1 && attrs.size() > 1) {
+            final List<Callable<Void>> reads = new ArrayList<Callable<Void>>(attrs.size());
+            for (final AttributeImpl attr : attrs) {
+                reads.add(() -> {
+                    refreshAlarmAttribute(attr);
+                    return null;
+                });
+            }
+            try {
+                getAlarmCheckExecutor().invokeAll(reads);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            for (final AttributeImpl attr : attrs) {
+                refreshAlarmAttribute(attr);
+            }
+        }
+    }
+
+    private static void refreshAlarmAttribute(final AttributeImpl attr) {
+        attr.lock();
+        try {
+            attr.updateValue();
+        } catch (final DevFailed e) {
+            // the alarm of the last value is kept
+        } finally {
+            attr.unlock();
+        }
+    }
 
-        for (final AttributeImpl attr : attrs) {
+    private void attributeAlarmChanged(final AttributeImpl attr) {
+        if (stateCheckAttrAlarm && stateImpl != null && statusImpl != null) {
             try {
-                if (!attr.getName().equals(STATE_NAME) && !attr.getName().equals(STATUS_NAME)) {
-                    if (!attr.isPolled() && !attr.isFwdAttribute()) {
-                        // refresh value only if not polled
-                        attr.lock();
-                        try {
-                            attr.updateValue();
-                        } finally {
-                            attr.unlock();
-                        }
-                    }
-                }
+                updateAttributeAlarm(attr);
             } catch (final DevFailed e) {
+                logger.error("cannot update alarm of " + attr.getName(), e);
             }
+        }
+    }
 
-            if (attr.isOutOfLimits()) {
-                // update device state and status with alarm
-                logger.debug("{} is out of limits", attr.getName());
-                stateImpl.addAttributeAlarm(attr.getName());
-                statusImpl.addAttributeAlarm(attr.getName(), attr.isAlarmToHigh());
-            } else if (attr.isDeltaAlarm()) {
-                logger.debug("{} has a delta alarm", attr.getName());
-                // update device state and status with alarm
-                stateImpl.addAttributeAlarm(attr.getName());
-                statusImpl.addDeltaAttributeAlarm(attr.getName());
-            } else {
-                statusImpl.removeAttributeAlarm(attr.getName());
-                stateImpl.removeAttributeAlarm(attr.getName());
-            }
+    private void updateAttributeAlarm(final AttributeImpl attr) throws DevFailed {
+        if (attr.isOutOfLimits()) {
+            // update device state and status with alarm
+            logger.debug("{} is out of limits", attr.getName());
+            stateImpl.addAttributeAlarm(attr.getName());
+            statusImpl.addAttributeAlarm(attr.getName(), attr.isAlarmToHigh());
+        } else if (attr.isDeltaAlarm()) {
+            logger.debug("{} has a delta alarm", attr.getName());
+            // update device state and status with alarm
+            stateImpl.addAttributeAlarm(attr.getName());
+            statusImpl.addDeltaAttributeAlarm(attr.getName());
+        } else {
+            statusImpl.removeAttributeAlarm(attr.getName());
+            stateImpl.removeAttributeAlarm(attr.getName());
+        }
+    }
+
+    /**
+     * @return the threads of this device reading its attributes when checking alarms. Idle threads are released, so
+     *         that a device whose state is not read does not keep them.
+     */
+    private synchronized ExecutorService getAlarmCheckExecutor() {
+        if (alarmCheckExecutor == null) {
+            final int threads = Math.max(1, stateCheckAlarmsThreads);
+            final AtomicInteger threadNr = new AtomicInteger(0);
+            alarmCheckExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), r -> {
+                        final Thread thread = new Thread(r, "Alarm check " + name + " " + threadNr.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            alarmCheckExecutor.allowCoreThreadTimeOut(true);
+        }
+        return alarmCheckExecutor;
+    }
+
+    private synchronized void stopAlarmCheck() {
+        if (alarmCheckExecutor != null) {
+            alarmCheckExecutor.shutdown();
+            alarmCheckExecutor = null;
         }
-        state = stateImpl.getState();
     }
 
     /**
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * List of attributes or commands of a device, indexed by their names ignoring case. A lookup with the name as
+ * declared is a single hash lookup; only a name in another case is converted to lower case.
+ *
+ * @param <E> the element type
+ */
+final class NameIndexedList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> elements = new ArrayList<E>();
+    private final Map<String, E> byName = new ConcurrentHashMap<String, E>();
+    private final Map<String, E> byLowerCaseName = new ConcurrentHashMap<String, E>();
+    private final Function<E, String> nameGetter;
+
+    /**
+     * Ctr
+     *
+     * @param nameGetter gets the name of an element
+     */
+    NameIndexedList(final Function<E, String> nameGetter) {
+        this.nameGetter = nameGetter;
+    }
+
+    /**
+     * Find an element by its name, ignoring case
+     *
+     * @param name the name
+     * @return the first element with this name, or null
+     */
+    E get(final String name) {
+        final E element = byName.get(name);
+        if (element != null) {
+            return element;
+        }
+        return byLowerCaseName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public E get(final int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        elements.add(index, element);
+        modCount++;
+        index(element);
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        final E previous = elements.set(index, element);
+        unindex(previous);
+        index(element);
+        return previous;
+    }
+
+    @Override
+    public E remove(final int index) {
+        final E removed = elements.remove(index);
+        modCount++;
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        modCount++;
+        byName.clear();
+        byLowerCaseName.clear();
+    }
+
+    private void index(final E element) {
+        final String name = nameGetter.apply(element);
+        byName.putIfAbsent(name, element);
+        byLowerCaseName.putIfAbsent(name.toLowerCase(Locale.ENGLISH), element);
+    }
+
+    private void unindex(final E element) {
+        final String name = nameGetter.apply(element);
+        byName.remove(name, element);
+        final String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+        if (byLowerCaseName.remove(lowerCaseName, element)) {
+            // another element may have the same name
+            for (final E other : elements) {
+                final String otherName = nameGetter.apply(other);
+                if (otherName.toLowerCase(Locale.ENGLISH).equals(lowerCaseName)) {
+                    byName.putIfAbsent(otherName, other);
+                    byLowerCaseName.putIfAbsent(lowerCaseName, other);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -135,6 +135,7 @@ public final class ORBUtils {
     public static void unexportDevice(final DeviceImpl device) throws DevFailed {
         XLOGGER.entry(device.getName());
         device.deleteDevice();
+        device.closeHistory();
         final POA poa = ORBManager.getPoa();
         try {
             poa.deactivate_object(device.getObjId());
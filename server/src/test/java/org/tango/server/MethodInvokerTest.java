@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MethodInvokerTest {
+
+    public static class Device {
+        private double value;
+
+        public double getValue() {
+            return value;
+        }
+
+        public void setValue(final double value) {
+            this.value = value;
+        }
+
+        public String echo(final String text) {
+            return text;
+        }
+
+        public void fail() throws Exception {
+            throw new IllegalStateException("failed");
+        }
+
+        public static int getStatic() {
+            return 3;
+        }
+    }
+
+    private final Device device = new Device();
+
+    @Test
+    public void primitiveGetterAndSetter() throws Exception {
+        final MethodInvoker setter = MethodInvoker.of(Device.class.getMethod("setValue", double.class));
+        final MethodInvoker getter = MethodInvoker.of(Device.class.getMethod("getValue"));
+        assertEquals("LambdaInvoker", getter.getClass().getSimpleName());
+        assertNull(setter.invoke(device, 2.5));
+        assertEquals(2.5, getter.invoke(device));
+    }
+
+    @Test
+    public void function() throws Exception {
+        final MethodInvoker echo = MethodInvoker.of(Device.class.getMethod("echo", String.class));
+        assertEquals("text", echo.invoke(device, "text"));
+    }
+
+    @Test
+    public void exceptionIsWrapped() throws Exception {
+        final MethodInvoker invoker = MethodInvoker.of(Device.class.getMethod("fail"));
+        try {
+            invoker.invoke(device);
+            fail();
+        } catch (final InvocationTargetException e) {
+            assertSame(IllegalStateException.class, e.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void staticMethodByReflection() throws Exception {
+        final MethodInvoker invoker = MethodInvoker.of(Device.class.getMethod("getStatic"));
+        assertEquals(3, invoker.invoke(device));
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.TangoDs.TangoConst;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AttributeHistoryTest {
+
+    private static final String DEVICE = "test/history/1";
+    private static final DevError[] NO_ERROR = new DevError[0];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File getFile(final String attributeName) {
+        return new File(folder.getRoot(), DEVICE + File.separator + attributeName + ".hist");
+    }
+
+    private static AttributeValue value(final Object value, final long time) {
+        return new AttributeValue(value, AttrQuality.ATTR_VALID, 1, 0, time);
+    }
+
+    @Before
+    public void before() {
+        System.setProperty(AttributeHistory.HISTORY_DIR, folder.getRoot().getAbsolutePath());
+        System.setProperty(AttributeHistory.HISTORY_DEPTH, "10");
+    }
+
+    @After
+    public void after() {
+        System.clearProperty(AttributeHistory.HISTORY_DIR);
+        System.clearProperty(AttributeHistory.HISTORY_DEPTH);
+    }
+
+    @Test
+    public void noFileForStringScalar() {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "stringScalar", false,
+                TangoConst.Tango_DEV_STRING, AttrDataFormat.SCALAR);
+        history.addToHistory(value("a", 1), null, NO_ERROR);
+        history.addToHistory(value("b", 2), null, NO_ERROR);
+        assertEquals(2, history.size());
+        assertFalse(getFile("stringscalar").exists());
+    }
+
+    @Test
+    public void fileCreatedForPrimitiveScalar() {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        history.addToHistory(value(1.0, 1), null, NO_ERROR);
+        assertTrue(getFile("doublescalar").exists());
+    }
+
+    @Test
+    public void kindMismatchKeepsFile() throws IOException {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        for (int i = 0; i < 3; i++) {
+            history.addToHistory(value((double) i, i), null, NO_ERROR);
+        }
+
+        // restart
+        final AttributeHistory restarted = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        assertEquals(3, restarted.size());
+        restarted.addToHistory(null, null, NO_ERROR);
+        assertEquals(4, restarted.size());
+
+        final File file = getFile("doublescalar");
+        assertTrue(file.exists());
+        final ScalarHistoryRing persisted = new ScalarHistoryRing(false, MappedHistoryRecords.open(file,
+                "doubleScalar", false, 10));
+        assertEquals(3, persisted.size());
+        persisted.close();
+    }
+
+    @Test
+    public void clearKeepsAndResetTruncatesPersistentHistory() {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        for (int i = 0; i < 3; i++) {
+            history.addToHistory(value((double) i, i), null, NO_ERROR);
+        }
+        // polling reconfigured
+        history.clear();
+        assertEquals(3, history.size());
+
+        // history filled again
+        history.reset();
+        assertEquals(0, history.size());
+        history.addToHistory(value(10.0, 10), null, NO_ERROR);
+        history.close();
+
+        final AttributeHistory restarted = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        assertEquals(1, restarted.size());
+        restarted.close();
+    }
+
+    @Test
+    public void resetBeforeFirstValueTruncatesFile() {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        history.addToHistory(value(1.0, 1), null, NO_ERROR);
+        history.close();
+
+        // restart, the file is not opened yet
+        final AttributeHistory restarted = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        restarted.reset();
+        assertEquals(0, restarted.size());
+        restarted.close();
+        assertEquals(0, new AttributeHistory(DEVICE, "doubleScalar", false, TangoConst.Tango_DEV_DOUBLE,
+                AttrDataFormat.SCALAR).size());
+    }
+
+    @Test
+    public void closeReleasesFile() {
+        final AttributeHistory history = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        history.addToHistory(value(1.0, 1), null, NO_ERROR);
+        history.close();
+        // removed attribute still polled until its polling is stopped: kept in memory only
+        history.addToHistory(value(2.0, 2), null, NO_ERROR);
+        assertEquals(1, history.size());
+
+        // attribute added again
+        final AttributeHistory added = new AttributeHistory(DEVICE, "doubleScalar", false,
+                TangoConst.Tango_DEV_DOUBLE, AttrDataFormat.SCALAR);
+        assertEquals(1, added.size());
+        added.addToHistory(value(3.0, 3), null, NO_ERROR);
+        assertEquals(2, added.size());
+        added.close();
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.ErrSeverity;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedHistoryRecordsTest {
+
+    private static final DevError[] NO_ERROR = new DevError[0];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoreAfterReopen() throws IOException {
+        final File file = new File(folder.getRoot(), "test/device/1/att.hist");
+        final ScalarHistoryRing ring = new ScalarHistoryRing(true, MappedHistoryRecords.open(file, "att", true, 3));
+        for (int i = 0; i < 5; i++) {
+            final DevError[] error = i == 3 ? new DevError[]{new DevError("reason", ErrSeverity.ERR, "desc",
+                    "origin")} : NO_ERROR;
+            ring.add(new AttributeValue(i, AttrQuality.ATTR_VALID, 1, 0, i),
+                    new AttributeValue(10 + i, AttrQuality.ATTR_VALID, 1, 0, i), error);
+        }
+        assertTrue(file.exists());
+
+        final MappedHistoryRecords records = MappedHistoryRecords.open(file, "att", true, 3);
+        final ScalarHistoryRing restored = new ScalarHistoryRing(true, records);
+        assertEquals(3, restored.size());
+        assertArrayEquals(new int[]{4, 14, 2, 12}, (int[]) restored.getValues(10));
+        // entry 3 failed, its error is not persisted
+        boolean failed = false;
+        for (int slot = 0; slot < records.getCapacity(); slot++) {
+            if (records.isFailed(slot)) {
+                failed = true;
+                assertEquals("HISTORY_ERROR", records.getError(slot)[0].reason);
+            }
+        }
+        assertTrue(failed);
+    }
+
+    @Test
+    public void resetOnOtherLayout() throws IOException {
+        final File file = new File(folder.getRoot(), "att.hist");
+        final ScalarHistoryRing ring = new ScalarHistoryRing(false, MappedHistoryRecords.open(file, "att", false, 3));
+        ring.add(new AttributeValue(1.0, AttrQuality.ATTR_VALID, 1, 0, 0), null, NO_ERROR);
+        final ScalarHistoryRing other = new ScalarHistoryRing(false, MappedHistoryRecords.open(file, "att", false, 5));
+        assertEquals(0, other.size());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.AttrWriteType;
+import fr.esrf.Tango.DevFailed;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ReflectAttributeBehaviorTest {
+
+    private static final String DEVICE = "test/reflect/1";
+
+    public static final class FlatImageDevice {
+        private FlatImage<double[]> image;
+
+        public void setImage(final FlatImage<double[]> image) {
+            this.image = image;
+        }
+    }
+
+    private static AttributeConfiguration createConfiguration(final boolean isTransferValueOwnership)
+            throws DevFailed {
+        final AttributeConfiguration config = new AttributeConfiguration();
+        config.setName("image");
+        config.setType(double[][].class);
+        config.setFlatImage(true);
+        config.setWritable(AttrWriteType.WRITE);
+        config.setMaxX(10);
+        config.setMaxY(10);
+        config.setTransferValueOwnership(isTransferValueOwnership);
+        return config;
+    }
+
+    private static AttributeValue createImage(final double[] data) {
+        return new AttributeValue(data, AttrQuality.ATTR_VALID, 3, 2, System.currentTimeMillis());
+    }
+
+    @Test
+    public void flatImageSetter() throws Exception {
+        final FlatImageDevice device = new FlatImageDevice();
+        final ReflectAttributeBehavior behavior = new ReflectAttributeBehavior(createConfiguration(false), device,
+                null, FlatImageDevice.class.getMethod("setImage", FlatImage.class));
+        final double[] data = {1, 2, 3, 4, 5, 6};
+
+        behavior.setValue(createImage(data));
+
+        assertSame(data, device.image.getData());
+        assertEquals(3, device.image.getDimX());
+        assertEquals(2, device.image.getDimY());
+    }
+
+    @Test
+    public void writtenFlatImageIsCopied() throws Exception {
+        final FlatImageDevice device = new FlatImageDevice();
+        final AttributeImpl attribute = new AttributeImpl(new ReflectAttributeBehavior(createConfiguration(false),
+                device, null, FlatImageDevice.class.getMethod("setImage", FlatImage.class)), DEVICE);
+        final double[] data = {1, 2, 3, 4, 5, 6};
+
+        attribute.setValue(createImage(data));
+
+        assertSame(data, device.image.getData());
+        assertEquals(3, device.image.getDimX());
+        assertEquals(2, device.image.getDimY());
+        // the write value is a copy
+        assertNotSame(data, attribute.getWriteValue().getValue());
+        assertArrayEquals(data, (double[]) attribute.getWriteValue().getValue(), 0);
+    }
+
+    @Test
+    public void writtenFlatImageIsSharedWhenOwnershipIsTransferred() throws Exception {
+        final FlatImageDevice device = new FlatImageDevice();
+        final AttributeImpl attribute = new AttributeImpl(new ReflectAttributeBehavior(createConfiguration(true),
+                device, null, FlatImageDevice.class.getMethod("setImage", FlatImage.class)), DEVICE);
+        final double[] data = {1, 2, 3, 4, 5, 6};
+
+        attribute.setValue(createImage(data));
+
+        assertSame(data, device.image.getData());
+        assertSame(data, attribute.getWriteValue().getValue());
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrQuality;
+import fr.esrf.Tango.DevError;
+import fr.esrf.Tango.ErrSeverity;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScalarHistoryRingTest {
+
+    private static final DevError[] NO_ERROR = new DevError[0];
+    private static final DevError[] ERROR = new DevError[]{new DevError("reason", ErrSeverity.ERR, "desc",
+            "origin")};
+
+    @Test
+    public void newestValuesFirst() {
+        final ScalarHistoryRing ring = new ScalarHistoryRing(true, 4);
+        for (int i = 0; i < 6; i++) {
+            final AttributeValue read = new AttributeValue((double) i, AttrQuality.ATTR_VALID, 1, 0, 1000 + i);
+            final AttributeValue write = new AttributeValue(10.0 + i, AttrQuality.ATTR_VALID, 1, 0, 1000 + i);
+            assertTrue(ring.add(read, write, i == 4 ? ERROR : NO_ERROR));
+        }
+        assertEquals(4, ring.size());
+        // entries 3, 4 and 5, 4 has failed
+        assertArrayEquals(new double[]{5, 15, 3, 13}, (double[]) ring.getValues(3), 0);
+        assertArrayEquals(new double[]{5, 15, 3, 13, 2, 12}, (double[]) ring.getValues(10), 0);
+    }
+
+    @Test
+    public void onlyErrors() {
+        final ScalarHistoryRing ring = new ScalarHistoryRing(false, 4);
+        assertTrue(ring.add(new AttributeValue(), null, ERROR));
+        assertEquals(1, ring.size());
+        assertNull(ring.getValues(10));
+    }
+
+    @Test
+    public void rejectOtherValues() {
+        final ScalarHistoryRing ring = new ScalarHistoryRing(false, 4);
+        assertTrue(ring.add(new AttributeValue(1, AttrQuality.ATTR_VALID, 1, 0, 0), null, NO_ERROR));
+        assertFalse(ring.add(new AttributeValue("a", AttrQuality.ATTR_VALID, 1, 0, 0), null, NO_ERROR));
+        assertFalse(ring.add(new AttributeValue(2L, AttrQuality.ATTR_VALID, 1, 0, 0), null, NO_ERROR));
+        assertFalse(ring.add(new AttributeValue(new int[]{1}, AttrQuality.ATTR_VALID, 1, 0, 0), null, NO_ERROR));
+        final Deque<HistoryItem> items = new ArrayDeque<HistoryItem>();
+        ring.drainTo(items, 4);
+        assertEquals(1, items.size());
+        assertEquals(1, items.peek().getReadValue().getValue());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void resize() {
+        final ScalarHistoryRing ring = new ScalarHistoryRing(false, 4);
+        for (int i = 0; i < 4; i++) {
+            ring.add(new AttributeValue((short) i, AttrQuality.ATTR_VALID, 1, 0, i), null, NO_ERROR);
+        }
+        final ScalarHistoryRing resized = new ScalarHistoryRing(false, 2);
+        ring.drainTo(resized);
+        assertArrayEquals(new short[]{3, 2}, (short[]) resized.getValues(10));
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.attribute;
+
+import fr.esrf.Tango.AttrWriteType;
+import fr.esrf.Tango.DevFailed;
+import org.tango.server.StateMachineBehavior;
+
+/**
+ * Read only attribute for the tests, whose value is given by a reader. The configuration may be completed before
+ * building the attribute.
+ */
+public final class TestAttributeBehavior implements IAttributeBehavior {
+
+    public interface Reader {
+        AttributeValue read() throws DevFailed;
+    }
+
+    private final AttributeConfiguration config = new AttributeConfiguration();
+    private final Reader reader;
+
+    public TestAttributeBehavior(final String name, final Class<?> type, final Reader reader) throws DevFailed {
+        this.reader = reader;
+        config.setName(name);
+        config.setType(type);
+        config.setWritable(AttrWriteType.READ);
+    }
+
+    /**
+     * @return the attribute of a device
+     * @throws DevFailed
+     */
+    public AttributeImpl build(final String deviceName) throws DevFailed {
+        return new AttributeImpl(this, deviceName);
+    }
+
+    @Override
+    public AttributeConfiguration getConfiguration() {
+        return config;
+    }
+
+    @Override
+    public AttributeValue getValue() throws DevFailed {
+        return reader.read();
+    }
+
+    @Override
+    public void setValue(final AttributeValue value) {
+    }
+
+    @Override
+    public StateMachineBehavior getStateMachine() {
+        return null;
+    }
+}
@@ -26,6 +26,7 @@ package org.tango.server.attribute;
 
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
@@ -34,6 +35,7 @@ import org.junit.Test;
 import org.tango.DeviceState;
 import org.tango.utils.ArrayUtils;
 
+import fr.esrf.Tango.AttrQuality;
 import fr.esrf.Tango.DevEncoded;
 import fr.esrf.Tango.DevFailed;
 import fr.esrf.Tango.DevState;
@@ -177,4 +179,39 @@ public class TestAttributeValue {
         assertThat(copy.getXDim(), equalTo(copy.getXDim()));
         assertThat(copy.getYDim(), equalTo(copy.getYDim()));
     }
+
+    @Test
+    public void testShallowCopy() throws DevFailed {
+        final AttributeValue value = new AttributeValue();
+        final int[] array = new int[] { 1, 2 };
+        value.setValue(array);
+        value.setQuality(AttrQuality.ATTR_ALARM);
+        final AttributeValue copy = value.shallowCopy();
+        assertThat(copy, not(sameInstance(value)));
+        assertThat(copy.getValue(), sameInstance((Object) array));
+        assertThat(copy.getQuality(), equalTo(AttrQuality.ATTR_ALARM));
+        assertThat(copy.getTime(), equalTo(value.getTime()));
+        assertThat(copy.getXDim(), equalTo(2));
+        assertThat(copy.getYDim(), equalTo(0));
+    }
+
+    @Test
+    public void testFlatImage() throws DevFailed {
+        final double[] array = new double[] { 10, 30, 40, 50, 60, 70 };
+        final AttributeValue value = new AttributeValue(new FlatImage<double[]>(array, 3, 2));
+        assertThat(value.getValue(), sameInstance((Object) array));
+        assertThat(value.getXDim(), equalTo(3));
+        assertThat(value.getYDim(), equalTo(2));
+        assertThat(ArrayUtils.checkDimensions(value.getValue(), value.getXDim(), value.getYDim()), equalTo(true));
+    }
+
+    @Test(expected = DevFailed.class)
+    public void testFlatImageBadDimensions() throws DevFailed {
+        new FlatImage<int[]>(new int[] { 1, 2, 3 }, 2, 2);
+    }
+
+    @Test(expected = DevFailed.class)
+    public void testFlatImageNot1D() throws DevFailed {
+        new FlatImage<int[][]>(new int[][] { { 1, 2 }, { 3, 4 } }, 2, 2);
+    }
 }
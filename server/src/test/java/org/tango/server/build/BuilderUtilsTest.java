@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.build;
+
+import fr.esrf.Tango.DevFailed;
+import org.junit.Test;
+import org.tango.server.annotation.Attribute;
+import org.tango.server.attribute.AttributeConfiguration;
+import org.tango.server.attribute.FlatImage;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BuilderUtilsTest {
+
+    @SuppressWarnings("rawtypes")
+    public static final class FlatImageDevice {
+        @Attribute
+        public FlatImage<double[]> getImage() {
+            return null;
+        }
+
+        public void setImage(final FlatImage<double[]> image) {
+        }
+
+        @Attribute
+        public void setShortImage(final FlatImage<short[]> image) {
+        }
+
+        @Attribute
+        public FlatImage getRawImage() {
+            return null;
+        }
+
+        @Attribute
+        public FlatImage<Double> getScalarImage() {
+            return null;
+        }
+
+        @Attribute
+        public FlatImage<double[][]> getImageOfImages() {
+            return null;
+        }
+
+        @Attribute
+        public FlatImage<?> getWildcardImage() {
+            return null;
+        }
+    }
+
+    private static Method getMethod(final String name) {
+        for (final Method method : FlatImageDevice.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static AttributeConfiguration getConfiguration(final String getterName, final String setterName)
+            throws DevFailed {
+        final Method getter = getterName == null ? null : getMethod(getterName);
+        final Method setter = setterName == null ? null : getMethod(setterName);
+        final Attribute annot = (getter == null ? setter : getter).getAnnotation(Attribute.class);
+        return BuilderUtils.getAttributeConfiguration(FlatImage.class, getter, setter, annot, "image");
+    }
+
+    private static void assertNotFlatImageType(final String getterName) {
+        try {
+            getConfiguration(getterName, null);
+            fail(getterName + " must not be accepted");
+        } catch (final DevFailed e) {
+            assertTrue(e.errors[0].desc, e.errors[0].desc.contains("1D array"));
+        }
+    }
+
+    @Test
+    public void imageTypeFromGetter() throws DevFailed {
+        final AttributeConfiguration config = getConfiguration("getImage", "setImage");
+        assertEquals(double[][].class, config.getType());
+        assertTrue(config.isFlatImage());
+    }
+
+    @Test
+    public void imageTypeFromSetter() throws DevFailed {
+        final AttributeConfiguration config = getConfiguration(null, "setShortImage");
+        assertEquals(short[][].class, config.getType());
+        assertTrue(config.isFlatImage());
+    }
+
+    @Test
+    public void notFlatImage() throws DevFailed {
+        final AttributeConfiguration config = BuilderUtils.getAttributeConfiguration(double[][].class,
+                getMethod("getImage"), null, getMethod("getImage").getAnnotation(Attribute.class), "image");
+        assertEquals(double[][].class, config.getType());
+        assertFalse(config.isFlatImage());
+    }
+
+    @Test
+    public void typeParameterMustBeA1DArray() {
+        assertNotFlatImageType("getRawImage");
+        assertNotFlatImageType("getScalarImage");
+        assertNotFlatImageType("getImageOfImages");
+        assertNotFlatImageType("getWildcardImage");
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import fr.esrf.Tango.DevFailed;
+import org.junit.Before;
+import org.junit.Test;
+import org.tango.server.InvocationContext;
+import org.tango.server.InvocationContext.ContextType;
+import org.tango.server.annotation.TransactionType;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.attribute.TestAttributeBehavior;
+import org.tango.server.device.AroundInvokeImpl;
+import org.tango.server.device.DeviceLocker;
+import org.tango.utils.DevFailedUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AttributeBatchRefresherTest {
+
+    private static final String DEVICE = "test/batch/1";
+
+    private final AroundInvokeRecorder recorder = new AroundInvokeRecorder();
+    private AttributeBatchRefresher batch;
+    private DeviceLocker deviceLock;
+    private AroundInvokeImpl aroundInvoke;
+
+    public static final class AroundInvokeRecorder {
+        private final List<String> calls = new ArrayList<String>();
+
+        public synchronized void aroundInvoke(final InvocationContext ctx) {
+            calls.add(ctx.getContext() + " " + Arrays.toString(ctx.getNames()));
+        }
+
+        synchronized List<String> getCalls() {
+            return new ArrayList<String>(calls);
+        }
+    }
+
+    /**
+     * An attribute returning an increasing value, or failing if the value is negative
+     */
+    private static AttributeImpl createAttribute(final String name, final AtomicInteger value) throws DevFailed {
+        return new TestAttributeBehavior(name, int.class, () -> {
+            final int current = value.incrementAndGet();
+            if (current < 0) {
+                throw DevFailedUtils.newDevFailed("read failed");
+            }
+            return new AttributeValue(current);
+        }).build(DEVICE);
+    }
+
+    private AttributeCache createCache(final String name, final AtomicInteger value) throws DevFailed {
+        return new AttributeCache(createAttribute(name, value), DEVICE, deviceLock, aroundInvoke);
+    }
+
+    private static Object getValue(final AttributeCache cache) throws DevFailed {
+        return ((AttributeValue) cache.getCache().get()).getValue();
+    }
+
+    @Before
+    public void before() throws NoSuchMethodException {
+        deviceLock = new DeviceLocker(TransactionType.DEVICE, AroundInvokeRecorder.class);
+        aroundInvoke = new AroundInvokeImpl(recorder,
+                AroundInvokeRecorder.class.getMethod("aroundInvoke", InvocationContext.class));
+        batch = new AttributeBatchRefresher(100, DEVICE, deviceLock, aroundInvoke);
+    }
+
+    @Test
+    public void attributesAreReadTogether() throws DevFailed {
+        final AttributeCache first = createCache("first", new AtomicInteger(0));
+        final AttributeCache second = createCache("second", new AtomicInteger(10));
+        batch.add(first);
+        batch.add(second);
+
+        batch.run();
+
+        assertEquals(Arrays.asList(ContextType.PRE_READ_ATTRIBUTES + " [first, second]",
+                ContextType.POST_READ_ATTRIBUTES + " [first, second]"), recorder.getCalls());
+        assertEquals(1, getValue(first));
+        assertEquals(11, getValue(second));
+    }
+
+    @Test
+    public void addAndRemoveUpdateTheBatch() throws DevFailed {
+        final AttributeCache first = createCache("first", new AtomicInteger(0));
+        final AttributeCache second = createCache("second", new AtomicInteger(10));
+        assertTrue(batch.isEmpty());
+        batch.add(first);
+        batch.run();
+        batch.add(second);
+        batch.run();
+        batch.remove(first);
+        batch.run();
+
+        final List<String> calls = recorder.getCalls();
+        assertEquals(6, calls.size());
+        assertEquals(ContextType.PRE_READ_ATTRIBUTES + " [first]", calls.get(0));
+        assertEquals(ContextType.PRE_READ_ATTRIBUTES + " [first, second]", calls.get(2));
+        assertEquals(ContextType.PRE_READ_ATTRIBUTES + " [second]", calls.get(4));
+        // first is not read any more
+        assertEquals(2, getValue(first));
+        assertEquals(12, getValue(second));
+
+        batch.remove(second);
+        assertTrue(batch.isEmpty());
+        batch.run();
+        assertEquals(6, recorder.getCalls().size());
+    }
+
+    @Test
+    public void failingAttributeDoesNotPoisonOthers() throws DevFailed {
+        final AttributeCache first = createCache("first", new AtomicInteger(0));
+        final AttributeCache failing = createCache("failing", new AtomicInteger(-10));
+        final AttributeCache last = createCache("last", new AtomicInteger(100));
+        batch.add(first);
+        batch.add(failing);
+        batch.add(last);
+
+        batch.run();
+
+        assertEquals(1, getValue(first));
+        assertEquals(101, getValue(last));
+        try {
+            getValue(failing);
+            fail("the read error must be kept");
+        } catch (final DevFailed e) {
+            assertEquals("read failed", e.errors[0].desc);
+        }
+        assertFalse(batch.isEmpty());
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PolledValueTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final AtomicInteger encodings = new AtomicInteger();
+    private final PolledValue polledValue = new PolledValue("test", () -> new StringBuilder("value" + reads.incrementAndGet()));
+    private final ICacheValueEncoder encoder = value -> {
+        encodings.incrementAndGet();
+        return value.toString();
+    };
+
+    @Test
+    public void encodedOncePerRefresh() throws Exception {
+        polledValue.refresh();
+        final Object first = polledValue.getEncoded(null, encoder);
+        assertEquals("value1", first);
+        assertSame(first, polledValue.getEncoded(null, encoder));
+        assertEquals(1, encodings.get());
+
+        polledValue.refresh();
+        assertEquals("value2", polledValue.getEncoded(null, encoder));
+        assertEquals(2, encodings.get());
+    }
+
+    @Test
+    public void encodedAgainWhenKeyChanges() throws Exception {
+        polledValue.refresh();
+        final Object key = new Object();
+        final Object first = polledValue.getEncoded(key, encoder);
+        assertSame(first, polledValue.getEncoded(key, encoder));
+        assertNotSame(first, polledValue.getEncoded(new Object(), encoder));
+        assertEquals(2, encodings.get());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void triggersCoalescedWhileRefreshing() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger blockingReads = new AtomicInteger();
+        final PolledValue triggered = new PolledValue("test", () -> {
+            if (blockingReads.incrementAndGet() == 1) {
+                started.countDown();
+                awaitUninterruptibly(release);
+            }
+            return blockingReads.get();
+        }, 0);
+        final Thread first = new Thread(() -> {
+            try {
+                triggered.trigger();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            triggered.trigger();
+        }
+        release.countDown();
+        first.join(5000);
+        // one follow-up read for the ten triggers
+        assertEquals(2, blockingReads.get());
+        assertEquals(2, triggered.get());
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void triggersSpaced() throws Exception {
+        final PolledValue spaced = new PolledValue("test", () -> reads.incrementAndGet(),
+                TimeUnit.MILLISECONDS.toNanos(50));
+        final long start = System.nanoTime();
+        spaced.trigger();
+        spaced.trigger();
+        spaced.trigger();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    public void triggersSpacedWhenInterrupted() throws Exception {
+        final PolledValue spaced = new PolledValue("test", () -> reads.incrementAndGet(),
+                TimeUnit.MILLISECONDS.toNanos(50));
+        final long start = System.nanoTime();
+        Thread.currentThread().interrupt();
+        try {
+            spaced.trigger();
+            spaced.trigger();
+            spaced.trigger();
+        } finally {
+            // the interrupted status is kept
+            assertTrue(Thread.interrupted());
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    public void firstTriggerReturnsDuringSustainedBurst() throws Exception {
+        final AtomicBoolean isBursting = new AtomicBoolean(true);
+        final ExecutorService burst = Executors.newCachedThreadPool();
+        final AtomicReference<PolledValue> triggered = new AtomicReference<PolledValue>();
+        triggered.set(new PolledValue("test", () -> {
+            final int read = reads.incrementAndGet();
+            if (isBursting.get()) {
+                // another trigger arrives during each read
+                final Future<?> trigger = burst.submit(() -> {
+                    triggered.get().trigger();
+                    return null;
+                });
+                try {
+                    trigger.get(100, TimeUnit.MILLISECONDS);
+                } catch (final TimeoutException e) {
+                    // this trigger started a new refresh, waiting for this one
+                } catch (final InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return read;
+        }, 0));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> first = executor.submit(() -> {
+                triggered.get().trigger();
+                return null;
+            });
+            // returns after its follow-up refresh although triggers keep coming
+            first.get(5, TimeUnit.SECONDS);
+            assertTrue(reads.get() >= 2);
+        } finally {
+            isBursting.set(false);
+            executor.shutdownNow();
+            burst.shutdown();
+            assertTrue(burst.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+}
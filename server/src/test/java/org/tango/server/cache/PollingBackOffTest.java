@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PollingBackOffTest {
+
+    @Test
+    public void fullRateBelowThreshold() {
+        assertEquals(1, PollingBackOff.getCycles(0, 3, 100, 1000));
+        assertEquals(1, PollingBackOff.getCycles(2, 3, 100, 1000));
+    }
+
+    @Test
+    public void doubleAfterThreshold() {
+        assertEquals(2, PollingBackOff.getCycles(3, 3, 100, 1000));
+        assertEquals(4, PollingBackOff.getCycles(4, 3, 100, 1000));
+        assertEquals(8, PollingBackOff.getCycles(5, 3, 100, 1000));
+    }
+
+    @Test
+    public void limitedToMaxPeriod() {
+        assertEquals(10, PollingBackOff.getCycles(6, 3, 100, 1000));
+        assertEquals(10, PollingBackOff.getCycles(1000, 3, 100, 1000));
+        // max period below the polling period
+        assertEquals(1, PollingBackOff.getCycles(10, 3, 2000, 1000));
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PollingTaskTest {
+
+    @Test
+    public void noOverrun() {
+        assertEquals(0, PollingTask.missedCycles(1000, 1000, 100));
+        assertEquals(0, PollingTask.missedCycles(1000, 1099, 100));
+    }
+
+    @Test
+    public void skipMissedCycles() {
+        assertEquals(1, PollingTask.missedCycles(1000, 1100, 100));
+        assertEquals(2, PollingTask.missedCycles(1000, 1250, 100));
+    }
+
+    @Test
+    public void lateStartCountsAsMissed() {
+        // scheduled at 1000, started at 1180 and ended at 1190
+        assertEquals(1, PollingTask.missedCycles(1000, 1190, 100));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.cache;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualPollingLaneTest {
+
+    @Test
+    public void concurrencyIsLimited() throws Exception {
+        final VirtualPollingLane lane = new VirtualPollingLane(2, new TangoCacheThreadFactory());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // each task waits for another one, so the tasks can only complete if two of them run at once
+        final CyclicBarrier together = new CyclicBarrier(2);
+        final AtomicInteger notTogether = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(6);
+        try {
+            for (int i = 0; i < 6; i++) {
+                lane.schedule(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        together.await(5, TimeUnit.SECONDS);
+                    } catch (final Exception e) {
+                        notTogether.incrementAndGet();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(0, notTogether.get());
+            assertTrue(maxRunning.get() <= 2);
+        } finally {
+            lane.shutdownNow();
+        }
+    }
+
+    @Test
+    public void platformThreadsAreLimited() throws Exception {
+        Assume.assumeTrue("virtual threads are used", Runtime.version().feature() < 21);
+        final VirtualPollingLane lane = new VirtualPollingLane(2, new TangoCacheThreadFactory());
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(6);
+        try {
+            for (int i = 0; i < 6; i++) {
+                lane.schedule(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    try {
+                        blocked.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+            // all cycles dispatched by the timer while the first ones are blocked
+            final long timeout = System.currentTimeMillis() + 5000;
+            while (lane.getCompletedTaskCount() < 6 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+            assertEquals(6, lane.getCompletedTaskCount());
+            blocked.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            // the waiting cycles did not hold a thread each
+            assertTrue(threads.toString(), threads.size() <= 2);
+        } finally {
+            blocked.countDown();
+            lane.shutdownNow();
+        }
+    }
+
+    @Test
+    public void blockedCycleDoesNotDelayTimer() throws Exception {
+        final VirtualPollingLane lane = new VirtualPollingLane(2, new TangoCacheThreadFactory());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch other = new CountDownLatch(1);
+        try {
+            lane.schedule(() -> {
+                try {
+                    blocked.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+            lane.schedule(other::countDown, 10, TimeUnit.MILLISECONDS);
+            assertTrue(other.await(5, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+            lane.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import fr.esrf.Tango.DevFailed;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.attribute.TestAttributeBehavior;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class EncodedAttributeValueTest {
+
+    private ZContext context;
+    private ZMQ.Socket first;
+    private ZMQ.Socket second;
+    private AttributeImpl attribute;
+
+    @Before
+    public void before() throws DevFailed {
+        context = new ZContext();
+        first = context.createSocket(ZMQ.PUB);
+        second = context.createSocket(ZMQ.PUB);
+        attribute = new TestAttributeBehavior("doubleScalar", double.class, () -> null).build("test/encoded/1");
+        attribute.updateValue(new AttributeValue(10.0));
+    }
+
+    @After
+    public void after() {
+        context.close();
+    }
+
+    private static long getMarshalNr(final EventImpl event) {
+        return event.getMetrics().getMarshalLatency().getCount();
+    }
+
+    @Test
+    public void marshalledOncePerIDLVersion() throws DevFailed {
+        final EncodedAttributeValue value = EncodedAttributeValue.of(attribute);
+        final EventImpl change = new EventImpl(attribute, EventType.CHANGE_EVENT, 5, "change");
+        final EventImpl periodic = new EventImpl(attribute, EventType.PERIODIC_EVENT, 5, "periodic");
+        final EventImpl changeIDL4 = new EventImpl(attribute, EventType.CHANGE_EVENT, 4, "change4");
+        final EventImpl periodicIDL4 = new EventImpl(attribute, EventType.PERIODIC_EVENT, 4, "periodic4");
+        for (final EventImpl event : new EventImpl[]{change, periodic, changeIDL4, periodicIDL4}) {
+            event.pushAttributeValueEvent(first, value);
+            event.pushAttributeValueEvent(second, value);
+            assertEquals(2, event.getMetrics().getSentNr());
+        }
+        // recorded by the first event of each IDL version only
+        assertEquals(1, getMarshalNr(change));
+        assertEquals(0, getMarshalNr(periodic));
+        assertEquals(1, getMarshalNr(changeIDL4));
+        assertEquals(0, getMarshalNr(periodicIDL4));
+    }
+
+    @Test
+    public void bufferSharedForSameIDLVersion() throws DevFailed {
+        final EncodedAttributeValue value = EncodedAttributeValue.of(attribute);
+        final EventMetrics metrics = new EventMetrics();
+        final Object idl5 = value.get(5, metrics);
+        assertSame(idl5, value.get(5, metrics));
+        assertSame(idl5, value.get(6, metrics));
+        final Object idl4 = value.get(4, metrics);
+        assertSame(idl4, value.get(4, metrics));
+        assertNotSame(idl4, idl5);
+        assertEquals(2, metrics.getMarshalLatency().getCount());
+    }
+}
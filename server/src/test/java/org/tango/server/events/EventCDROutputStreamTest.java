@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.jacorb.orb.CDROutputStream;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class EventCDROutputStreamTest {
+
+    private static void write(final CDROutputStream os) {
+        os.write_string("a");
+        os.write_double(1.5);
+        os.write_short((short) 3);
+        os.write_longlong(42L);
+        os.write_double_array(new double[]{1, 2, 3}, 0, 3);
+    }
+
+    private static byte[] expected(final int headerSize) {
+        final CDROutputStream os = new CDROutputStream();
+        try {
+            write(os);
+            final byte[] payload = os.getBufferCopy();
+            final byte[] result = new byte[payload.length + headerSize];
+            for (int i = 0; i < headerSize; i += 2) {
+                result[i] = (byte) 0xc0;
+                result[i + 1] = (byte) 0xde;
+            }
+            System.arraycopy(payload, 0, result, headerSize, payload.length);
+            return result;
+        } finally {
+            os.close();
+        }
+    }
+
+    private static byte[] actual(final int headerSize, final int sizeHint) {
+        final EventCDROutputStream os = new EventCDROutputStream(headerSize, sizeHint);
+        try {
+            write(os);
+            final ByteBuffer frame = os.toFrame();
+            assertEquals(0, frame.position());
+            return Arrays.copyOfRange(frame.array(), 0, frame.limit());
+        } finally {
+            os.close();
+        }
+    }
+
+    @Test
+    public void sameAsAlignedCopy() {
+        assertArrayEquals(expected(EventCDROutputStream.HEADER_SIZE), actual(EventCDROutputStream.HEADER_SIZE, -1));
+        assertArrayEquals(expected(EventCDROutputStream.HEADER_SIZE), actual(EventCDROutputStream.HEADER_SIZE, 4096));
+    }
+
+    @Test
+    public void sameAsAlignedCopyForPipe() {
+        assertArrayEquals(expected(EventCDROutputStream.PIPE_HEADER_SIZE),
+                actual(EventCDROutputStream.PIPE_HEADER_SIZE, -1));
+    }
+}
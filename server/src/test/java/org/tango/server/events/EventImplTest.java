@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import fr.esrf.Tango.DevFailed;
+import org.junit.Test;
+import org.tango.server.attribute.AttributeConfiguration;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.attribute.TestAttributeBehavior;
+import org.tango.utils.DevFailedUtils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventImplTest {
+
+    private static AttributeImpl createAttribute(final boolean checkChangeEvent) throws DevFailed {
+        final TestAttributeBehavior behavior = new TestAttributeBehavior("doubleScalar", double.class, () -> null);
+        final AttributeConfiguration config = behavior.getConfiguration();
+        config.setCheckChangeEvent(checkChangeEvent);
+        config.setCheckArchivingEvent(checkChangeEvent);
+        config.getAttributeProperties().setEventAbsChange("1");
+        config.getAttributeProperties().setArchivingEventAbsChange("5");
+        return behavior.build("test/event/1");
+    }
+
+    private static EventImpl createEvent(final AttributeImpl attribute, final EventType eventType) throws DevFailed {
+        final EventImpl event = new EventImpl(attribute, eventType, 5, eventType.getString());
+        event.setCheckCriteria(true);
+        return event;
+    }
+
+    @Test
+    public void criteriaNotCheckedByDefault() throws DevFailed {
+        final AttributeImpl attribute = createAttribute(true);
+        final EventImpl event = new EventImpl(attribute, EventType.CHANGE_EVENT, 5, "change");
+        attribute.updateValue(new AttributeValue(10.0));
+        assertTrue(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(10.5));
+        assertTrue(event.isSendEvent(null));
+        final DevFailed error = DevFailedUtils.newDevFailed("read failed");
+        assertTrue(event.isSendEvent(error));
+        assertTrue(event.isSendEvent(error));
+    }
+
+    @Test
+    public void changeBelowThresholdIsNotSent() throws DevFailed {
+        final AttributeImpl attribute = createAttribute(true);
+        final EventImpl event = createEvent(attribute, EventType.CHANGE_EVENT);
+        attribute.updateValue(new AttributeValue(10.0));
+        // first value is always sent
+        assertTrue(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(10.5));
+        assertFalse(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(10.9));
+        assertFalse(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(11.5));
+        assertTrue(event.isSendEvent(null));
+        // compared to the last sent value
+        attribute.updateValue(new AttributeValue(12.0));
+        assertFalse(event.isSendEvent(null));
+    }
+
+    @Test
+    public void errorIsSentOnce() throws DevFailed {
+        final AttributeImpl attribute = createAttribute(true);
+        final EventImpl event = createEvent(attribute, EventType.CHANGE_EVENT);
+        attribute.updateValue(new AttributeValue(10.0));
+        assertTrue(event.isSendEvent(null));
+        final DevFailed error = DevFailedUtils.newDevFailed("read failed");
+        assertTrue(event.isSendEvent(error));
+        assertFalse(event.isSendEvent(error));
+        // back to a value
+        assertTrue(event.isSendEvent(null));
+    }
+
+    @Test
+    public void archiveBelowThresholdIsNotSent() throws DevFailed {
+        final AttributeImpl attribute = createAttribute(true);
+        final EventImpl event = createEvent(attribute, EventType.ARCHIVE_EVENT);
+        attribute.updateValue(new AttributeValue(10.0));
+        assertTrue(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(13.0));
+        assertFalse(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(16.0));
+        assertTrue(event.isSendEvent(null));
+    }
+
+    @Test
+    public void uncheckedChangeIsAlwaysSent() throws DevFailed {
+        final AttributeImpl attribute = createAttribute(false);
+        final EventImpl event = createEvent(attribute, EventType.CHANGE_EVENT);
+        attribute.updateValue(new AttributeValue(10.0));
+        assertTrue(event.isSendEvent(null));
+        attribute.updateValue(new AttributeValue(10.1));
+        assertTrue(event.isSendEvent(null));
+    }
+}
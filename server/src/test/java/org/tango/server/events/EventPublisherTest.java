@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventPublisherTest {
+    private EventPublisher publisher;
+
+    @After
+    public void after() {
+        publisher.close();
+    }
+
+    @Test
+    public void publishInOrder() throws Exception {
+        publisher = new EventPublisher(100);
+        final List<Integer> sent = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 50; i++) {
+            final int counter = i;
+            publisher.publish(() -> sent.add(counter));
+        }
+        publisher.publish(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(50, sent.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, sent.get(i).intValue());
+        }
+        assertEquals(0, publisher.getDroppedEvents());
+    }
+
+    @Test
+    public void dropWhenFull() throws Exception {
+        publisher = new EventPublisher(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        publisher.publish(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(publisher.publish(() -> {
+        }));
+        assertFalse(publisher.publish(() -> {
+        }));
+        assertEquals(1, publisher.getQueueDepth());
+        assertEquals(1, publisher.getDroppedEvents());
+        release.countDown();
+    }
+
+    @Test
+    public void closeWaitsForRunningEvent() throws Exception {
+        publisher = new EventPublisher(10);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean isFinished = new AtomicBoolean();
+        publisher.publish(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            isFinished.set(true);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final AtomicBoolean isFinishedOnClose = new AtomicBoolean();
+        final Thread closer = new Thread(() -> {
+            publisher.close();
+            isFinishedOnClose.set(isFinished.get());
+        });
+        closer.start();
+        Thread.sleep(50);
+        release.countDown();
+        closer.join(5000);
+        assertTrue(isFinishedOnClose.get());
+
+        // restarted
+        final CountDownLatch done = new CountDownLatch(1);
+        publisher.publish(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventRateLimiterTest {
+
+    private static final long INTERVAL = 100;
+
+    private static EncodedAttributeValue newValue() {
+        return new EncodedAttributeValue(null, null, null);
+    }
+
+    @Test
+    public void conflateWithinPeriod() {
+        final EventRateLimiter limiter = new EventRateLimiter();
+        assertTrue(limiter.acquire(newValue(), INTERVAL, 1000));
+
+        final EncodedAttributeValue second = newValue();
+        final EncodedAttributeValue third = newValue();
+        assertFalse(limiter.acquire(second, INTERVAL, 1010));
+        assertEquals(90, limiter.scheduleFlush(INTERVAL, 1010));
+        assertFalse(limiter.acquire(third, INTERVAL, 1020));
+        // already scheduled
+        assertEquals(-1, limiter.scheduleFlush(INTERVAL, 1020));
+
+        // only the latest value is sent at the end of the period
+        assertSame(third, limiter.flush(1100));
+        assertNull(limiter.flush(1100));
+    }
+
+    @Test
+    public void sendAfterPeriod() {
+        final EventRateLimiter limiter = new EventRateLimiter();
+        assertTrue(limiter.acquire(newValue(), INTERVAL, 1000));
+        assertTrue(limiter.acquire(newValue(), INTERVAL, 1100));
+        assertFalse(limiter.acquire(newValue(), INTERVAL, 1150));
+        limiter.scheduleFlush(INTERVAL, 1150);
+        // a flush is pending, values are still conflated until it is done
+        assertFalse(limiter.acquire(newValue(), INTERVAL, 1250));
+        limiter.flush(1250);
+        assertFalse(limiter.acquire(newValue(), INTERVAL, 1300));
+        assertEquals(50, limiter.scheduleFlush(INTERVAL, 1300));
+    }
+}
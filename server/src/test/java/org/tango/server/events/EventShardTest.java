@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.junit.Test;
+import org.zeromq.ZMQ;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EventShardTest {
+
+    private static final Supplier<Map<String, ZMQ.Socket>> NO_ENDPOINTS = Collections::emptyMap;
+
+    private static void close(final List<EventShard> shards) {
+        for (final EventShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    @Test
+    public void shardIndexIsStableAndCaseInsensitive() {
+        final int nbShards = 4;
+        final int index = EventManager.getShardIndex("test/shard/1", nbShards);
+        assertTrue(index >= 0 && index < nbShards);
+        assertEquals(index, EventManager.getShardIndex("test/shard/1", nbShards));
+        assertEquals(index, EventManager.getShardIndex("Test/Shard/1", nbShards));
+        assertEquals(index, EventManager.getShardIndex("TEST/SHARD/1", nbShards));
+    }
+
+    @Test
+    public void devicesAreSpreadOverShards() {
+        final int nbShards = 4;
+        final Set<Integer> used = new HashSet<Integer>();
+        for (int i = 0; i < 100; i++) {
+            final int index = EventManager.getShardIndex("test/shard/" + i, nbShards);
+            assertTrue(index >= 0 && index < nbShards);
+            used.add(index);
+        }
+        assertEquals(nbShards, used.size());
+    }
+
+    @Test
+    public void singleShardIsSynchronous() {
+        assertEquals(0, EventManager.getShardIndex("test/shard/1", 1));
+        final List<EventShard> shards = EventManager.createEventShards(1, false, NO_ENDPOINTS,
+                name -> new EventPublisher(10, name));
+        assertEquals(1, shards.size());
+        assertNull(shards.get(0).getPublisher());
+    }
+
+    @Test
+    public void singleShardMayBeAsynchronous() {
+        final List<EventShard> shards = EventManager.createEventShards(1, true, NO_ENDPOINTS,
+                name -> new EventPublisher(10, name));
+        try {
+            assertEquals(1, shards.size());
+            assertNotNull(shards.get(0).getPublisher());
+        } finally {
+            close(shards);
+        }
+    }
+
+    @Test
+    public void multipleShardsHavePublishers() {
+        final List<EventShard> shards = EventManager.createEventShards(3, false, NO_ENDPOINTS,
+                name -> new EventPublisher(10, name));
+        try {
+            assertEquals(3, shards.size());
+            for (final EventShard shard : shards) {
+                assertNotNull(shard.getPublisher());
+            }
+        } finally {
+            close(shards);
+        }
+    }
+}
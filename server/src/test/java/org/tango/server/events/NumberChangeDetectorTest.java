@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NumberChangeDetectorTest {
+
+    @Test
+    public void absoluteChange() {
+        final NumberChangeDetector detector = new NumberChangeDetector();
+        detector.setCriteria("1", "Not specified");
+        assertFalse(detector.hasScalarChanged(10.5, 10.0));
+        assertTrue(detector.hasScalarChanged(9, 10));
+        assertFalse(detector.hasArrayChanged(new double[]{1, 2, 3}, new double[]{1.5, 2, 2.5}));
+        assertTrue(detector.hasArrayChanged(new double[]{1, 2, 3}, new double[]{1, 2, 4}));
+        assertTrue(detector.hasArrayChanged(new int[]{1, 2, 3}, new int[]{1, 2}));
+        assertTrue(detector.hasArrayChanged(new short[]{1, 2}, new short[]{1, 3}));
+        assertFalse(detector.hasArrayChanged(new long[]{1, 2}, new long[]{1, 2}));
+        assertTrue(detector.hasArrayChanged(new byte[]{1, -2}, new byte[]{1, 2}));
+        assertFalse(detector.hasArrayChanged(new float[]{1.1f}, new float[]{1.2f}));
+    }
+
+    @Test
+    public void relativeChange() {
+        final NumberChangeDetector detector = new NumberChangeDetector();
+        detector.setCriteria("Not specified", "10");
+        assertFalse(detector.hasScalarChanged(105, 100));
+        assertTrue(detector.hasScalarChanged(89, 100));
+        assertFalse(detector.hasScalarChanged(0, 0));
+        assertTrue(detector.hasScalarChanged(1, 0));
+        assertFalse(detector.hasArrayChanged(new double[]{1000, 105}, new double[]{1000, 100}));
+        assertTrue(detector.hasArrayChanged(new double[]{1000, 120}, new double[]{1000, 100}));
+        assertFalse(detector.hasArrayChanged(new Integer[]{105}, new Integer[]{100}));
+    }
+
+    @Test
+    public void noCriteria() {
+        final NumberChangeDetector detector = new NumberChangeDetector();
+        detector.setCriteria("Not specified", "Not specified");
+        assertFalse(detector.hasScalarChanged(1, 1000));
+        assertFalse(detector.hasArrayChanged(new int[]{1}, new int[]{1000}));
+    }
+}
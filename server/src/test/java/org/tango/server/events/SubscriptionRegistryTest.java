@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import fr.esrf.Tango.DevFailed;
+import org.junit.Test;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.TestAttributeBehavior;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SubscriptionRegistryTest {
+
+    private static final String DEVICE = "Test/Registry/1";
+
+    @Test
+    public void addAttributeEvents() {
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        assertTrue(registry.isEmpty());
+        assertFalse(registry.hasSubscriber(DEVICE));
+
+        final EventImpl change = new EventImpl(5, "tango://localhost:10000/test/registry/1/attr.idl5_change");
+        final EventImpl archive = new EventImpl(5, "tango://localhost:10000/test/registry/1/attr.idl5_archive");
+        assertSame(change, registry.addAttributeEvent(DEVICE, "Attr", change));
+        assertSame(archive, registry.addAttributeEvent(DEVICE, "attr", archive));
+        // same event name is registered once
+        final EventImpl duplicate = new EventImpl(5, change.getFullName());
+        assertSame(change, registry.addAttributeEvent(DEVICE, "ATTR", duplicate));
+
+        assertEquals(2, registry.size());
+        assertTrue(registry.hasSubscriber("test/registry/1"));
+        assertFalse(registry.hasSubscriber("test/registry/10"));
+        assertArrayEquals(new EventImpl[]{change, archive}, registry.getAttributeEvents(DEVICE, "attr"));
+        assertSame(archive, registry.renewAttributeEvent(DEVICE, "attr", archive.getFullName()));
+        assertEquals(0, registry.getAttributeEvents(DEVICE, "other").length);
+    }
+
+    @Test
+    public void addDeviceAndPipeEvents() {
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        final EventImpl interfaceChange = new EventImpl(5, "interface");
+        final EventImpl pipe = new EventImpl(5, "pipe");
+        assertSame(interfaceChange, registry.addInterfaceChangeEvent(DEVICE, interfaceChange));
+        assertSame(interfaceChange, registry.addInterfaceChangeEvent(DEVICE, new EventImpl(5, "interface")));
+        assertSame(pipe, registry.addPipeEvent(DEVICE, "Pipe", pipe));
+        assertSame(pipe, registry.getPipeEvent(DEVICE, "pipe"));
+        assertNull(registry.getPipeEvent(DEVICE, "attr"));
+        assertSame(interfaceChange, registry.getInterfaceChangeEvent(DEVICE.toUpperCase()));
+        assertEquals(2, registry.size());
+
+        registry.clear();
+        assertTrue(registry.isEmpty());
+        assertFalse(registry.hasSubscriber(DEVICE));
+    }
+
+    @Test
+    public void removeExpired() {
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        final EventImpl change = new EventImpl(5, "change");
+        final EventImpl archive = new EventImpl(5, "archive");
+        final EventImpl pipe = new EventImpl(5, "pipe");
+        final EventImpl interfaceChange = new EventImpl(5, "interface");
+        registry.addAttributeEvent(DEVICE, "attr", change);
+        registry.addAttributeEvent(DEVICE, "attr", archive);
+        registry.addPipeEvent(DEVICE, "pipe", pipe);
+        registry.addInterfaceChangeEvent(DEVICE, interfaceChange);
+
+        final long now = System.currentTimeMillis();
+        assertTrue(registry.removeExpired(now).isEmpty());
+        assertEquals(4, registry.size());
+
+        final long later = change.getExpiryTime() + EventConstants.EVENT_EXPIRY_SWEEP_PERIOD * 2;
+        assertEquals(new HashSet<EventImpl>(Arrays.asList(change, archive, pipe, interfaceChange)),
+                new HashSet<EventImpl>(registry.removeExpired(later)));
+        assertTrue(registry.isEmpty());
+        assertFalse(registry.hasSubscriber(DEVICE));
+        assertEquals(0, registry.getAttributeEvents(DEVICE, "attr").length);
+        assertNull(registry.getPipeEvent(DEVICE, "pipe"));
+        assertNull(registry.getInterfaceChangeEvent(DEVICE));
+    }
+
+    @Test
+    public void renewedEventsAreKept() {
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        final EventImpl change = new EventImpl(5, "change");
+        final EventImpl pipe = new EventImpl(5, "pipe");
+        final EventImpl interfaceChange = new EventImpl(5, "interface");
+        final long now = System.currentTimeMillis();
+        final long expired = now - EventConstants.EVENT_RESUBSCRIBE_PERIOD - EventConstants.EVENT_EXPIRY_SWEEP_PERIOD;
+        for (final EventImpl eventImpl : Arrays.asList(change, pipe, interfaceChange)) {
+            eventImpl.setSubscribeTime(expired);
+        }
+        registry.addAttributeEvent(DEVICE, "attr", change);
+        registry.addPipeEvent(DEVICE, "pipe", pipe);
+        registry.addInterfaceChangeEvent(DEVICE, interfaceChange);
+
+        // renewed after its expiry, before the sweep
+        assertSame(change, registry.renewAttributeEvent(DEVICE, "attr", change.getFullName()));
+        assertSame(pipe, registry.renewPipeEvent(DEVICE, "Pipe"));
+        assertSame(interfaceChange, registry.renewInterfaceChangeEvent(DEVICE));
+        assertTrue(registry.removeExpired(now).isEmpty());
+        assertEquals(3, registry.size());
+
+        // re-scheduled with the new expiry
+        final long later = change.getExpiryTime() + EventConstants.EVENT_EXPIRY_SWEEP_PERIOD * 2;
+        assertEquals(3, registry.removeExpired(later).size());
+        assertTrue(registry.isEmpty());
+        assertNull(registry.renewAttributeEvent(DEVICE, "attr", change.getFullName()));
+        assertNull(registry.renewPipeEvent(DEVICE, "pipe"));
+        assertNull(registry.renewInterfaceChangeEvent(DEVICE));
+    }
+
+    @Test
+    public void renewalConcurrentWithSweepIsNotLost() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            final SubscriptionRegistry registry = new SubscriptionRegistry();
+            final EventImpl change = new EventImpl(5, "change");
+            final long now = System.currentTimeMillis();
+            change.setSubscribeTime(now - EventConstants.EVENT_RESUBSCRIBE_PERIOD - 1);
+            registry.addAttributeEvent(DEVICE, "attr", change);
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final EventImpl[] renewed = new EventImpl[1];
+            final Thread subscriber = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                renewed[0] = registry.renewAttributeEvent(DEVICE, "attr", change.getFullName());
+            });
+            subscriber.start();
+            start.countDown();
+            final List<EventImpl> expired = registry.removeExpired(now + EventConstants.EVENT_EXPIRY_SWEEP_PERIOD);
+            subscriber.join();
+
+            // either the renewal comes first and the event is kept, or the event is removed and not renewed
+            if (renewed[0] == null) {
+                assertEquals(Collections.singletonList(change), expired);
+                assertTrue(registry.isEmpty());
+            } else {
+                assertTrue(expired.isEmpty());
+                assertEquals(1, registry.size());
+            }
+        }
+    }
+
+    @Test
+    public void subscriptionMaskFollowsAttributeEvents() throws DevFailed {
+        final TestAttributeBehavior behavior = new TestAttributeBehavior("attr", double.class, () -> null);
+        behavior.getConfiguration().setCheckChangeEvent(true);
+        behavior.getConfiguration().setCheckArchivingEvent(true);
+        final AttributeImpl attribute = behavior.build(DEVICE);
+        assertFalse(attribute.hasEventSubscriber());
+
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        final long now = System.currentTimeMillis();
+        final EventImpl change = new EventImpl(attribute, EventType.CHANGE_EVENT, 5, "change");
+        final long expired = now - EventConstants.EVENT_RESUBSCRIBE_PERIOD - EventConstants.EVENT_EXPIRY_SWEEP_PERIOD;
+        change.setSubscribeTime(expired);
+        final EventImpl archive = new EventImpl(attribute, EventType.ARCHIVE_EVENT, 5, "archive");
+
+        // subscribe
+        registry.addAttributeEvent(DEVICE, "attr", change);
+        assertTrue(attribute.hasEventSubscriber());
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.CHANGE_EVENT)));
+        assertFalse(attribute.hasEventSubscriber(EnumSet.of(EventType.ARCHIVE_EVENT)));
+        registry.addAttributeEvent(DEVICE, "attr", archive);
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.ARCHIVE_EVENT)));
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.PERIODIC_EVENT, EventType.ARCHIVE_EVENT)));
+        assertFalse(attribute.hasEventSubscriber(EnumSet.of(EventType.PERIODIC_EVENT, EventType.USER_EVENT)));
+        assertFalse(attribute.hasEventSubscriber(EnumSet.noneOf(EventType.class)));
+
+        // renewal
+        registry.addAttributeEvent(DEVICE, "attr", new EventImpl(attribute, EventType.ARCHIVE_EVENT, 5, "archive"));
+        assertSame(archive, registry.renewAttributeEvent(DEVICE, "attr", "archive"));
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.CHANGE_EVENT)));
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.ARCHIVE_EVENT)));
+
+        // expiry
+        assertEquals(Collections.singletonList(change), registry.removeExpired(now));
+        assertFalse(attribute.hasEventSubscriber(EnumSet.of(EventType.CHANGE_EVENT)));
+        assertTrue(attribute.hasEventSubscriber(EnumSet.of(EventType.ARCHIVE_EVENT)));
+
+        registry.clear();
+        assertFalse(attribute.hasEventSubscriber());
+        assertFalse(attribute.hasEventSubscriber(EnumSet.of(EventType.ARCHIVE_EVENT)));
+    }
+
+    @Test
+    public void mixedCaseLookupReturnsRegisteredEvents() {
+        final SubscriptionRegistry registry = new SubscriptionRegistry();
+        final EventImpl change = new EventImpl(5, "change");
+        registry.addAttributeEvent("test/registry/1", "doublescalar", change);
+        // the registered array is returned as is, for the name as pushed and once its key is known
+        final EventImpl[] events = registry.getAttributeEvents(DEVICE, "doubleScalar");
+        assertArrayEquals(new EventImpl[]{change}, events);
+        assertSame(events, registry.getAttributeEvents(DEVICE, "doubleScalar"));
+        assertSame(events, registry.getAttributeEvents(DEVICE.toUpperCase(), "DOUBLESCALAR"));
+    }
+}
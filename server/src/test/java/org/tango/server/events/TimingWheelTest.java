@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void expireOnDeadline() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(10, 1000);
+        wheel.schedule("a", 1050);
+        wheel.schedule("b", 1055);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.advance(1049).isEmpty());
+        assertEquals(Collections.singletonList("a"), wheel.advance(1050));
+        // rounded up to the next tick
+        assertTrue(wheel.advance(1059).isEmpty());
+        assertEquals(Collections.singletonList("b"), wheel.advance(1060));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void overdue() {
+        final TimingWheel<String> wheel = new TimingWheel<String>(10, 1000);
+        wheel.schedule("a", 500);
+        assertEquals(Collections.singletonList("a"), wheel.advance(1000));
+    }
+
+    @Test
+    public void cascadeFromUpperLevels() {
+        final TimingWheel<Long> wheel = new TimingWheel<Long>(1, 7);
+        final List<Long> deadlines = Arrays.asList(70L, 100L, 4102L, 4103L, 5000L, 300000L, 400000L);
+        for (final Long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        final List<Long> expired = new ArrayList<Long>();
+        for (long now = 8; now <= 400000; now++) {
+            for (final Long deadline : wheel.advance(now)) {
+                assertEquals(deadline.longValue(), now);
+                expired.add(deadline);
+            }
+        }
+        assertEquals(deadlines, expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void advanceSeveralTicks() {
+        final TimingWheel<Long> wheel = new TimingWheel<Long>(1, 0);
+        wheel.schedule(10L, 10);
+        wheel.schedule(5000L, 5000);
+        assertEquals(Collections.singletonList(10L), wheel.advance(4999));
+        assertEquals(Collections.singletonList(5000L), wheel.advance(6000));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.idl;
+
+import fr.esrf.Tango.AttrDataFormat;
+import fr.esrf.Tango.AttrValUnion;
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevState;
+import fr.esrf.TangoDs.TangoConst;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CleverAttrValUnionTest {
+
+    @Test
+    public void scalar() throws DevFailed {
+        final AttrValUnion union = CleverAttrValUnion.set(TangoConst.Tango_DEV_DOUBLE, 1.5);
+        assertArrayEquals(new double[]{1.5}, union.double_att_value(), 0);
+        assertEquals(1.5, CleverAttrValUnion.get(union, AttrDataFormat.SCALAR));
+    }
+
+    @Test
+    public void scalarWidened() throws DevFailed {
+        final AttrValUnion union = CleverAttrValUnion.set(TangoConst.Tango_DEV_LONG64, 3);
+        assertArrayEquals(new long[]{3}, union.long64_att_value());
+    }
+
+    @Test
+    public void spectrum() throws DevFailed {
+        final AttrValUnion union = CleverAttrValUnion.set(TangoConst.Tango_DEV_LONG, new Integer[]{1, 2});
+        assertArrayEquals(new int[]{1, 2}, (int[]) CleverAttrValUnion.get(union, AttrDataFormat.SPECTRUM));
+    }
+
+    @Test
+    public void state() throws DevFailed {
+        final AttrValUnion union = CleverAttrValUnion.set(TangoConst.Tango_DEV_STATE, DevState.ON);
+        assertEquals(DevState.ON, CleverAttrValUnion.get(union, AttrDataFormat.SCALAR));
+    }
+
+    @Test(expected = DevFailed.class)
+    public void wrongType() throws DevFailed {
+        CleverAttrValUnion.set(TangoConst.Tango_DEV_SHORT, "text");
+    }
+}
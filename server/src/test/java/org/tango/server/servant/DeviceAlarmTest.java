@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import fr.esrf.Tango.DevFailed;
+import fr.esrf.Tango.DevState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tango.client.database.DatabaseFactory;
+import org.tango.server.annotation.TransactionType;
+import org.tango.server.attribute.AttributeImpl;
+import org.tango.server.attribute.AttributeValue;
+import org.tango.server.attribute.TestAttributeBehavior;
+import org.tango.server.device.StateImpl;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeviceAlarmTest {
+
+    private static final String DEVICE = "test/alarm/1";
+
+    private final Set<String> readThreads = ConcurrentHashMap.newKeySet();
+    /**
+     * if set, each read waits for another read to run at the same time
+     */
+    private volatile CyclicBarrier readTogether;
+    private final AtomicInteger notTogether = new AtomicInteger();
+    private boolean wasUsingDb;
+    private DeviceImpl device;
+
+    public static final class AlarmDevice {
+        public DevState getState() {
+            return DevState.ON;
+        }
+    }
+
+    /**
+     * An attribute reading a value, in alarm above 10
+     */
+    private final class AlarmAttribute {
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile double value;
+        private final AttributeImpl attribute;
+
+        private AlarmAttribute(final String name, final double value) throws DevFailed {
+            this.value = value;
+            final TestAttributeBehavior behavior = new TestAttributeBehavior(name, double.class, () -> {
+                reads.incrementAndGet();
+                readThreads.add(Thread.currentThread().getName());
+                final CyclicBarrier barrier = readTogether;
+                if (barrier != null) {
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    } catch (final Exception e) {
+                        notTogether.incrementAndGet();
+                    }
+                }
+                return new AttributeValue(AlarmAttribute.this.value);
+            });
+            behavior.getConfiguration().getAttributeProperties().setMaxAlarm("10");
+            attribute = behavior.build(DEVICE);
+            device.addAttribute(attribute);
+        }
+    }
+
+    @Before
+    public void before() throws Exception {
+        wasUsingDb = DatabaseFactory.isUseDb();
+        DatabaseFactory.setNoDbDevices(new String[]{DEVICE}, "AlarmDevice");
+        final AlarmDevice businessObject = new AlarmDevice();
+        device = new DeviceImpl(DEVICE, "AlarmDevice", TransactionType.NONE, businessObject, "AlarmDevice");
+        device.setStateImpl(new StateImpl(businessObject, AlarmDevice.class.getMethod("getState"), null));
+    }
+
+    @After
+    public void after() {
+        DatabaseFactory.setUseDb(wasUsingDb);
+    }
+
+    @Test
+    public void attributeInAndOutOfAlarm() throws DevFailed {
+        final AlarmAttribute attribute = new AlarmAttribute("current", 1);
+        device.setStateCheckAlarmsMaxAge(0);
+        device.initDevice();
+        device.setStateCheckAttrAlarm(true);
+        assertEquals(DevState.ON, device.getState());
+        assertFalse(device.getStatus().contains("Alarm"));
+
+        attribute.value = 20;
+        assertEquals(DevState.ALARM, device.getState());
+        assertTrue(device.getStatus().contains("Value too high for current"));
+
+        attribute.value = 2;
+        assertEquals(DevState.ON, device.getState());
+        assertFalse(device.getStatus().contains("Alarm"));
+    }
+
+    @Test
+    public void alarmCheckEnabledAtRuntime() throws DevFailed {
+        final AlarmAttribute attribute = new AlarmAttribute("current", 20);
+        device.setStateCheckAlarmsMaxAge(-1);
+        device.initDevice();
+        attribute.attribute.updateValue();
+        // not checked
+        assertEquals(DevState.ON, device.getState());
+        assertFalse(device.getStatus().contains("Alarm"));
+
+        // the alarm of the last value is taken at once
+        device.setStateCheckAttrAlarm(true);
+        assertEquals(DevState.ALARM, device.getState());
+        assertTrue(device.getStatus().contains("Value too high for current"));
+        assertEquals(1, attribute.reads.get());
+
+        device.setStateCheckAttrAlarm(false);
+        assertEquals(DevState.ON, device.getState());
+    }
+
+    @Test
+    public void negativeMaxAgeUsesLastValues() throws DevFailed {
+        final AlarmAttribute attribute = new AlarmAttribute("current", 1);
+        device.setStateCheckAlarmsMaxAge(-1);
+        device.initDevice();
+        device.setStateCheckAttrAlarm(true);
+        attribute.value = 20;
+        // the state does not read the attribute
+        assertEquals(DevState.ON, device.getState());
+        assertEquals(0, attribute.reads.get());
+
+        // the alarm follows the next read of the attribute, e.g. by polling
+        attribute.attribute.updateValue();
+        assertEquals(DevState.ALARM, device.getState());
+        attribute.value = 2;
+        attribute.attribute.updateValue();
+        assertEquals(DevState.ON, device.getState());
+        assertEquals(2, attribute.reads.get());
+    }
+
+    @Test
+    public void valuesOlderThanMaxAgeAreRead() throws DevFailed {
+        final AlarmAttribute attribute = new AlarmAttribute("current", 1);
+        device.setStateCheckAlarmsMaxAge(60000);
+        device.initDevice();
+        device.setStateCheckAttrAlarm(true);
+        assertEquals(DevState.ON, device.getState());
+        assertEquals(1, attribute.reads.get());
+
+        // the value read is recent enough
+        attribute.value = 20;
+        assertEquals(DevState.ON, device.getState());
+        assertEquals(1, attribute.reads.get());
+    }
+
+    @Test
+    public void attributesReadInParallel() throws DevFailed {
+        new AlarmAttribute("current", 20);
+        final AlarmAttribute voltage = new AlarmAttribute("voltage", 1);
+        new AlarmAttribute("power", 30);
+        device.setStateCheckAlarmsMaxAge(0);
+        device.setStateCheckAlarmsThreads(3);
+        device.initDevice();
+        device.setStateCheckAttrAlarm(true);
+
+        // each read completes only when all three run at the same time
+        readTogether = new CyclicBarrier(3);
+        assertEquals(DevState.ALARM, device.getState());
+        assertEquals(0, notTogether.get());
+        assertEquals(1, voltage.reads.get());
+        assertEquals(3, readThreads.size());
+        for (final String thread : readThreads) {
+            assertTrue(thread, thread.startsWith("Alarm check " + DEVICE));
+        }
+        final String status = device.getStatus();
+        assertTrue(status.contains("Value too high for current"));
+        assertTrue(status.contains("Value too high for power"));
+        assertFalse(status.contains("voltage"));
+        assertEquals(0, notTogether.get());
+    }
+}
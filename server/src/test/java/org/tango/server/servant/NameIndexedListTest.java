@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) :     2012
+ *
+ * 	Synchrotron Soleil
+ * 	L'Orme des merisiers
+ * 	Saint Aubin
+ * 	BP48
+ * 	91192 GIF-SUR-YVETTE CEDEX
+ *
+ * This file is part of Tango.
+ *
+ * Tango is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Tango is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Tango.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.tango.server.servant;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class NameIndexedListTest {
+
+    private final NameIndexedList<String> list = new NameIndexedList<String>(Function.identity());
+
+    @Test
+    public void lookupIgnoresCase() {
+        list.add("Current");
+        list.add("voltage");
+        assertSame("Current", list.get("Current"));
+        assertSame("Current", list.get("CURRENT"));
+        assertSame("voltage", list.get("Voltage"));
+        assertNull(list.get("power"));
+        assertEquals(2, list.size());
+    }
+
+    @Test
+    public void removedElementIsNotFound() {
+        list.add("Current");
+        list.add("voltage");
+        list.remove("Current");
+        assertNull(list.get("current"));
+        assertSame("voltage", list.get("voltage"));
+        list.clear();
+        assertNull(list.get("voltage"));
+    }
+
+    @Test
+    public void sameNameInOtherCaseFoundAfterRemove() {
+        list.add("Current");
+        list.add("CURRENT");
+        assertSame("Current", list.get("current"));
+        list.remove(0);
+        assertSame("CURRENT", list.get("current"));
+    }
+}